@@ -1,5 +1,6 @@
 package animation;
 
+import general.GameLoop;
 import geom.functions.FunctionCollection;
 import gui.Drawable;
 
@@ -66,6 +67,8 @@ public class AnimatedLine implements Drawable {
 				BasicStroke.CAP_BUTT,
 				BasicStroke.JOIN_MITER,
 				10.0f, new float[]{10f}, (float) offset);
+		// The line is moving, so the game loop must not idle.
+		GameLoop.wakeUp();
 	}
 
 	public Color getColor() {
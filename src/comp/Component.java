@@ -1,6 +1,8 @@
 package comp;
 
+import general.DamageTracker;
 import general.Delegate;
+import general.GameLoop;
 import general.GameWindow;
 import geom.Vector;
 import gui.screen.Screen;
@@ -43,6 +45,13 @@ public class Component {
 	 */
 	private Shape bounds;
 
+	/**
+	 * The bounds together with their bounding rectangle, as of a specific epoch of the transformation.
+	 * Replaced as a whole, so readers never see bounds and rectangle of different epochs.
+	 * @see Transformation2D#epoch()
+	 */
+	private volatile CachedBounds cachedBounds;
+
 	/**
 	 * The shape from which the component derives its bounds.
 	 */
@@ -92,6 +101,12 @@ public class Component {
      */
     private boolean listenerTransparent = false;
 
+    /**
+     * Determines whether the component is placed in world coordinates. Such components are drawn through the
+     * camera of their screen (see {@link Screen#setCamera(int, int)}) and are hit-tested accordingly.
+     */
+    private boolean worldSpace = false;
+
 	/**
 	 * Self-explanatory.
 	 */
@@ -245,6 +260,7 @@ public class Component {
             if (boundsRecalculationIssued) {
                 transformationChangedSince = true;
             }
+            markTransformationDirty();
         });
     }
 
@@ -369,7 +385,7 @@ public class Component {
 	 * @return the x
 	 */
 	public int getX() {
-		return (int) getPreciseRectangle().getX();
+		return (int) currentBounds().rectangle.getX();
 	}
 
 	public int getRelativeX() {
@@ -395,7 +411,7 @@ public class Component {
 	 * @return the y
 	 */
 	public int getY() {
-		return (int) getPreciseRectangle().getY();
+		return (int) currentBounds().rectangle.getY();
 	}
 
 	public int getRelativeY() {
@@ -433,8 +449,8 @@ public class Component {
 	}
 
     public void setCenteredLocation(int x, int y) {
-        final Point center = center();
-        move(x - center.x, y - center.y);
+        final Rectangle2D rectangle = currentBounds().rectangle;
+        move(x - (int) rectangle.getCenterX(), y - (int) rectangle.getCenterY());
     }
 
 	public void move(int dx, int dy) {
@@ -470,7 +486,7 @@ public class Component {
     }
 
 	public int getWidth() {
-		return (int) getBounds().getBounds2D().getWidth();
+		return (int) currentBounds().rectangle.getWidth();
 	}
 
 	public void setWidth(int width) {
@@ -502,7 +518,7 @@ public class Component {
 	 * @return the height
 	 */
 	public int getHeight() {
-		return (int) getPreciseRectangle().getHeight();
+		return (int) currentBounds().rectangle.getHeight();
 	}
 
 	/**
@@ -530,7 +546,23 @@ public class Component {
 	}
 
 	protected void forceBoundsRecalculation() {
+		// Read the epoch first: if the transformation changes meanwhile, the bounds are computed again next time.
+		final long epoch = transformation.epoch();
 		bounds = generatedBounds();
+		cachedBounds = new CachedBounds(epoch, bounds);
+	}
+
+	/**
+	 * Returns the cached bounds, computing them first if the transformation has changed since.
+	 */
+	private CachedBounds currentBounds() {
+		CachedBounds cached = cachedBounds;
+		if(cached == null || cached.epoch != transformation.epoch()) {
+			forceBoundsRecalculation();
+			cached = cachedBounds;
+		}
+		if(cached.shape == null) throw new IllegalStateException("Component with no bounds");
+		return cached;
 	}
 
 	protected final Shape generatedBounds() {
@@ -546,9 +578,7 @@ public class Component {
 	 * @return The current component's bounds.
 	 */
 	public Shape getBounds() {
-		forceBoundsRecalculation();
-		if(bounds == null) throw new IllegalStateException("Component with no bounds");
-		return bounds;
+		return currentBounds().shape;
 	}
 
 	/**
@@ -561,8 +591,10 @@ public class Component {
 	 */
 	public void setBounds(Shape bounds) {
 		this.bounds = bounds;
+		cachedBounds = null;
 		boundsRecalculationIssued = bounds == null;
 		transformationChangedSince = bounds == null;
+		invalidateHitBounds();
 	}
 
 	public boolean isBoundsRecalculationIssued() {
@@ -588,13 +620,98 @@ public class Component {
 
 		// Invalidate old bounds, very likely to be wrong now.
 		transformationChangedSince = true;
+		cachedBounds = null;
 
 		transformation.resetTransformation();
 		transformation.setTranslationWithoutSideEffect(srcShapeParam.getBounds2D().getWidth() / 2, srcShapeParam.getBounds2D().getHeight() / 2);
+		invalidateHitBounds();
+	}
+
+	/**
+	 * Reports the area of the component as changed, so that it is redrawn with the next frame
+	 * (see {@link DamageTracker}). Components changing their appearance without being transformed should call this.
+	 */
+	public void markDirty() {
+		if (DamageTracker.getInstance().isEnabled()) {
+			if (srcShape != null) DamageTracker.getInstance().markDirty(toScreen(currentBounds().rectangle));
+		} else if (visible) {
+			// Every frame is drawn completely, but it needs to be drawn at the full rate.
+			GameLoop.wakeUp();
+		}
+	}
+
+	/**
+	 * Like {@link #markDirty()}, but without waking up the game loop: the component is redrawn with the next frame,
+	 * whenever that is. Meant for components changing all the time without needing the full frame rate, like the
+	 * {@link general.TimeClock}; while the game loop is idle, they are redrawn at its low tick rate.
+	 */
+	public void markDirtyLazily() {
+		if (DamageTracker.getInstance().isEnabled() && srcShape != null) {
+			DamageTracker.getInstance().markDirtyLazily(toScreen(currentBounds().rectangle));
+		}
+	}
+
+	/**
+	 * Reports the area the component has been covering before being transformed and the area it covers now.
+	 * Transforming an invisible component does not need a frame at all.
+	 */
+	private void markTransformationDirty() {
+		if (!visible) return;
+		if (!DamageTracker.getInstance().isEnabled()) {
+			GameLoop.wakeUp();
+			return;
+		}
+		final CachedBounds previous = cachedBounds;
+		if (previous != null && previous.rectangle != null) {
+			DamageTracker.getInstance().markDirty(toScreen(previous.rectangle));
+		}
+		markDirty();
+	}
+
+	/** Converts the rectangle into screen coordinates, if the component is placed in world coordinates. */
+	private Rectangle2D toScreen(Rectangle2D rectangle) {
+		if (!worldSpace || backingScreen == null) return rectangle;
+		return new Rectangle2D.Double(rectangle.getX() + backingScreen.getCameraX(), rectangle.getY() + backingScreen.getCameraY(),
+				rectangle.getWidth(), rectangle.getHeight());
+	}
+
+	/**
+	 * Tells the backing screen that the bounds have changed without a transformation event.
+	 */
+	private void invalidateHitBounds() {
+		if (backingScreen != null) backingScreen.invalidateHitBounds(this);
 	}
 
+	/**
+	 * Returns the bounding rectangle of the bounds. The rectangle is a copy and may be modified;
+	 * use {@link #getPreciseX()}, {@link #getCenterX()} and friends to read single values without a copy.
+	 */
 	public Rectangle2D getPreciseRectangle() {
-		return getBounds().getBounds2D();
+		return (Rectangle2D) currentBounds().rectangle.clone();
+	}
+
+	public double getPreciseX() {
+		return currentBounds().rectangle.getX();
+	}
+
+	public double getPreciseY() {
+		return currentBounds().rectangle.getY();
+	}
+
+	public double getPreciseWidth() {
+		return currentBounds().rectangle.getWidth();
+	}
+
+	public double getPreciseHeight() {
+		return currentBounds().rectangle.getHeight();
+	}
+
+	public double getCenterX() {
+		return currentBounds().rectangle.getCenterX();
+	}
+
+	public double getCenterY() {
+		return currentBounds().rectangle.getCenterY();
 	}
 
 	/**
@@ -669,6 +786,7 @@ public class Component {
 	 * @param vvvvvv Der neue Sichtbarkeitswert.
 	 */
 	public void setVisible(boolean vvvvvv) {
+		if (visible != vvvvvv) markDirty();
 		visible = vvvvvv;
         children.values().forEach(component -> component.setVisible(vvvvvv));
 		if (vvvvvv) {
@@ -757,6 +875,23 @@ public class Component {
         return listenerTransparent;
     }
 
+    /**
+     * @return true if the component is placed in world coordinates instead of screen coordinates.
+     */
+    public boolean isWorldSpace() {
+        return worldSpace;
+    }
+
+    /**
+     * Places the component in world coordinates (or back in screen coordinates). The position of the component
+     * is not changed.
+     * @param worldSpace true if the position of the component is given in world coordinates.
+     */
+    public void setWorldSpace(boolean worldSpace) {
+        this.worldSpace = worldSpace;
+        invalidateHitBounds();
+    }
+
     public void setListenerTransparent(boolean listenerTransparent) {
         this.listenerTransparent = listenerTransparent;
     }
@@ -773,6 +908,7 @@ public class Component {
 	protected void reproduceTransformation(Transformation2D transformation) {
 		Transformation2D.applySilently(this, transformation);
 		transformationChangedSince = true;
+		invalidateHitBounds();
 	}
 
 	public void resetPosition() {
@@ -801,7 +937,7 @@ public class Component {
      * @return The bound's center.
      */
 	public Point center() {
-        final Rectangle2D preciseRectangle = getPreciseRectangle();
+        final Rectangle2D preciseRectangle = currentBounds().rectangle;
         return new Point((int) preciseRectangle.getCenterX(), (int) preciseRectangle.getCenterY());
 	}
 
@@ -852,4 +988,18 @@ public class Component {
 		mouseWheelListeners.add(mouseWheelListener);
 	}
 
+	/**
+	 * The bounds of a component and their bounding rectangle, computed for one epoch of the transformation.
+	 */
+	private static final class CachedBounds {
+		final long epoch;
+		final Shape shape;
+		final Rectangle2D rectangle;
+
+		CachedBounds(long epoch, Shape shape) {
+			this.epoch = epoch;
+			this.shape = shape;
+			this.rectangle = shape == null ? null : shape.getBounds2D();
+		}
+	}
 }
@@ -30,9 +30,16 @@ trait DisplayRepresentable {
     */
   def component_=(a: Component): Unit = {
     require(a != null)
+    if (isPlacedInWorld) a.setWorldSpace(true)
     m_component = a
   }
 
+  /**
+    * True if the components of this object are placed in world coordinates (see [[comp.Component#isWorldSpace]]),
+    * like everything standing on the map.
+    */
+  protected def isPlacedInWorld: Boolean = false
+
   def getComponent: Component = component
   def setComponent(a: Component): Unit = this.component = a
 
@@ -47,7 +47,7 @@ class ImageComponent(x: Int, y: Int, val textureUsage: TextureUsage, screen: Scr
   def getBufferedImage = textureUsage.textureBinding
 
   override def draw(g: Graphics2D): Unit = {
-    g.useMatrix(getTransformation.localConcatenatedMatrix) {
+    g.useMatrix(getTransformation.concatenatedMatrix) {
       val src_s = getSourceShape.getBounds
       g.drawImage(textureUsage.textureBinding, src_s.x, src_s.y, src_s.width, src_s.height, null)
     }
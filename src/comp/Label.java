@@ -135,8 +135,10 @@ public class Label extends Component {
     }
 
     public void setText(String text) {
+        markDirty();
         this.textSequence = new TextSequence(text);
         recalculateDimension();
+        markDirty();
     }
 
     /**
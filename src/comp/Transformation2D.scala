@@ -10,16 +10,28 @@ import scala.math.toRadians
 
 /**
  * Class hiding 2D-matrix details to provide a common facade to the matrix operations.
+ *
+ * The translation, rotation and scale are kept as plain numbers. The concatenated matrix is built from them
+ * only when it is needed after a change, and kept until the next change. Every change increments the
+ * [[comp.Transformation2D#epoch epoch]], which lets others cache what they derive from the transformation.
  */
 class Transformation2D {
 
-  private var _translationMatrix = new AffineTransform
-  private var _rotationMatrix = new AffineTransform
-  private var _scaleMatrix = new AffineTransform
+  private var _translationX = 0.0
+  private var _translationY = 0.0
+  private var _scaleX = 1.0
+  private var _scaleY = 1.0
 
   /** in degree*/
   private var _rotation = 0.0
 
+  /** Incremented with every change of the transformation. */
+  @volatile private var _epoch = 0L
+
+  /** The concatenated matrix as of `_concatenatedEpoch`. */
+  private val _concatenated = new AffineTransform
+  private var _concatenatedEpoch = -1L
+
   val onTranslated = Delegate.create[TranslationChange]
   val onRotated = Delegate.create[RotationChange]
   val onScaled = Delegate.create[ScaleChange]
@@ -36,10 +48,12 @@ class Transformation2D {
    * No transformation, no rotation, no scale. Everything zeroed out.
    */
   def resetTransformation() = {
-    _translationMatrix = new AffineTransform
-    _rotationMatrix = new AffineTransform
-    _scaleMatrix = new AffineTransform
+    _translationX = 0.0
+    _translationY = 0.0
+    _scaleX = 1.0
+    _scaleY = 1.0
     _rotation = 0.0
+    _epoch += 1
     this
   }
 
@@ -50,7 +64,7 @@ class Transformation2D {
     * @param y The amount of units to translate it in y-direction.
     * @return This.
     */
-  def translate(x: Double, y: Double) = setTranslation(translation.getX + x, translation.getY + y)
+  def translate(x: Double, y: Double) = setTranslation(_translationX + x, _translationY + y)
 
   /**
     * Rotates the transformation by the <b>degree</b> given.
@@ -67,7 +81,7 @@ class Transformation2D {
     * @param sy The amount of scaling in the y-direction.
     * @return This.
     */
-  def scale(sx: Double, sy: Double): Transformation2D = setScale(scale.getX * sx, scale.getY * sy)
+  def scale(sx: Double, sy: Double): Transformation2D = setScale(_scaleX * sx, _scaleY * sy)
 
   def scale(fac: Double): Transformation2D = scale(fac, fac)
 
@@ -81,17 +95,22 @@ class Transformation2D {
     * @return This.
     */
   def setTranslation(x: Double, y: Double) = {
-    val old = translation
-    setTranslationWithoutSideEffect(x, y)
-    val firedEvent = TranslationChange(old, translation, this)
-    if(firedEvent.isDelta) {
-      onTranslated(firedEvent)
+    // The event objects are only created if something is changing.
+    if (x != _translationX || y != _translationY) {
+      val old = translation
+      setTranslationWithoutSideEffect(x, y)
+      val firedEvent = TranslationChange(old, translation, this)
+      if(firedEvent.isDelta) {
+        onTranslated(firedEvent)
+      }
     }
     this
   }
 
   private[comp] def setTranslationWithoutSideEffect(x: Double, y: Double) = {
-    _translationMatrix = AffineTransform.getTranslateInstance(x, y)
+    _translationX = x
+    _translationY = y
+    _epoch += 1
   }
 
   /**
@@ -101,26 +120,29 @@ class Transformation2D {
    * @return This.
    */
   def setRotation(angle: Double) = {
-    val old = _rotation
-    setRotationWithoutSideEffect(angle)
-    val firedEvent = RotationChange(old, _rotation, this)
-    if(firedEvent.isDelta) {
-      onRotated(firedEvent)
+    if (angle != _rotation) {
+      val old = _rotation
+      setRotationWithoutSideEffect(angle)
+      val firedEvent = RotationChange(old, _rotation, this)
+      if(firedEvent.isDelta) {
+        onRotated(firedEvent)
+      }
     }
     this
   }
 
   private[comp] def setRotationWithoutSideEffect(angle: Double) = {
-    _rotationMatrix = AffineTransform.getRotateInstance(toRadians(angle))
     _rotation = angle
+    _epoch += 1
   }
 
   def copy = {
     val cpy = new Transformation2D
-    cpy._translationMatrix = this.translationMatrix
-    cpy._rotationMatrix = this.rotationMatrix
-    cpy._scaleMatrix = this.scaleMatrix
-    cpy._rotation = this.rotation
+    cpy._translationX = _translationX
+    cpy._translationY = _translationY
+    cpy._scaleX = _scaleX
+    cpy._scaleY = _scaleY
+    cpy._rotation = _rotation
     cpy
   }
 
@@ -130,9 +152,9 @@ class Transformation2D {
     * @param other The other transformation to copy the data from.
     */
   def assign(other: Transformation2D): Unit = {
-    setTranslation(other.translation.getX, other.translation.getY)
+    setTranslation(other.translationX, other.translationY)
     setRotation(other.rotation)
-    setScale(other.scale.getX, other.scale.getY)
+    setScale(other.scaleX, other.scaleY)
   }
 
   /**
@@ -143,46 +165,72 @@ class Transformation2D {
    * @return This.
    */
   def setScale(sx: Double, sy: Double) = {
-    val old = scale
-    setScaleWithoutSideEffect(sx, sy)
-    val firedEvent = ScaleChange(old, scale, this)
-    if(firedEvent.isDelta) {
-      onScaled(firedEvent)
+    if (sx != _scaleX || sy != _scaleY) {
+      val old = scale
+      setScaleWithoutSideEffect(sx, sy)
+      val firedEvent = ScaleChange(old, scale, this)
+      if(firedEvent.isDelta) {
+        onScaled(firedEvent)
+      }
     }
     this
   }
 
   private[comp] def setScaleWithoutSideEffect(sx: Double, sy: Double) = {
-    _scaleMatrix = AffineTransform.getScaleInstance(sx, sy)
+    _scaleX = sx
+    _scaleY = sy
+    _epoch += 1
   }
 
-  def translation = new Vector(_translationMatrix.getTranslateX, _translationMatrix.getTranslateY)
+  /**
+    * A number that changes every time the transformation changes, also when the change happens silently
+    * (without firing any event). Whatever is derived from the transformation is still valid as long as
+    * the epoch stays the same.
+    */
+  def epoch = _epoch
+
+  def translationX = _translationX
+  def translationY = _translationY
+  def scaleX = _scaleX
+  def scaleY = _scaleY
+
+  def translation = new Vector(_translationX, _translationY)
   def rotation = _rotation
-  def scale = new Vector(_scaleMatrix.getScaleX, _scaleMatrix.getScaleY)
+  def scale = new Vector(_scaleX, _scaleY)
 
-  def translationMatrix = new AffineTransform(_translationMatrix)
-  def rotationMatrix = new AffineTransform(_rotationMatrix)
-  def scaleMatrix = new AffineTransform(_scaleMatrix)
+  def translationMatrix = AffineTransform.getTranslateInstance(_translationX, _translationY)
+  def rotationMatrix = AffineTransform.getRotateInstance(toRadians(_rotation))
+  def scaleMatrix = AffineTransform.getScaleInstance(_scaleX, _scaleY)
 
-  def localConcatenatedMatrix: AffineTransform = {
-    // Get a fresh copy of every matrix. I don't want to modify the original matrices.
-    val t = translationMatrix
-    val r = rotationMatrix
-    r.concatenate(scaleMatrix)
-    t.concatenate(r)
-    t
+  /**
+    * Returns a copy of the concatenated matrix (translation, then rotation, then scale), which may be modified.
+    */
+  def localConcatenatedMatrix: AffineTransform = new AffineTransform(concatenatedMatrix)
+
+  /**
+    * Returns the concatenated matrix without copying it. The matrix is reused by this transformation:
+    * it must not be modified, and it changes along with the transformation.
+    */
+  def concatenatedMatrix: AffineTransform = synchronized {
+    val epoch = _epoch
+    if (_concatenatedEpoch != epoch) {
+      _concatenated.setToTranslation(_translationX, _translationY)
+      _concatenated.rotate(toRadians(_rotation))
+      _concatenated.scale(_scaleX, _scaleY)
+      _concatenatedEpoch = epoch
+    }
+    _concatenated
   }
 
-  def transformOriginal(s: Shape) = localConcatenatedMatrix.createTransformedShape(s)
+  def transformOriginal(s: Shape) = concatenatedMatrix.createTransformedShape(s)
 
 }
 
 object Transformation2D {
   def applySilently(c: Component, t: Transformation2D): Component = {
-    val translation = t.translation
-    c.getTransformation.setTranslationWithoutSideEffect(translation.getX, translation.getY)
+    c.getTransformation.setTranslationWithoutSideEffect(t.translationX, t.translationY)
     c.getTransformation.setRotationWithoutSideEffect(t.rotation)
-    c.getTransformation.setScaleWithoutSideEffect(t.scale.getX.asInstanceOf[Int], t.scale.getY.asInstanceOf[Int])
+    c.getTransformation.setScaleWithoutSideEffect(t.scaleX.asInstanceOf[Int], t.scaleY.asInstanceOf[Int])
     c
   }
 }
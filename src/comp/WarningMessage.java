@@ -138,7 +138,9 @@ public class WarningMessage extends Component {
      * @param transparency must be between 0 and 1.
      */
     public void setTransparency (float transparency) {
+        final Color previousColor = warningColor;
         warningColor = new Color(warningColor.getRed(), warningColor.getGreen(), warningColor.getBlue(), (int) (255 * transparency));
+        if (!warningColor.equals(previousColor)) markDirty();
     }
 
     /**
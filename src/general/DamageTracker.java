@@ -0,0 +1,138 @@
+package general;
+
+import java.awt.*;
+import java.awt.geom.Area;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the regions of the window that have changed since the last frame (the "damage").
+ *
+ * <p>Components report their old and new bounds when they are transformed or change their appearance, the map
+ * reports a full redraw when it moves, and input events report a full redraw as well. The {@link GameWindow} then
+ * repaints only the damaged regions of the screen, or skips the frame entirely if nothing has changed.</p>
+ *
+ * <p>Not everything on the screen reports its changes, so the whole window is redrawn at least once every
+ * {@link #FULL_REDRAW_INTERVAL} nanoseconds anyway. Damage tracking is only used for screens that support it
+ * (see {@link gui.screen.Screen#isDamageTracked()}).</p>
+ */
+public final class DamageTracker {
+
+    private static final DamageTracker instance = new DamageTracker();
+
+    public static DamageTracker getInstance() {
+        return instance;
+    }
+
+    /** The damaged rectangles are grown by this many pixels, so anti-aliased edges are repainted as well. */
+    private static final int MARGIN = 2;
+
+    /** If more rectangles are damaged, they are merged into their union. */
+    private static final int MAX_RECTANGLES = 16;
+
+    /** The longest time the window may go without being redrawn completely. */
+    private static final long FULL_REDRAW_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private volatile boolean enabled = false;
+
+    private final List<Rectangle> damaged = new ArrayList<>();
+
+    private boolean allDamaged = true;
+
+    private long lastFullRedraw = System.nanoTime();
+
+    private DamageTracker() {}
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns damage tracking on or off. While it is off, every frame is drawn completely.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        markAllDirty();
+    }
+
+    /**
+     * Reports a region of the window (in screen coordinates) that needs to be redrawn. This wakes up the game loop
+     * as well (see {@link GameLoop#wakeUp()}).
+     */
+    public void markDirty(Rectangle2D region) {
+        GameLoop.wakeUp();
+        markDirtyLazily(region);
+    }
+
+    /**
+     * Reports a region of the window (in screen coordinates) that needs to be redrawn with the next frame, whenever
+     * that is, without waking up the game loop. While the game loop is idle, the region is redrawn at its low tick
+     * rate.
+     */
+    public void markDirtyLazily(Rectangle2D region) {
+        if (!enabled || region == null || region.isEmpty()) return;
+
+        final Rectangle rectangle = region.getBounds();
+        rectangle.grow(MARGIN, MARGIN);
+
+        synchronized (this) {
+            if (allDamaged) return;
+            if (damaged.size() >= MAX_RECTANGLES) {
+                final Rectangle union = damaged.get(0);
+                for (int i = 1; i < damaged.size(); i++) union.add(damaged.get(i));
+                damaged.clear();
+                damaged.add(union);
+            }
+            damaged.add(rectangle);
+        }
+    }
+
+    /**
+     * Reports a shape on the window (in screen coordinates) that needs to be redrawn.
+     */
+    public void markDirty(Shape region) {
+        if (region != null) markDirty(region.getBounds2D());
+    }
+
+    /**
+     * Causes the whole window to be redrawn with the next frame and wakes up the game loop.
+     */
+    public void markAllDirty() {
+        GameLoop.wakeUp();
+        invalidateAll();
+    }
+
+    /**
+     * Causes the whole window to be redrawn with the next frame, without waking up the game loop. Used by the window
+     * itself when the back image is not valid anymore.
+     */
+    synchronized void invalidateAll() {
+        allDamaged = true;
+        damaged.clear();
+    }
+
+    /**
+     * Returns the region of the window that needs to be redrawn and starts collecting anew.
+     *
+     * @param window The bounds of the window.
+     * @return <code>null</code> if nothing needs to be redrawn, <code>window</code> itself if everything needs to be
+     *         redrawn, or else the damaged region.
+     */
+    synchronized Shape collect(Rectangle window) {
+        final long now = System.nanoTime();
+        if (allDamaged || now - lastFullRedraw >= FULL_REDRAW_INTERVAL) {
+            allDamaged = false;
+            damaged.clear();
+            lastFullRedraw = now;
+            return window;
+        }
+        if (damaged.isEmpty()) return null;
+
+        final Area region = new Area();
+        for (Rectangle rectangle : damaged) region.add(new Area(rectangle.intersection(window)));
+        damaged.clear();
+        return region.isEmpty() ? null : region;
+    }
+}
@@ -81,6 +81,32 @@ public class DebugWindows {
 
     }
 
+    // </editor-fold>
+
+    // <editor-fold desc="Profiler">
+
+    private void initializeProfilerLayout(JPanel mainPanel) {
+
+        JPanel panel = new JPanel();
+        panel.setBorder(BorderFactory.createTitledBorder("Profiler"));
+
+        JCheckBox profilerEnabled = new JCheckBox("Profiling", Profiler.isEnabled());
+        profilerEnabled.addActionListener(e -> Profiler.setEnabled(profilerEnabled.isSelected()));
+
+        JCheckBox overlayActive = new JCheckBox("Overlay");
+        overlayActive.addActionListener(e -> Main.getGameWindow().getProfilerOverlay().setActivated(overlayActive.isSelected()));
+
+        JButton exportCsv = new JButton("Export CSV");
+        exportCsv.addActionListener(e -> Profiler.exportSessionCsv());
+
+        panel.add(profilerEnabled);
+        panel.add(overlayActive);
+        panel.add(exportCsv);
+
+        mainPanel.add(panel);
+
+    }
+
     // </editor-fold>
 
 	public DebugWindows() {
@@ -89,6 +115,7 @@ public class DebugWindows {
 
         initializeScreenControlAttribs(panel);
         initializeCoordinateGridLayout(panel);
+        initializeProfilerLayout(panel);
 
 		debugFrame.add(panel);
 		debugFrame.pack();
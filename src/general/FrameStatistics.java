@@ -0,0 +1,103 @@
+package general;
+
+/**
+ * Statistics about the frames of the {@link GameLoop}: how long updating and drawing took, how many frames were
+ * drawn per second, how many were skipped and how many ticks were spent idling.
+ * <p>
+ * The durations are kept for the most recent {@link #SAMPLES} frames. The statistics are recorded by the main
+ * thread and can be read from any thread.
+ */
+public final class FrameStatistics {
+
+    /** The number of frames the averages are computed over. */
+    public static final int SAMPLES = 120;
+
+    private final long[] frameStarts = new long[SAMPLES];
+    private final long[] updateNanos = new long[SAMPLES];
+    private final long[] drawNanos = new long[SAMPLES];
+
+    /** The index the next frame is written to. */
+    private int next = 0;
+
+    /** The number of valid samples, at most {@link #SAMPLES}. */
+    private int count = 0;
+
+    private long drawnFrames = 0, skippedFrames = 0, idleTicks = 0;
+
+    FrameStatistics() {}
+
+    /**
+     * Records a tick of the game loop.
+     *
+     * @param start The time at which the tick has started, in nanoseconds (see {@link System#nanoTime()}).
+     * @param update How long updating took, in nanoseconds.
+     * @param draw How long drawing took, in nanoseconds; negative if the frame has not been drawn.
+     * @param idle True if the game loop has been idling.
+     */
+    synchronized void record(long start, long update, long draw, boolean idle) {
+        if (idle) idleTicks++;
+        if (draw < 0) {
+            skippedFrames++;
+            return;
+        }
+        drawnFrames++;
+        frameStarts[next] = start;
+        updateNanos[next] = update;
+        drawNanos[next] = draw;
+        next = (next + 1) % SAMPLES;
+        if (count < SAMPLES) count++;
+    }
+
+    /** The number of frames drawn so far. */
+    public synchronized long getDrawnFrames() {
+        return drawnFrames;
+    }
+
+    /** The number of frames which have not been drawn because the game loop was running behind. */
+    public synchronized long getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    /** The number of ticks at the low idle rate. */
+    public synchronized long getIdleTicks() {
+        return idleTicks;
+    }
+
+    /** The number of frames drawn per second, measured over the recent frames. */
+    public synchronized double getFramesPerSecond() {
+        if (count < 2) return 0;
+        final long newest = frameStarts[(next - 1 + SAMPLES) % SAMPLES];
+        final long oldest = frameStarts[(next - count + SAMPLES) % SAMPLES];
+        return newest == oldest ? 0 : (count - 1) * GameLoop.SECOND_AS_NANO / (newest - oldest);
+    }
+
+    /** The average time needed to update and draw one of the recent frames, in milliseconds. */
+    public synchronized double getAverageFrameMillis() {
+        if (count == 0) return 0;
+        long sum = 0;
+        for (int i = 0; i < count; i++) sum += updateNanos[i] + drawNanos[i];
+        return sum / (double) count / 1e6;
+    }
+
+    /** The longest time needed to update and draw one of the recent frames, in milliseconds. */
+    public synchronized double getMaxFrameMillis() {
+        long max = 0;
+        for (int i = 0; i < count; i++) max = Math.max(max, updateNanos[i] + drawNanos[i]);
+        return max / 1e6;
+    }
+
+    /** The average time needed to draw one of the recent frames, in milliseconds. */
+    public synchronized double getAverageDrawMillis() {
+        if (count == 0) return 0;
+        long sum = 0;
+        for (int i = 0; i < count; i++) sum += drawNanos[i];
+        return sum / (double) count / 1e6;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%.1f fps, frame %.2f ms (max %.2f ms, draw %.2f ms), %d drawn, %d skipped, %d idle ticks",
+                getFramesPerSecond(), getAverageFrameMillis(), getMaxFrameMillis(), getAverageDrawMillis(),
+                drawnFrames, skippedFrames, idleTicks);
+    }
+}
@@ -1,11 +1,17 @@
 package general;
 
-import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A really efficient working game loop. The only drawback is (I think atleast)
  * that it is optimized for real time games, not turn based games like our game.
+ * <p>
+ * To make up for that, the loop drops to a low tick rate ({@link #IDLE_DELTA}) when nothing is going on: no input,
+ * no animation, nothing scheduled with {@link #scheduleOnce(VoidConsumer)} and no damage reported for a while
+ * (see {@link #wakeUp()}). Anything calling {@link #wakeUp()} brings it back to the full rate immediately.
+ * Displays changing all the time, like the {@link TimeClock}, report their changes without waking up the loop (see
+ * {@link comp.Component#markDirtyLazily()}), so a running turn timer does not keep the loop from idling.
  * @author Josip Palavra
  * @version 23.06.2014
  */
@@ -13,53 +19,124 @@ public class GameLoop {
 
 	public static final double SECOND_AS_NANO = 1000000000.0, SECOND_AS_MILLI = 1000.0;
 
+	/** The time between two ticks while the game loop is idle, in seconds. */
+	public static final double IDLE_DELTA = 0.1;
+
+	/** After this many nanoseconds without activity, the game loop becomes idle. */
+	private static final long IDLE_AFTER = TimeUnit.MILLISECONDS.toNanos(750);
+
+	/** If the game loop is behind by more than this many nanoseconds, it does not try to catch up anymore. */
+	private static final long MAX_TIME_DIFF = TimeUnit.MILLISECONDS.toNanos(500);
+
+	private static final int MAX_SKIPPED_FRAMES = 5;
+
+	/** The priority of callbacks scheduled without giving one. Callbacks with a higher priority are called first. */
+	public static final int DEFAULT_PRIORITY = 0;
+
     /**
-     * The queue of every callback scheduled to be called once by the main thread.
-     * Every element is called at the beginning of an update cycle, the queue will be cleared after that.
+     * Every callback scheduled to be called by the main thread, once or at every update cycle.
      */
-    private static final Queue<UpdateHandle> onceScheduled = new LinkedBlockingQueue<>(),
-                                             regularScheduled = new LinkedBlockingQueue<>();
+    private static final UpdateScheduler scheduler = new UpdateScheduler();
+
+	private static final FrameStatistics statistics = new FrameStatistics();
 
 	private static boolean runFlag = false;
 
+	/** The last time anything has happened which requires the full tick rate (see {@link System#nanoTime()}). */
+	private static volatile long lastActivity = System.nanoTime();
+
+	private static volatile boolean idle = false;
+
+	/** The thread running the game loop, to be woken up when it is parked. */
+	private static volatile Thread loopThread;
+
 	public static void run(double delta) {
 		runFlag = true;
+		loopThread = Thread.currentThread();
 
-		double nextTime = (double) System.nanoTime() / SECOND_AS_NANO;
-		double maxTimeDiff = 0.5;
+		final long step = (long) (delta * SECOND_AS_NANO), idleStep = (long) (IDLE_DELTA * SECOND_AS_NANO);
+		long nextTime = System.nanoTime();
 		int skippedFrames = 1;
-		int maxSkippedFrames = 5;
 
 		while(runFlag) {
-			double currTime = (double) System.nanoTime() / SECOND_AS_NANO;
-			if((currTime - nextTime) > maxTimeDiff)
+			long currTime = System.nanoTime();
+			if(currTime - nextTime > MAX_TIME_DIFF)
                 nextTime = currTime;
+			// Something has happened while idling, so there is no need to wait for the next idle tick.
+			if(updateIdle(currTime))
+				nextTime = currTime;
 
-			if(currTime >= nextTime) {
+			if(currTime - nextTime >= 0) {
+				final long frameStart = Profiler.start();
+				final boolean idleTick = idle;
 				// assign the time for the next update
-				nextTime += delta;
+				nextTime += idleTick ? idleStep : step;
 				update();
+				final long updated = System.nanoTime();
 
-				if((currTime < nextTime) || (skippedFrames > maxSkippedFrames)) {
+				if((currTime - nextTime < 0) || (skippedFrames > MAX_SKIPPED_FRAMES)) {
 					draw();
 					skippedFrames = 1;
+					statistics.record(currTime, updated - currTime, System.nanoTime() - updated, idleTick);
 				} else {
 					skippedFrames++;
+					statistics.record(currTime, updated - currTime, -1, idleTick);
 				}
+				Profiler.FRAME.stop(frameStart);
+				Profiler.endFrame();
 			} else {
-				// calculate the time to sleep
-				int sleepTime = (int) (SECOND_AS_MILLI * (nextTime - currTime));
-				// sanity check
-				if(sleepTime > 0) {
-					// sleep until the next update
-					try {
-						Thread.sleep(sleepTime);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-				}
+				// wait until the next update, the next scheduled deadline or until woken up
+				LockSupport.parkNanos(Math.min(nextTime - currTime, scheduler.nanosUntilNextDeadline(currTime)));
+			}
+		}
+	}
+
+	/**
+	 * Enters or leaves the idle state.
+	 * @return True if the game loop has just left the idle state.
+	 */
+	private static boolean updateIdle(long now) {
+		if(isActive(now)) {
+			if(idle) {
+				idle = false;
+				return true;
 			}
+			return false;
 		}
+		if(!idle) {
+			idle = true;
+			// wakeUp() may have been called in between; it sees "idle" only now.
+			if(isActive(System.nanoTime()))
+				idle = false;
+		}
+		return false;
+	}
+
+	private static boolean isActive(long now) {
+		return scheduler.hasDueWork(now) || now - lastActivity < IDLE_AFTER;
+	}
+
+	/**
+	 * Tells the game loop that something is going on which needs to be updated and drawn at the full rate, like input
+	 * or an animation. If the game loop is idle, it runs the next tick immediately.
+	 * This may be called from any thread.
+	 */
+	public static void wakeUp() {
+		lastActivity = System.nanoTime();
+		if(idle) {
+			final Thread thread = loopThread;
+			if(thread != null) LockSupport.unpark(thread);
+		}
+	}
+
+	/** Returns true if the game loop is running at the low idle tick rate. */
+	public static boolean isIdle() {
+		return idle;
+	}
+
+	/** The timings of the recent frames. */
+	public static FrameStatistics getFrameStatistics() {
+		return statistics;
 	}
 
 	public static boolean isRunFlag() {
@@ -70,10 +147,11 @@ public class GameLoop {
 		GameLoop.runFlag = runFlag;
 	}
 
-    private static UpdateHandle queueUpdate(VoidConsumer client, boolean isOnce) {
-        Queue<UpdateHandle> insert = isOnce ? onceScheduled : regularScheduled;
-        final UpdateHandle constructed = new UpdateHandle(insert, client, isOnce);
-        insert.offer(constructed);
+    private static UpdateHandle queueUpdate(VoidConsumer client, int priority, long deadline, boolean recurring) {
+        if(client == null) throw new NullPointerException("callback");
+        final UpdateHandle constructed = new UpdateHandle(client, priority, deadline, recurring);
+        scheduler.submit(constructed);
+        wakeUp();
         return constructed;
     }
 
@@ -83,7 +161,32 @@ public class GameLoop {
      *                 update cycle. This callback will get deleted after the call.
      */
     public static UpdateHandle scheduleOnce(VoidConsumer callback) {
-        return queueUpdate(callback, true);
+        return scheduleOnce(callback, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Schedules given callback for one-time execution at the next update cycle.
+     * @param callback The callback to be executed in the main thread at the beginning of the next
+     *                 update cycle. This callback will get deleted after the call.
+     * @param priority Callbacks with a higher priority are called before the ones with a lower priority.
+     */
+    public static UpdateHandle scheduleOnce(VoidConsumer callback, int priority) {
+        return queueUpdate(callback, priority, UpdateHandle.NO_DEADLINE, false);
+    }
+
+    /**
+     * Schedules given callback for one-time execution at the first update cycle after the delay has passed.
+     * The game loop wakes up for the deadline, even if it is idle.
+     * @param callback The callback to be executed in the main thread. This callback will get deleted after the call.
+     * @param priority Callbacks with a higher priority are called before the ones with a lower priority.
+     * @param delay The time to wait before calling the callback.
+     * @param unit The unit of <code>delay</code>.
+     */
+    public static UpdateHandle scheduleOnce(VoidConsumer callback, int priority, long delay, TimeUnit unit) {
+        // The deadline must not collide with the "no deadline" marker.
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(0, delay));
+        if(deadline == UpdateHandle.NO_DEADLINE) deadline++;
+        return queueUpdate(callback, priority, deadline, false);
     }
 
     /**
@@ -91,56 +194,98 @@ public class GameLoop {
      * @param callback The callback to be executed in the main thread
      */
     public static UpdateHandle schedule(VoidConsumer callback) {
-        return queueUpdate(callback, false);
+        return schedule(callback, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Schedules given callback for execution every time the game loop enters the update stage.
+     * @param callback The callback to be executed in the main thread
+     * @param priority Callbacks with a higher priority are called before the ones with a lower priority.
+     */
+    public static UpdateHandle schedule(VoidConsumer callback, int priority) {
+        return queueUpdate(callback, priority, UpdateHandle.NO_DEADLINE, true);
     }
 
     /**
      * Update logic.
      */
     private static void update() {
-        regularScheduled.forEach(UpdateHandle::call);
-        onceScheduled.forEach(UpdateHandle::call);
-        onceScheduled.forEach(UpdateHandle::invalidate);
-        onceScheduled.clear();
+        final long scheduledStart = Profiler.start();
+        scheduler.runTick(System.nanoTime());
+        Profiler.SCHEDULED.stop(scheduledStart);
 
+        final long updateStart = Profiler.start();
         Main.getGameWindow().update();
+        Profiler.UPDATE.stop(updateStart);
     }
 
     /**
      * Self-explanatory.
      */
     private static void draw() {
+        final long drawStart = Profiler.start();
         Main.getGameWindow().draw();
+        Profiler.DRAW.stop(drawStart);
     }
 
-    public static class UpdateHandle {
-        private final VoidConsumer clientCode;
-        private final Queue<UpdateHandle> removeQueue;
-        private boolean isValid = true, isOnce;
+    /**
+     * A callback scheduled with the game loop. The callback is called until the handle is invalidated; one-time
+     * callbacks invalidate their handle themselves after being called.
+     */
+    public static final class UpdateHandle {
+        /** Marks handles without a deadline. */
+        static final long NO_DEADLINE = Long.MIN_VALUE;
+
+        /** The client code; <code>null</code> once the handle has been invalidated. */
+        private volatile VoidConsumer clientCode;
 
-        UpdateHandle(Queue<UpdateHandle> removeQueue, VoidConsumer clientCode, boolean isOnce) {
-            this.removeQueue = removeQueue;
+        final int priority;
+        final long deadline;
+        private final boolean recurring;
+
+        UpdateHandle(VoidConsumer clientCode, int priority, long deadline, boolean recurring) {
             this.clientCode = clientCode;
-            this.isOnce = isOnce;
+            this.priority = priority;
+            this.deadline = deadline;
+            this.recurring = recurring;
         }
 
-        private void call() {
-            synchronized(this) {
-                if(isValid) {
-                    clientCode.call();
-                }
+        void call() {
+            final VoidConsumer code = clientCode;
+            if(code != null) {
+                code.call();
             }
         }
 
+        /** Drops the client code of a one-time callback after it has been called. */
+        void finish() {
+            clientCode = null;
+        }
+
+        boolean isRecurring() {
+            return recurring;
+        }
+
+        boolean hasDeadline() {
+            return deadline != NO_DEADLINE;
+        }
+
+        /**
+         * Returns true if the callback is still going to be called.
+         */
+        public boolean isValid() {
+            return clientCode != null;
+        }
+
         /**
-         * Do not call invalidate while the client code is being executed.
-         * ConcurrentModificationException will arise.
+         * Stops the callback from being called again. This may be called from any thread, even from within the
+         * callback itself; if the callback is being executed at the same time, that execution is not interrupted.
+         * The handle is removed by the main thread the next time it comes across it.
          */
         public void invalidate() {
-            synchronized(this) {
-                if(isValid) {
-                    isValid = false;
-                }
+            if(clientCode != null) {
+                clientCode = null;
+                if(hasDeadline()) scheduler.delayedCancelled();
             }
         }
     }
@@ -37,9 +37,15 @@ public class GameWindow extends JFrame {
     private MouseHandler mouseHandler;
 
     private final CoordinateGrid grid = new CoordinateGrid(0, 0);
+    private final ProfilerOverlay profilerOverlay = new ProfilerOverlay();
 
     private final Color backgroundColor = new Color(7, 3, 31);
 
+    private final DamageTracker damageTracker = DamageTracker.getInstance();
+
+    /** The persistent image the damaged regions are drawn onto, if damage tracking is used. */
+    private BufferedImage backImage;
+
 	/**
 	 * Constructor of GameWindow. Adds the Mouse-, MouseMotion-, MouseWeehl- and KeyListener basic calls (redirected to
 	 * the screen listeners).
@@ -183,15 +189,52 @@ public class GameWindow extends JFrame {
 	/** Updates the KeyListener and afterwards sends a call to screen manager to draw the active screen */
 	public void update() {
 		Keys.updateKeys();
+        final long screenCycleStart = Profiler.start();
         screenManager.screenCycle();
+        Profiler.SCREEN_CYCLE.stop(screenCycleStart);
         mouseHandler.flushCallbacks();
+        profilerOverlay.update();
 	}
 
 	/** Gets the Graphics2D object, sets the rendering hints, draws the backgrounds, calls the screen to draw their
-	 * part and finally disposes the graphics object. */
+	 * part and finally disposes the graphics object.
+	 * <p>
+	 * If the active screen supports damage tracking (see {@link DamageTracker}), only the damaged regions are drawn
+	 * onto a persistent back image, which is then copied onto the window. If nothing has changed since the last
+	 * frame, nothing is drawn and the buffer is not shown at all. */
 	public void draw() {
+		final Screen activeScreen = screenManager.getActiveScreen();
+		if (!damageTracker.isEnabled() || activeScreen == null || !activeScreen.isDamageTracked()) {
+			// The back image is not kept up to date meanwhile.
+			damageTracker.invalidateAll();
+			Graphics2D g = (Graphics2D) strat.getDrawGraphics();
+			drawWindow(g);
+			g.dispose();
+			strat.show();
+			return;
+		}
+
+		final Shape damage = damageTracker.collect(BOUNDS);
+		if (damage == null) return;
+
+		if (backImage == null) {
+			backImage = getGraphicsConfiguration().createCompatibleImage(WIDTH, HEIGHT);
+			damageTracker.invalidateAll();
+		}
+
+		final Graphics2D backGraphics = backImage.createGraphics();
+		if (damage != BOUNDS) backGraphics.setClip(damage);
+		drawWindow(backGraphics);
+		backGraphics.dispose();
+
 		Graphics2D g = (Graphics2D) strat.getDrawGraphics();
+		g.drawImage(backImage, 0, 0, null);
+		g.dispose();
+		strat.show();
+	}
 
+	/** Sets the rendering hints, draws the background and the active screen. */
+	private void drawWindow(Graphics2D g) {
         // set some properties for the graphics object
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
                 RenderingHints.VALUE_ANTIALIAS_ON);
@@ -210,16 +253,21 @@ public class GameWindow extends JFrame {
             grid.draw(g);
         }
 
-        primitivesPackageObj.setGraphics(null);
+        if(Profiler.isEnabled() && profilerOverlay.isActivated()) {
+            profilerOverlay.draw(g);
+        }
 
-        g.dispose();
-        strat.show();
+        primitivesPackageObj.setGraphics(null);
     }
 
     public CoordinateGrid getGrid() {
         return grid;
     }
 
+    public ProfilerOverlay getProfilerOverlay() {
+        return profilerOverlay;
+    }
+
     public Point getCenterPosition() {
         return new Point(getWidth() / 2, getHeight() / 2);
     }
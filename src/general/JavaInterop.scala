@@ -115,14 +115,21 @@ object JavaInterop {
 
     /**
       * Pushes a matrix on top of the "stack" of the Graphics2D object.
-      * The matrix specified as `m` is available to given graphics context inside the given code block.
+      * The matrix specified as `m` is concatenated with the current transformation of the graphics context (e.g.
+      * the camera of the map) inside the given code block.
       *
       * @param m The matrix to be pushed on top of the stack.
       * @param f The code block to use the pushed matrix.
       * @tparam A The return type of the code block that uses the pushed matrix.
       * @return The return value of the code block.
       */
-    def useMatrix[A](m: AffineTransform)(f: => A): A = use(m, g.getTransform, g.setTransform)(f)
+    def useMatrix[A](m: AffineTransform)(f: => A): A = {
+      require(m != null)
+      val o = g.getTransform
+      g.transform(m)
+      try f
+      finally g.setTransform(o)
+    }
 
     def usePaint[A](p: Paint)(f: => A): A = use(p, g.getPaint, g.setPaint)(f)
 
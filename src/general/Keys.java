@@ -18,6 +18,7 @@ public class Keys implements KeyListener {
 		int keyCode = e.getKeyCode();
 		if (keyCode >= 0 && keyCode <= keys.length)
 			keys[keyCode] = true;
+		DamageTracker.getInstance().markAllDirty();
 		Screen activeScreen = Main.getGameWindow().getScreenManager().getActiveScreen();
 		activeScreen.keyDown(e);
 		activeScreen.keyPressed(e);
@@ -28,6 +29,7 @@ public class Keys implements KeyListener {
 		int keyCode = e.getKeyCode();
 		if (keyCode >= 0 && keyCode <= keys.length)
 			keys[keyCode] = false;
+		DamageTracker.getInstance().markAllDirty();
 		Main.getGameWindow().getScreenManager().getActiveScreen().keyReleased(e);
 	}
 
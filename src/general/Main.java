@@ -81,6 +81,8 @@ public class Main {
      *  "-nofullscreen" => Do not enter fullscreen upon program startup.
      *  "-dbgwindows"   => Enables the debug window object.
      *  "-nosound"      => Disables sound (bug: game-over-sound still played).
+     *  "-profile"      => Measures the frame times and writes them into a CSV file when the game is closed.
+     *  "-damagetracking" => Turns on region-based redraw for screens that call setDamageTracked(true).
      */
     public static void main(String[] arguments) {
         programStartTime = System.currentTimeMillis();
@@ -107,6 +109,13 @@ public class Main {
         // For users who do not want to hear sound.
         isMute = Arrays.stream(arguments).anyMatch(arg -> arg.equals("-nosound"));
 
+        // Redraw only the changed regions of the game screen, and nothing if nothing has changed.
+        DamageTracker.getInstance().setEnabled(Arrays.stream(arguments).anyMatch(arg -> arg.equals("-damagetracking")));
+
+        // Measure where the frame time goes; the statistics are exported when the game is closed.
+        if (Arrays.stream(arguments).anyMatch(arg -> arg.equals("-profile")))
+            Profiler.setEnabled(true);
+
         // This will load the background melodies of SoundPool and SoundEffectTimeClock in an Thread and start to play
         // the main melodie, if it's ready.
         SoundPool.isLoaded();
@@ -176,6 +185,9 @@ public class Main {
         LogFacility.putSeparationLine();
         LogFacility.log("Exiting Pfeile.", LogFacility.LoggingLevel.Info, "closing process");
 
+        if (Profiler.isEnabled())
+            Profiler.exportSessionCsv();
+
         // begin of a softer process, than just calling System.exit(0)
         gameWindow.dispose();
         LogFacility.log("Disposed GameWindow.", LogFacility.LoggingLevel.Info, "closing process");
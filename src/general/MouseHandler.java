@@ -40,6 +40,8 @@ public class MouseHandler extends MouseAdapter {
     }
 
     private void processMouseEvent(String methodHandlerKey, VoidConsumer eventProcessor) {
+        // Any component may react to the mouse; the frame is drawn completely.
+        DamageTracker.getInstance().markAllDirty();
         if(awtScheduledEvents != null) {
             synchronized(awtScheduledEvents) {
                 if(!awtScheduledEvents.containsKey(methodHandlerKey)) {
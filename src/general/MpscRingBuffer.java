@@ -0,0 +1,91 @@
+package general;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded queue that any number of threads may offer elements to, but only one thread may poll from.
+ * <p>
+ * Neither offering nor polling blocks or allocates. Every slot has a sequence number telling whether it may be
+ * written to by the producer claiming it, or read by the consumer; producers claim slots by advancing the tail
+ * with compare-and-set.
+ *
+ * @param <E> The type of the elements.
+ */
+final class MpscRingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Only read and written by the consumer. */
+    private long head = 0;
+
+    /**
+     * @param capacity The number of elements the buffer can hold; rounded up to the next power of two.
+     */
+    MpscRingBuffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        int size = 1;
+        while (size < capacity) size <<= 1;
+        elements = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+        mask = size - 1;
+    }
+
+    /** The number of elements the buffer can hold. */
+    int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Appends the element. May be called by any thread.
+     *
+     * @return False if the buffer is full.
+     */
+    boolean offer(E element) {
+        if (element == null) throw new NullPointerException();
+        while (true) {
+            final long t = tail.get();
+            final int index = (int) t & mask;
+            final long difference = sequences.get(index) - t;
+            if (difference == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    elements[index] = element;
+                    // Publishes the element to the consumer.
+                    sequences.set(index, t + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            // Another producer has claimed the slot in the meantime.
+        }
+    }
+
+    /**
+     * Removes and returns the oldest element. Must only be called by the consumer thread.
+     *
+     * @return The oldest element or <code>null</code> if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        final int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) return null;
+
+        final E element = (E) elements[index];
+        elements[index] = null;
+        // Frees the slot for the producers of the next round.
+        sequences.set(index, head + elements.length);
+        head++;
+        return element;
+    }
+
+    /** Returns true if there is no element to poll. Only exact if called by the consumer thread. */
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+}
@@ -52,16 +52,10 @@ class PfeileContext(val values: PfeileContext.Values) extends Serializable {
 
   //</editor-fold>
 
-  // TODO: Thread belongs to stopwatch, should be moved to class Stopwatch/Timeclock/whathaveyou
-  private var _stopwatchThread: Thread = null
   private lazy val _lazyTimeObj: TimeClock = {
     val ret = new TimeClock(this)
-    _stopwatchThread = new Thread(ret)
-    _stopwatchThread.setDaemon(true)
-    _stopwatchThread.setPriority(Thread.MIN_PRIORITY + 2)
-
     onStartRunningTimeClock += { () =>
-      _stopwatchThread.start()
+      ret.activate()
     }
     ret
   }
@@ -72,8 +66,7 @@ class PfeileContext(val values: PfeileContext.Values) extends Serializable {
   lazy val turnSystem: TurnSystem = {
 
     val turnSystem = new TurnSystem(() => {
-      val players = world.entities.entityList.collect({ case p: Player => p })
-      players.map(player => player.belongsTo.team).asJava
+      world.entities.helper.getPlayers.asScala.map(player => player.belongsTo.team).asJava
     })
 
     turnSystem.onTurnGet += { team: Team =>
@@ -93,17 +86,19 @@ class PfeileContext(val values: PfeileContext.Values) extends Serializable {
     }
 
     turnSystem.onGlobalTurnCycleEnded += { () =>
-      // Notify the tiles first that the turn cycle has been completed.
-      // Primarily, this for loop is written to update the arrow queues of the tiles.
-      for(tile <- world.terrain.tiles) {
-        tile.updateQueues()
-      }
+      // Let the queued attacks progress first; only the tiles and entities with attacks on their way take part.
+      world.attackScheduler.updateQueues()
 
       // Then the entities.
       world.entities.entityList.foreach { entity =>
         entity.onTurnCycleEnded.apply()
       }
 
+      // The distance maps only depend on the terrain (changing a tile clears them anyway), but the targets, like
+      // players, chests and traders, move from one turn cycle to the next. Dropping the maps every turn cycle keeps
+      // the cache from filling up with maps towards positions nobody is heading for anymore.
+      world.distanceMaps.invalidate()
+
       values.turnCycleCount += 1
     }
 
@@ -0,0 +1,265 @@
+package general;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures where the time of a frame goes.
+ * <p>
+ * Code to be measured is surrounded by {@link #start()} and {@link Section#stop(long)}:
+ * <pre>
+ *     final long start = Profiler.start();
+ *     drawSomething(g);
+ *     Profiler.VISUAL_MAP.stop(start);
+ * </pre>
+ * The durations are collected per section in histograms (see {@link TimingHistogram}): one for the whole session and
+ * one for every interval of {@link #INTERVAL} nanoseconds. While the profiler is disabled, <code>start</code> returns
+ * 0 without reading the clock and <code>stop</code> ignores it, so the measuring points can stay in place.
+ * <p>
+ * The statistics of every interval are kept, so they can be exported as CSV (see {@link #exportSessionCsv()}).
+ * The {@link ProfilerOverlay} shows the statistics of the last interval on the screen.
+ * Sections should only be measured by the main thread.
+ */
+public final class Profiler {
+
+    /** The length of an interval of the statistics. */
+    public static final long INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /** Directory the CSV files of the sessions are written to. */
+    private static final File PROFILES = new File("profiles/");
+
+    private static final List<Section> sections = new CopyOnWriteArrayList<>();
+
+    /** The tick of the game loop, updating and drawing. */
+    public static final Section FRAME = section("frame");
+    /** The callbacks scheduled with the game loop. */
+    public static final Section SCHEDULED = section("scheduled callbacks");
+    /** {@link GameWindow#update()}. */
+    public static final Section UPDATE = section("update");
+    /** {@link gui.screen.ScreenManager#screenCycle()}, as part of updating. */
+    public static final Section SCREEN_CYCLE = section("screen cycle");
+    /** {@link GameWindow#draw()}. */
+    public static final Section DRAW = section("draw");
+    /** The tiles of the map, as part of drawing. */
+    public static final Section VISUAL_MAP = section("visual map");
+    /** The flying arrows, as part of drawing. */
+    public static final Section ATTACK_DRAWER = section("attack drawer");
+    /** The impacts of the arrows, as part of drawing. */
+    public static final Section IMPACT_DRAWERS = section("impact drawers");
+
+    private static volatile boolean enabled = false;
+
+    /** Only accessed by the main thread. */
+    private static long intervalStart = System.nanoTime();
+
+    /** The number of intervals completed since the profiler has been enabled. */
+    private static volatile long intervals = 0;
+
+    private static final long sessionStart = System.nanoTime();
+
+    /** The CSV lines of the completed intervals. */
+    private static final List<String> csvLines = new ArrayList<>();
+
+    private static final String CSV_HEADER = "seconds,section,count,mean_ms,p50_ms,p90_ms,p99_ms,max_ms";
+
+    private Profiler() {}
+
+    /**
+     * Creates a new section with the given name, which is measured from now on.
+     */
+    public static Section section(String name) {
+        final Section section = new Section(name);
+        sections.add(section);
+        return section;
+    }
+
+    /** Every section, in the order in which they have been created. */
+    public static List<Section> getSections() {
+        return sections;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        if (enabled && !Profiler.enabled) {
+            for (Section section : sections) section.resetInterval();
+            intervalStart = System.nanoTime();
+        }
+        Profiler.enabled = enabled;
+        LogFacility.log("Profiler " + (enabled ? "enabled" : "disabled"), LogFacility.LoggingLevel.Debug, "profiler");
+    }
+
+    /**
+     * Marks the beginning of a measured section.
+     *
+     * @return The current time, or 0 if the profiler is disabled.
+     */
+    public static long start() {
+        if (!enabled) return 0;
+        final long now = System.nanoTime();
+        // 0 is reserved for "disabled".
+        return now == 0 ? 1 : now;
+    }
+
+    /** The number of intervals completed so far. Changes whenever new statistics are available. */
+    public static long getIntervals() {
+        return intervals;
+    }
+
+    /**
+     * Called by the game loop after every tick. Completes the current interval if it is over.
+     */
+    static void endFrame() {
+        if (!enabled) return;
+        final long now = System.nanoTime();
+        if (now - intervalStart < INTERVAL) return;
+
+        final double seconds = (intervalStart - sessionStart) / GameLoop.SECOND_AS_NANO;
+        synchronized (csvLines) {
+            for (Section section : sections) {
+                final TimingHistogram completed = section.completeInterval();
+                if (completed.getCount() > 0)
+                    csvLines.add(csvLine(String.format(Locale.ROOT, "%.3f", seconds), section.getName(), completed));
+            }
+        }
+        intervalStart = now;
+        intervals++;
+    }
+
+    /**
+     * Writes the statistics of every interval so far and of the whole session into a new CSV file in the
+     * <code>profiles</code> directory.
+     *
+     * @return The written file, or <code>null</code> if it could not be written.
+     */
+    public static File exportSessionCsv() {
+        if (!PROFILES.exists() && !PROFILES.mkdir()) {
+            LogFacility.log("Profile directory could not be created: " + PROFILES.getAbsolutePath(),
+                    LogFacility.LoggingLevel.Error, "profiler");
+            return null;
+        }
+        final File file = new File(PROFILES,
+                "profile-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+        try {
+            exportCsv(file);
+            LogFacility.log("Profile written to " + file.getAbsolutePath(), LogFacility.LoggingLevel.Info, "profiler");
+            return file;
+        } catch (IOException e) {
+            LogFacility.log("Profile could not be written to " + file.getAbsolutePath() + ": " + e.getMessage(),
+                    LogFacility.LoggingLevel.Error, "profiler");
+            return null;
+        }
+    }
+
+    /**
+     * Writes the statistics of every interval so far and of the whole session into the file. The lines of the whole
+     * session are marked with "session" instead of the start of the interval in seconds.
+     */
+    public static void exportCsv(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.println(CSV_HEADER);
+            synchronized (csvLines) {
+                for (String line : csvLines) writer.println(line);
+            }
+            for (Section section : sections) {
+                final TimingHistogram session = section.sessionSnapshot();
+                if (session.getCount() > 0) writer.println(csvLine("session", section.getName(), session));
+            }
+            if (writer.checkError()) throw new IOException("writing failed");
+        }
+    }
+
+    private static String csvLine(String time, String section, TimingHistogram histogram) {
+        return String.format(Locale.ROOT, "%s,\"%s\",%d,%.4f,%.4f,%.4f,%.4f,%.4f", time, section, histogram.getCount(),
+                histogram.getMeanNanos() / 1e6, histogram.getPercentileNanos(0.5) / 1e6,
+                histogram.getPercentileNanos(0.9) / 1e6, histogram.getPercentileNanos(0.99) / 1e6,
+                histogram.getMaxNanos() / 1e6);
+    }
+
+    /**
+     * A measured part of the game loop.
+     */
+    public static final class Section {
+
+        private final String name;
+
+        private final TimingHistogram session = new TimingHistogram();
+        private TimingHistogram current = new TimingHistogram();
+        private TimingHistogram last = new TimingHistogram();
+
+        private Section(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Marks the end of the section.
+         *
+         * @param start The value returned by {@link Profiler#start()} at the beginning of the section.
+         */
+        public void stop(long start) {
+            if (start != 0) record(System.nanoTime() - start);
+        }
+
+        private synchronized void record(long nanos) {
+            session.record(nanos);
+            current.record(nanos);
+        }
+
+        private synchronized void resetInterval() {
+            current.clear();
+        }
+
+        /** Starts a new interval and returns the statistics of the completed one. */
+        private synchronized TimingHistogram completeInterval() {
+            final TimingHistogram completed = current;
+            current = last;
+            current.clear();
+            last = completed;
+            return completed;
+        }
+
+        private synchronized TimingHistogram sessionSnapshot() {
+            final TimingHistogram snapshot = new TimingHistogram();
+            snapshot.add(session);
+            return snapshot;
+        }
+
+        /** The number of measurements in the last complete interval. */
+        public synchronized long getLastCount() {
+            return last.getCount();
+        }
+
+        /** The average duration in the last complete interval, in milliseconds. */
+        public synchronized double getLastMeanMillis() {
+            return last.getMeanNanos() / 1e6;
+        }
+
+        /**
+         * A percentile of the durations in the last complete interval, in milliseconds.
+         *
+         * @param fraction The fraction, from 0 to 1 (0.99 for the 99th percentile).
+         */
+        public synchronized double getLastPercentileMillis(double fraction) {
+            return last.getPercentileNanos(fraction) / 1e6;
+        }
+
+        /** The longest duration in the last complete interval, in milliseconds. */
+        public synchronized double getLastMaxMillis() {
+            return last.getMaxNanos() / 1e6;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package general;
+
+import gui.Drawable;
+
+import java.awt.*;
+
+/**
+ * Shows the statistics of the last interval of the {@link Profiler} in the upper left corner of the window:
+ * count, mean, median, 99th percentile and maximum duration of every section.
+ * Like the {@link CoordinateGrid}, it is switched on in the {@link DebugWindows}.
+ */
+public class ProfilerOverlay implements Drawable {
+
+	private boolean activated = false;
+
+	private Font overlayFont = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+	private Color backgroundColor = new Color(0, 0, 0, 160);
+	private Color textColor = new Color(255, 255, 255, 220);
+
+	private static final int X = 10, Y = 10, PADDING = 6, WIDTH = 430, LINE_HEIGHT = 13;
+
+	/** The interval of the profiler which is currently shown. */
+	private long shownInterval = -1;
+
+	@Override
+	public void draw(Graphics2D g) {
+		shownInterval = Profiler.getIntervals();
+
+		g.setColor(backgroundColor);
+		g.fill(getBounds());
+
+		g.setFont(overlayFont);
+		g.setColor(textColor);
+		int y = Y + PADDING + LINE_HEIGHT - 2;
+		g.drawString(String.format("%-20s %6s %8s %8s %8s %8s", "section", "count", "mean", "p50", "p99", "max"),
+				X + PADDING, y);
+		for (Profiler.Section section : Profiler.getSections()) {
+			y += LINE_HEIGHT;
+			g.drawString(String.format("%-20s %6d %8.3f %8.3f %8.3f %8.3f", section.getName(), section.getLastCount(),
+					section.getLastMeanMillis(), section.getLastPercentileMillis(0.5),
+					section.getLastPercentileMillis(0.99), section.getLastMaxMillis()), X + PADDING, y);
+		}
+		y += LINE_HEIGHT;
+		final FrameStatistics statistics = GameLoop.getFrameStatistics();
+		g.drawString(String.format("%.1f fps, %d frames skipped, %d idle ticks", statistics.getFramesPerSecond(),
+				statistics.getSkippedFrames(), statistics.getIdleTicks()), X + PADDING, y);
+	}
+
+	/**
+	 * Reports the overlay as changed if the profiler has completed another interval since it has been drawn.
+	 * Called on every update.
+	 */
+	public void update() {
+		if (activated && shownInterval != Profiler.getIntervals())
+			DamageTracker.getInstance().markDirty(getBounds());
+	}
+
+	/** The area covered by the overlay. */
+	public Rectangle getBounds() {
+		return new Rectangle(X, Y, WIDTH, 2 * PADDING + (Profiler.getSections().size() + 2) * LINE_HEIGHT);
+	}
+
+	public boolean isActivated() {
+		return activated;
+	}
+
+	public void setActivated(boolean activated) {
+		this.activated = activated;
+		DamageTracker.getInstance().markAllDirty();
+	}
+}
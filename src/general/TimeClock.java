@@ -9,6 +9,7 @@ import scala.concurrent.duration.Duration$;
 import scala.concurrent.duration.FiniteDuration;
 
 import java.awt.*;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -17,10 +18,15 @@ import java.awt.*;
  * <b>4.1.2014:</b> TimeClock erbt jetzt von Component. TimeClock ist jetzt in besserer
  * Handhabung.
  * 
+ * <b>Der Ablauf der Zeit:</b> TimeClock hat keinen eigenen Thread. Die verbleibende Zeit wird aus
+ * <code>System.nanoTime()</code> berechnet, wenn sie gebraucht wird (z.B. beim Zeichnen). Fuer das Ende der Zeit und
+ * die Effekte von {@link TimeClock#timeEffects()} wird jeweils nur ein Callback mit Deadline beim {@link GameLoop}
+ * eingeplant.
+ *
  * @version 4.1.2014
  * 
  */
-public class TimeClock extends Component implements Runnable {
+public class TimeClock extends Component {
 	
 	// VARIABLEN - INITIALISIERUNG
 	
@@ -29,8 +35,23 @@ public class TimeClock extends Component implements Runnable {
 	 * false: TimeClock ist gestoppt */
 	private boolean isRunning = false;
 
+    /** true, if the time is allowed to pass at all; it is set when leaving the LoadingWorldScreen
+     * (see {@link PfeileContext#onStartRunningTimeClock()}). */
+    private boolean isActivated = false;
+
+    /** the time passed during this turn (in nanoseconds), without the time since <code>countingSince</code> */
     private long sumTime = 0;
 
+    /** <code>System.nanoTime()</code> when the time has begun to pass; only valid while {@link TimeClock#isCounting()} */
+    private long countingSince;
+
+    /** the callback for the next time effect or for the time-over; <code>null</code> if the time isn't passing */
+    private GameLoop.UpdateHandle deadlineHandle;
+
+    /** the callback reporting the changing display on every tick, without keeping the game loop from idling;
+     * <code>null</code> if the time isn't passing */
+    private GameLoop.UpdateHandle displayHandle;
+
     /** The default value the timer has; It is also the first time, when the effect <code>timeEffects()</code> is triggered.
      * It's a little more than 10 seconds, because the screen needs some time to update itself, so these 50ms are just
      * synchronizing the audio effects with the screen-system [=> update rate in <code>GameLoop</code>: 1/60s]. <p>
@@ -53,9 +74,12 @@ public class TimeClock extends Component implements Runnable {
     /** this is the color, which is shown, when the time is low (<10000 ms) */
     private Color colorLowLife = new Color (118, 1, 0);
 
-    /** this String displays the time */
+    /** this String displays the time; it's recomputed only, if the displayed millisecond has changed. */
 	private String timePrintString = "null";
 
+    /** the milliseconds left, which are displayed by <code>timePrintString</code> */
+    private long timePrintMillis = Long.MIN_VALUE;
+
 	public final Function0Delegate onTimeOver = new Function0Delegate();
 
     private static StaticProperty<FiniteDuration> _turnTime = new StaticProperty<>();
@@ -103,58 +127,97 @@ public class TimeClock extends Component implements Runnable {
         });
     }
 
-    /** �bernimmt timeSinceLastFrame + Aufruf durch 'Main'
-	 *  .... updated die aktuelle Zeit; �bernimmt Thread */
-	@Override
-	public void run() {
-        long lastTime = System.currentTimeMillis();
-
-		while (!Thread.currentThread().isInterrupted()) {
-            /** the time at which the beginning of this calculation begins (with <code>System.currentTimeMillis()</code>) */
-            long timeCurrent = System.currentTimeMillis();
-
-			if (isRunning()) {
-                sumTime = sumTime + (timeCurrent - lastTime);
-
-                /** <code>getMilliDeath()</code> or <code>turnTime().toMillis() - sumTime</code> */
-                long timeLeft = getMilliDeath();
-
-				if (timeLeft <= 0) {
-                    // if the time has been run out, the explosion sound effect reassures, that the player notice the reason it.
-                    SoundEffectTimeClock.play_explosion();
-                    isRunning = false;
-                    timePrintString = timeFormatter(0);
-					onTimeOver.apply();
-				} else {
-                    timePrintString = timeFormatter (timeLeft);
-
-                    if (timeLeft <= timer) {
-                        timeEffects();
-                    }
-
-                    try {
-                        // only 1 millisecond if timeFormatter(long) is used
-                        // even 1000 (or 999) if timeFormatterShort(long) is used
-                        Thread.sleep(1);
-                    } catch (InterruptedException e) { e.printStackTrace(); }
-                }
-			} else {
-				try {
-					Thread.sleep(35);
-				} catch (InterruptedException e) {e.printStackTrace();}
-			}
-            lastTime = timeCurrent;
-		}
-	}
+    /** Lets the time pass from now on, whenever TimeClock is started. Called, when leaving the LoadingWorldScreen. */
+    public synchronized void activate () {
+        if (isActivated)
+            return;
+        isActivated = true;
+        if (isRunning)
+            beginCounting();
+    }
+
+    /** true, if the time is passing right now */
+    private boolean isCounting () {
+        return isRunning && isActivated;
+    }
+
+    /** the time passed during this turn in nanoseconds */
+    private long passedNanos () {
+        return isCounting() ? sumTime + (System.nanoTime() - countingSince) : sumTime;
+    }
+
+    private void beginCounting () {
+        countingSince = System.nanoTime();
+        scheduleDeadline();
+        displayHandle = GameLoop.schedule(this::markDirtyLazily);
+    }
+
+    private void endCounting () {
+        sumTime += System.nanoTime() - countingSince;
+        cancelDeadline();
+        if (displayHandle != null) {
+            displayHandle.invalidate();
+            displayHandle = null;
+        }
+        markDirty();
+    }
+
+    /** Schedules the callback for the next time effect or, if there isn't any, for the time-over. */
+    private void scheduleDeadline () {
+        cancelDeadline();
+        if (isTurnTimeInfinite())
+            return;
+
+        final long timeLeft = getMilliDeath();
+        final long untilNext = timer > 0 && timeLeft > timer ? timeLeft - timer : timeLeft;
+        deadlineHandle = GameLoop.scheduleOnce(this::onDeadline, GameLoop.DEFAULT_PRIORITY, Math.max(0, untilNext),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelDeadline () {
+        if (deadlineHandle != null) {
+            deadlineHandle.invalidate();
+            deadlineHandle = null;
+        }
+    }
+
+    /** Called by the main thread at the deadline: plays the time effects or ends the time. */
+    private void onDeadline () {
+        synchronized (this) {
+            if (!isCounting())
+                return;
+            deadlineHandle = null;
+
+            long timeLeft = getMilliDeath();
+            if (timeLeft > 0) {
+                // usually only one effect; more, if the game loop has been too late
+                while (timeLeft <= timer && timer > 0)
+                    timeEffects();
+                scheduleDeadline();
+                return;
+            }
+
+            // if the time has been run out, the explosion sound effect reassures, that the player notice the reason it.
+            SoundEffectTimeClock.play_explosion();
+            stop();
+        }
+        onTimeOver.apply();
+    }
 
 	/** stoppt die Ausf�hrung von TimeClock */
 	public synchronized void stop () {
+		if (isCounting())
+			endCounting();
 		isRunning = false;
 	}
 	
 	/** started TimeClock */
-	public void start () {
+	public synchronized void start () {
+		if (isRunning)
+			return;
 		isRunning = true;
+		if (isCounting())
+			beginCounting();
 	}
 	
 	/** setzt TimeClock auf maximale Zeit zur�ck
@@ -164,8 +227,11 @@ public class TimeClock extends Component implements Runnable {
         // and the default printed time with timePrintString
         colorTime = Color.BLACK;
 		sumTime = 0;
+        countingSince = System.nanoTime();
         timer = DEFAULT_TIMER;
-        timePrintString = timeFormatter(turnTime().toMillis());
+        if (isCounting())
+            scheduleDeadline();
+        markDirty();
 	}
 	
 	
@@ -273,12 +339,17 @@ public class TimeClock extends Component implements Runnable {
 	 * @return true - wenn die maximale Zeit pro Zug ('timeMax') ohne die Vergangene Zeit ('sumTime') kleiner als 0
 	 */
 	public synchronized boolean isEnd () {
-        return turnTime().toMillis() - sumTime < 0;
+        return getMilliDeath() < 0;
 	}
 	
-	/** GETTER 
+	/** GETTER; the string is only formatted again, if the displayed millisecond has changed.
 	 * @return timePrintString*/ 
 	public synchronized String getTimePrintString () {
+		final long timeLeft = Math.max(0, getMilliDeath());
+		if (timeLeft != timePrintMillis) {
+			timePrintMillis = timeLeft;
+			timePrintString = timeFormatter(timeLeft);
+		}
 		return timePrintString;
 	}
 	
@@ -286,7 +357,7 @@ public class TimeClock extends Component implements Runnable {
 	 * @return timeLeft - die �brige Zeit f�r diesen Zug
 	 */
 	public synchronized long getMilliDeath() {
-		return turnTime().toMillis() - sumTime;
+		return turnTime().toMillis() - TimeUnit.NANOSECONDS.toMillis(passedNanos());
 	}
 	
 	public boolean isRunning() {
@@ -0,0 +1,98 @@
+package general;
+
+/**
+ * A histogram of durations in nanoseconds with logarithmic buckets, in the style of HdrHistogram.
+ * <p>
+ * Every power of two is divided into {@link #SUB_BUCKETS} buckets of equal width, so every recorded value is
+ * known with a relative error of at most 1/{@value #SUB_BUCKETS}, whatever its magnitude. Recording a value does not
+ * allocate and takes constant time. Durations longer than 2^{@value #MAX_EXPONENT} nanoseconds (about 18 minutes)
+ * end up in the last bucket.
+ * <p>
+ * The histogram is not thread-safe.
+ */
+final class TimingHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+
+    private final long[] counts = new long[(MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS];
+
+    private long count = 0, total = 0, min = Long.MAX_VALUE, max = 0;
+
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[indexOf(nanos)]++;
+        count++;
+        total += nanos;
+        if (nanos < min) min = nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    /** Adds every value recorded by the other histogram to this one. */
+    void add(TimingHistogram other) {
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        count += other.count;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    void clear() {
+        java.util.Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getMeanNanos() {
+        return count == 0 ? 0 : total / (double) count;
+    }
+
+    long getMinNanos() {
+        return count == 0 ? 0 : min;
+    }
+
+    long getMaxNanos() {
+        return max;
+    }
+
+    /**
+     * Returns the value below which the given fraction of the recorded values lie.
+     *
+     * @param fraction The fraction, from 0 to 1 (0.99 for the 99th percentile).
+     */
+    long getPercentileNanos(double fraction) {
+        if (count == 0) return 0;
+        final long target = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length - 1; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.max(min, Math.min(max, middleOf(i)));
+        }
+        // The last bucket has no upper bound, so it has no middle either.
+        return max;
+    }
+
+    private static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        final int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) return (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS - 1;
+        final int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /** The value in the middle of the bucket. */
+    private static long middleOf(int index) {
+        if (index < 2 * SUB_BUCKETS) return index;
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+}
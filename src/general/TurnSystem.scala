@@ -5,7 +5,7 @@ import java.util.{Collection => ICollection, Deque => IDeque, List => IList, Map
 
 import general.JavaInterop._
 import gui.screen.ArrowSelectionScreenPreSet
-import newent.{CommandTeam, Team}
+import newent.{Bot, CommandTeam, Team}
 
 import scala.collection.JavaConverters._
 
@@ -36,6 +36,11 @@ class TurnSystem(val teams: Supplier[IList[Team]], teamToBeginIndex: Int) {
 
   onTurnGet += { team =>
     team.asCommandTeamOpt.foreach(cmdTeam => cmdTeam.head.onTurnGet())
+    // The head of a team is always a player; the bots of the team act on their own.
+    team.members.asScala.foreach {
+      case bot: Bot => bot.onTurnGet()
+      case _ =>
+    }
   }
 
   onTurnEnded += { team =>
@@ -0,0 +1,141 @@
+package general;
+
+import general.GameLoop.UpdateHandle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The callbacks scheduled with the {@link GameLoop}.
+ * <p>
+ * Callbacks may be scheduled from any thread. They are handed to the main thread through a lock-free ring buffer;
+ * only if that is full, they are put into a concurrent overflow queue. Everything else is owned by the main thread:
+ * recurring callbacks are kept in an array sorted by priority which is compacted on every tick, one-time callbacks
+ * with a deadline wait in a heap until they are due.
+ * <p>
+ * Cancelling a callback ({@link UpdateHandle#invalidate()}) just drops its reference to the client code, so it does
+ * not wait for the main thread; the main thread removes the handle the next time it comes across it.
+ */
+final class UpdateScheduler {
+
+    private static final int SUBMISSION_CAPACITY = 1024;
+
+    private static final Comparator<UpdateHandle> highestPriorityFirst =
+            (a, b) -> Integer.compare(b.priority, a.priority);
+
+    private static final Comparator<UpdateHandle> earliestDeadlineFirst =
+            (a, b) -> Long.compare(a.deadline - b.deadline, 0);
+
+    private final MpscRingBuffer<UpdateHandle> submitted = new MpscRingBuffer<>(SUBMISSION_CAPACITY);
+    private final Queue<UpdateHandle> overflow = new ConcurrentLinkedQueue<>();
+
+    /** The number of handles submitted but not taken over by the main thread yet. */
+    private final AtomicInteger submittedCount = new AtomicInteger();
+
+    /** Set if a handle waiting in {@link #delayed} has been cancelled. */
+    private volatile boolean delayedCancelled = false;
+
+    // Only accessed by the main thread:
+
+    /** The recurring callbacks, from the highest to the lowest priority. */
+    private UpdateHandle[] recurring = new UpdateHandle[16];
+    private int recurringCount = 0;
+
+    private final PriorityQueue<UpdateHandle> delayed = new PriorityQueue<>(16, earliestDeadlineFirst);
+
+    private final List<UpdateHandle> due = new ArrayList<>();
+
+    /** Hands the handle over to the main thread. May be called by any thread. */
+    void submit(UpdateHandle handle) {
+        submittedCount.incrementAndGet();
+        if (!submitted.offer(handle)) overflow.offer(handle);
+    }
+
+    /** Called when a handle with a deadline is cancelled. */
+    void delayedCancelled() {
+        delayedCancelled = true;
+    }
+
+    /**
+     * Returns true if there are callbacks to be called once right now: newly submitted ones or ones whose deadline
+     * has passed. Only called by the main thread.
+     */
+    boolean hasDueWork(long now) {
+        return submittedCount.get() > 0 || (!delayed.isEmpty() && delayed.peek().deadline - now <= 0);
+    }
+
+    /**
+     * The nanoseconds until the earliest deadline of the waiting callbacks, or {@link Long#MAX_VALUE} if there is
+     * none. Only called by the main thread.
+     */
+    long nanosUntilNextDeadline(long now) {
+        final UpdateHandle next = delayed.peek();
+        return next == null ? Long.MAX_VALUE : Math.max(0, next.deadline - now);
+    }
+
+    /**
+     * Calls the recurring callbacks and then the one-time callbacks that are due, each from the highest to the lowest
+     * priority. Callbacks scheduled meanwhile are called in the next tick. Only called by the main thread.
+     */
+    void runTick(long now) {
+        takeSubmitted();
+        compactRecurring();
+
+        // Callbacks scheduled by these callbacks are taken over at the beginning of the next tick.
+        final int count = recurringCount;
+        for (int i = 0; i < count; i++) recurring[i].call();
+
+        if (delayedCancelled) {
+            delayedCancelled = false;
+            delayed.removeIf(handle -> !handle.isValid());
+        }
+        while (!delayed.isEmpty() && delayed.peek().deadline - now <= 0) due.add(delayed.poll());
+
+        due.sort(highestPriorityFirst);
+        for (UpdateHandle handle : due) {
+            handle.call();
+            handle.finish();
+        }
+        due.clear();
+    }
+
+    private void takeSubmitted() {
+        UpdateHandle handle;
+        while ((handle = submitted.poll()) != null || (handle = overflow.poll()) != null) {
+            submittedCount.decrementAndGet();
+            if (!handle.isValid()) continue;
+
+            if (handle.isRecurring()) insertRecurring(handle);
+            else if (handle.hasDeadline()) delayed.add(handle);
+            else due.add(handle);
+        }
+    }
+
+    /** Inserts the handle behind every recurring handle with the same or a higher priority. */
+    private void insertRecurring(UpdateHandle handle) {
+        if (recurringCount == recurring.length) recurring = Arrays.copyOf(recurring, recurringCount * 2);
+        int index = recurringCount;
+        while (index > 0 && recurring[index - 1].priority < handle.priority) {
+            recurring[index] = recurring[index - 1];
+            index--;
+        }
+        recurring[index] = handle;
+        recurringCount++;
+    }
+
+    /** Removes the cancelled handles from the recurring ones, keeping the order of the others. */
+    private void compactRecurring() {
+        int kept = 0;
+        for (int i = 0; i < recurringCount; i++) {
+            if (recurring[i].isValid()) recurring[kept++] = recurring[i];
+        }
+        Arrays.fill(recurring, kept, recurringCount, null);
+        recurringCount = kept;
+    }
+}
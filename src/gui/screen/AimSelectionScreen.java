@@ -18,6 +18,7 @@ import player.weapon.arrow.AbstractArrow;
 import player.weapon.arrow.ArrowHelper;
 import world.Terrain;
 import world.Tile;
+import world.VisualMap;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
@@ -184,9 +185,10 @@ public class AimSelectionScreen extends Screen {
 		public void run() {
 			super.run();
             if(!stopFlag) {
-                for (Tile tileWrapper : Main.getContext().getWorld().terrain().getTiles()) {
-                    if(!tileWrapper.getComponent().getBounds().contains(evt.getPoint()))
-                        continue;
+                // The tiles are placed in world coordinates.
+                Point position = GameScreen.getInstance().toWorld(evt.getPoint());
+                Tile tileWrapper = Main.getContext().getWorld().terrain().helper().findTile(position.x, position.y);
+                if (tileWrapper != null) {
 
 	                int tileX = tileWrapper.getGridX();
 	                int tileY = tileWrapper.getGridY();
@@ -342,7 +344,7 @@ public class AimSelectionScreen extends Screen {
 
                 // the color is unifiedArrowColor with the alpha value: damage [relative to the maximum damage]
                 impactingColor = new Color(unifiedArrowColor.getRed() / 255f, unifiedArrowColor.getGreen() / 255f, unifiedArrowColor.getBlue() / 255f,
-                        (float) (arrow.damageAt(tile.getGridX(), tile.getGridY()) / (arrow.getAttackValue() * PfeileContext.damageMultiplicator().get())));
+                        (float) arrow.damageRatioAt(tile.getGridX(), tile.getGridY()));
             }
 
             @Override
@@ -373,23 +375,26 @@ public class AimSelectionScreen extends Screen {
         super.draw(g);
 
         // Draw the world and the player
-        GameScreen.getInstance().getMap().draw(g);
+        final VisualMap map = GameScreen.getInstance().getMap();
+        map.draw(g);
 
         // draw the selected field and the damage radius
-        if (posX_selectedField >= 0 && posY_selectedField >= 0) {
-            fieldContainer.draw(g);
-
-            // drawing the damage radius twice, that the line is thicker
-            g.setColor(damageRadiusColor);
-            g.setStroke(strokeOvalDamageRadius);
-            g.drawOval(boundsOvalDamageRadius.x, boundsOvalDamageRadius.y, boundsOvalDamageRadius.width, boundsOvalDamageRadius.height);
-
-            animatedLine.updateOffset(- 0.5);
-            animatedLine.draw(g);
-        } else {
-            // when you've selected an arrow you don't need to see all the others
-            AttackingScreen.getInstance().getAttackDrawer().draw(g);
-        }
+        map.drawInWorld(g, world -> {
+            if (posX_selectedField >= 0 && posY_selectedField >= 0) {
+                fieldContainer.draw(world);
+
+                // drawing the damage radius twice, that the line is thicker
+                world.setColor(damageRadiusColor);
+                world.setStroke(strokeOvalDamageRadius);
+                world.drawOval(boundsOvalDamageRadius.x, boundsOvalDamageRadius.y, boundsOvalDamageRadius.width, boundsOvalDamageRadius.height);
+
+                animatedLine.updateOffset(- 0.5);
+                animatedLine.draw(world);
+            } else {
+                // when you've selected an arrow you don't need to see all the others
+                AttackingScreen.getInstance().getAttackDrawer().draw(world);
+            }
+        });
 
         // TODO: inizalizise and create TimeLifeBox
         // TimeLifeBox.draw(g);
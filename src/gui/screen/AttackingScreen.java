@@ -7,6 +7,7 @@ import newent.AttackProgress;
 import player.weapon.AttackDrawer;
 import player.weapon.AttackingCalculator;
 import player.weapon.arrow.ImpactDrawerHandler;
+import world.VisualMap;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
@@ -57,11 +58,13 @@ public class AttackingScreen extends Screen {
             List<AttackProgress> filteredProgresses = AttackDrawer.getAttackProgressesOfArrows();
 
             // if there are no attacks... you don't need this screen
-            if (filteredProgresses.isEmpty())
+            if (filteredProgresses.isEmpty()) {
                 onLeavingScreen(WaitingScreen.SCREEN_INDEX);
+                return;
+            }
 
-            AttackingCalculator.getInstance().arrowsFlying(filteredProgresses);
-            continueButton.acceptInput();
+            // the future is completed by the main thread, after the arrows have arrived
+            AttackingCalculator.getInstance().arrowsFlying(filteredProgresses).thenRun(continueButton::acceptInput);
         });
     }
 
@@ -88,11 +91,14 @@ public class AttackingScreen extends Screen {
     public void draw (Graphics2D g) {
         super.draw(g);
 
-        GameScreen.getInstance().getMap().draw(g);
+        final VisualMap map = GameScreen.getInstance().getMap();
+        map.draw(g);
 
-        AttackingCalculator.drawPaths(g);
-        attackDrawer.draw(g);
-        ImpactDrawerHandler.draw(g);
+        map.drawInWorld(g, world -> {
+            AttackingCalculator.drawPaths(world);
+            attackDrawer.draw(world);
+            ImpactDrawerHandler.draw(world);
+        });
 
         Main.getContext().getActivePlayer().drawLifeUI(g);
 
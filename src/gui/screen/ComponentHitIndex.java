@@ -0,0 +1,182 @@
+package gui.screen;
+
+import comp.Component;
+import comp.Component.ComponentStatus;
+import general.DelegateLike;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Uniform grid over the bounding rectangles of the components of a screen.
+ *
+ * <p>Every component is listed in the cells its bounding rectangle touches, so finding the components under
+ * the mouse only looks at one cell. The rectangles are refreshed lazily: whenever a component is transformed
+ * (see {@link Component#onTransformed}) or its bounds change otherwise, it is marked and re-indexed before
+ * the next query.</p>
+ *
+ * <p>Components placed in world coordinates (see {@link Component#isWorldSpace()}) are kept in a grid of their
+ * own, which is queried with the mouse position seen through the camera of the screen.</p>
+ *
+ * <p>Additionally, the index remembers the components that the mouse has been over (their status is not
+ * {@link ComponentStatus#NO_MOUSE}), because these need to be told when the mouse leaves them.</p>
+ */
+final class ComponentHitIndex {
+
+    /** The width and height of a cell in pixels. */
+    private static final int CELL_SIZE = 64;
+
+    /** The components of the screen, in drawing order. The index of a component is its layer. */
+    private final List<Component> components;
+
+    private final Map<Long, List<Component>> screenCells = new HashMap<>();
+    private final Map<Long, List<Component>> worldCells = new HashMap<>();
+
+    /** The cells every indexed component is listed in, given as a rectangle of cell coordinates. */
+    private final Map<Component, Rectangle> indexedCells = new IdentityHashMap<>();
+
+    /** The grid every indexed component is listed in. */
+    private final Map<Component, Map<Long, List<Component>>> indexedGrids = new IdentityHashMap<>();
+
+    /** The components whose bounds have changed since they have been indexed. */
+    private final Set<Component> outdated = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final Map<Component, DelegateLike.Handle> transformHandles = new IdentityHashMap<>();
+
+    /** The components that need to be notified when the mouse is not over them. */
+    private final Set<Component> hovered = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final Map<Component, Integer> layers = new IdentityHashMap<>();
+    private boolean layersOutdated = true;
+
+    /** Sorts components from the topmost (drawn last) to the bottommost. */
+    private final Comparator<Component> topmostFirst = (a, b) -> Integer.compare(layers.get(b), layers.get(a));
+
+    ComponentHitIndex(List<Component> components) {
+        this.components = components;
+    }
+
+    /** Starts tracking the component. */
+    synchronized void add(Component c) {
+        transformHandles.put(c, c.onTransformed.registerJava(event -> invalidate(c)));
+        outdated.add(c);
+        if (c.getStatus() != ComponentStatus.NO_MOUSE) hovered.add(c);
+        layersOutdated = true;
+    }
+
+    /** Stops tracking the component. */
+    synchronized void remove(Component c) {
+        final DelegateLike.Handle handle = transformHandles.remove(c);
+        if (handle != null) handle.dispose();
+        unlist(c);
+        outdated.remove(c);
+        hovered.remove(c);
+        layersOutdated = true;
+    }
+
+    /** Marks the drawing order of the components as changed, e.g. after a component has been pulled to the front. */
+    synchronized void reorder() {
+        layersOutdated = true;
+    }
+
+    /** Marks the bounds of the component as changed. */
+    synchronized void invalidate(Component c) {
+        if (transformHandles.containsKey(c)) outdated.add(c);
+    }
+
+    /**
+     * Returns the components whose bounding rectangle may contain the point, from the topmost to the bottommost.
+     * The caller still needs to check the actual bounds of every component.
+     *
+     * @param p The point in screen coordinates.
+     * @param world The same point in world coordinates.
+     */
+    synchronized List<Component> candidatesAt(Point p, Point world) {
+        refresh();
+        final List<Component> candidates = new ArrayList<>();
+        final List<Component> screenCell = screenCells.get(key(Math.floorDiv(p.x, CELL_SIZE), Math.floorDiv(p.y, CELL_SIZE)));
+        if (screenCell != null) candidates.addAll(screenCell);
+        final List<Component> worldCell = worldCells.get(key(Math.floorDiv(world.x, CELL_SIZE), Math.floorDiv(world.y, CELL_SIZE)));
+        if (worldCell != null) candidates.addAll(worldCell);
+        candidates.sort(topmostFirst);
+        return candidates;
+    }
+
+    /**
+     * Returns the components a mouse event at the point needs to be delivered to, from the topmost to the
+     * bottommost: the candidates under the point and every component the mouse has been over before.
+     *
+     * @param p The point in screen coordinates.
+     * @param world The same point in world coordinates.
+     */
+    synchronized List<Component> affectedBy(Point p, Point world) {
+        final List<Component> affected = new ArrayList<>(candidatesAt(p, world));
+        final Set<Component> included = Collections.newSetFromMap(new IdentityHashMap<>());
+        included.addAll(affected);
+        for (Component c : hovered) {
+            if (!included.contains(c) && layers.containsKey(c)) affected.add(c);
+        }
+        affected.sort(topmostFirst);
+        return affected;
+    }
+
+    /** Updates which of the components the mouse is over, after a mouse event has been delivered to them. */
+    synchronized void updateHovered(List<Component> delivered) {
+        for (Component c : delivered) {
+            if (c.isAcceptingInput() && c.getStatus() != ComponentStatus.NO_MOUSE && layers.containsKey(c)) hovered.add(c);
+            else hovered.remove(c);
+        }
+    }
+
+    private void refresh() {
+        if (layersOutdated) {
+            layers.clear();
+            for (int i = 0; i < components.size(); i++) layers.put(components.get(i), i);
+            layersOutdated = false;
+        }
+
+        for (Component c : outdated) {
+            unlist(c);
+            if (!layers.containsKey(c)) continue;
+
+            final Rectangle2D bounds = c.getPreciseRectangle();
+            final Rectangle range = new Rectangle(
+                    (int) Math.floor(bounds.getMinX() / CELL_SIZE), (int) Math.floor(bounds.getMinY() / CELL_SIZE), 0, 0);
+            range.add((int) Math.floor(bounds.getMaxX() / CELL_SIZE), (int) Math.floor(bounds.getMaxY() / CELL_SIZE));
+
+            final Map<Long, List<Component>> cells = c.isWorldSpace() ? worldCells : screenCells;
+            for (int cy = range.y; cy <= range.y + range.height; cy++) {
+                for (int cx = range.x; cx <= range.x + range.width; cx++) {
+                    cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>(4)).add(c);
+                }
+            }
+            indexedCells.put(c, range);
+            indexedGrids.put(c, cells);
+        }
+        outdated.clear();
+    }
+
+    /** Removes the component from every cell it is listed in. */
+    private void unlist(Component c) {
+        final Rectangle range = indexedCells.remove(c);
+        final Map<Long, List<Component>> cells = indexedGrids.remove(c);
+        if (range == null) return;
+
+        for (int cy = range.y; cy <= range.y + range.height; cy++) {
+            for (int cx = range.x; cx <= range.x + range.width; cx++) {
+                final long key = key(cx, cy);
+                final List<Component> cell = cells.get(key);
+                if (cell != null) {
+                    cell.remove(c);
+                    if (cell.isEmpty()) cells.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+}
@@ -75,6 +75,7 @@ public class GameScreen extends Screen implements FrameContainer {
 		super(GameScreen.SCREEN_NAME, GameScreen.SCREEN_INDEX);
 
 		setPreprocessedDrawingEnabled(false);
+		setDamageTracked(true);
 
 		onScreenEnter.registerJava(() -> {
             if (map == null) {
@@ -191,7 +192,7 @@ public class GameScreen extends Screen implements FrameContainer {
 		inventoryButton.draw(g);
         shopWindowButton.draw(g);
         moneyDisplay.draw(g);
-        AttackingCalculator.drawPaths(g);
+        map.drawInWorld(g, AttackingCalculator::drawPaths);
 		Main.getContext().getActivePlayer().drawLifeUI(g);
 
         getShopWindow().getParentComponent().drawChecked(g);
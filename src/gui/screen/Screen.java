@@ -4,6 +4,7 @@ import comp.Component;
 import comp.Component.ComponentStatus;
 import comp.ImageLike;
 import comp.SolidColor;
+import general.DamageTracker;
 import general.Delegate;
 import general.Function0Delegate;
 import general.Main;
@@ -46,6 +47,17 @@ public abstract class Screen implements Drawable, MouseListener,
     public final Delegate<ScreenChangedEvent> onScreenLeft = new Delegate<>();
 
 	private List<Component> components = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Finds the components under the mouse without testing every component.
+	 */
+	private final ComponentHitIndex hitIndex = new ComponentHitIndex(components);
+
+	/**
+	 * The translation of the world coordinates on the screen.
+	 * @see Component#isWorldSpace()
+	 */
+	private volatile int cameraX = 0, cameraY = 0;
 	public final int SCREEN_INDEX;
 	
 	/**
@@ -53,6 +65,12 @@ public abstract class Screen implements Drawable, MouseListener,
 	 */
 	private boolean preprocessedDrawingEnabled = false;
 
+	/**
+	 * Determines whether everything drawn by this screen reports its changes, so that only the changed regions
+	 * need to be redrawn (see {@link DamageTracker}).
+	 */
+	private boolean damageTracked = false;
+
 	private ImageLike background = new SolidColor(Color.black);
 
     private boolean boundsDrawEnabled = false;
@@ -194,16 +212,21 @@ public abstract class Screen implements Drawable, MouseListener,
                 if (component.isVisible()) g.setColor(boundsDrawWhite);
                 else g.setColor(boundsDrawRed);
                 if (component.isMouseFocused()) g.setColor(boundsDrawOrange);
+                final Point camera = cameraOf(component);
+                g.translate(camera.x, camera.y);
                 g.draw(component.getBounds());
                 if (component.isMouseFocused()) {
                     mouseFocused[0] = component;
                 }
                 final Point center = component.center();
                 g.drawString(component.getName(), center.x, center.y);
+                g.translate(-camera.x, -camera.y);
             });
 
             if(mouseFocused[0] != null) {
                 final Point center = mouseFocused[0].center();
+                final Point camera = cameraOf(mouseFocused[0]);
+                center.translate(camera.x, camera.y);
                 final Dimension textBounds = Component.getTextBounds(mouseFocused[0].getName(), boundsDrawFont);
                 final Color prevColor = g.getColor();
                 g.setColor(boundsDrawFillString);
@@ -234,12 +257,13 @@ public abstract class Screen implements Drawable, MouseListener,
 		if(e.getButton() == 3) {
 			isRightMousePressed = true;
 		}
-		for(int i = components.size() - 1; i >= 0; i--) {
-			Component c = components.get(i);
+		final List<Component> affected = hitIndex.affectedBy(e.getPoint(), toWorld(e.getPoint()));
+		for (Component c : affected) {
+			final Point p = hitPoint(c, e.getPoint());
             if(c.isVisible()) {
                 if(c.isAcceptingInput()) {
-	                if(c.getPreciseRectangle().contains(e.getPoint())) {
-		                if (c.getBounds().contains(e.getPoint())) {
+	                if(c.getPreciseRectangle().contains(p)) {
+		                if (c.getBounds().contains(p)) {
 			                for (MouseListener m : c.getMouseListeners()) {
 				                m.mousePressed(e);
 			                }
@@ -261,6 +285,7 @@ public abstract class Screen implements Drawable, MouseListener,
                 }
             }
 		}
+		hitIndex.updateHovered(affected);
 	}
 
 	public void mouseReleased(MouseEvent e) {
@@ -273,11 +298,12 @@ public abstract class Screen implements Drawable, MouseListener,
 
 		lastClickPosition = e.getPoint();
 
-		for(int i = components.size() - 1; i >= 0; i--) {
-			Component c = components.get(i);
+		final List<Component> affected = hitIndex.affectedBy(e.getPoint(), toWorld(e.getPoint()));
+		for (Component c : affected) {
+			final Point p = hitPoint(c, e.getPoint());
 			if (c.isAcceptingInput() && c.isVisible()) {
-				if(c.getPreciseRectangle().contains(e.getPoint())) {
-					if (c.getBounds().contains(e.getPoint())) {
+				if(c.getPreciseRectangle().contains(p)) {
+					if (c.getBounds().contains(p)) {
 						for (MouseListener m : c.getMouseListeners()) {
 							m.mouseReleased(e);
 						}
@@ -300,6 +326,7 @@ public abstract class Screen implements Drawable, MouseListener,
 				}
 			}
 		}
+		hitIndex.updateHovered(affected);
 	}
 	
 	@Override
@@ -323,11 +350,12 @@ public abstract class Screen implements Drawable, MouseListener,
 
 		Component focusedComponent = null;
 
-		for(int i = components.size() - 1; i >= 0; i--) {
-			Component c = components.get(i);
+		final List<Component> affected = hitIndex.affectedBy(e.getPoint(), toWorld(e.getPoint()));
+		for (Component c : affected) {
+			final Point p = hitPoint(c, e.getPoint());
 			if(c.isAcceptingInput() && c.isVisible()) {
-				if(c.getPreciseRectangle().contains(e.getPoint()) && focusedComponent == null) {
-					if(c.getBounds().contains(e.getPoint())) {
+				if(c.getPreciseRectangle().contains(p) && focusedComponent == null) {
+					if(c.getBounds().contains(p)) {
 						if (c.getStatus() != ComponentStatus.CLICK) {
 							for (MouseListener m : c.getMouseListeners()) {
 								m.mouseEntered(e);
@@ -358,6 +386,7 @@ public abstract class Screen implements Drawable, MouseListener,
 				}
 			}
 		}
+		hitIndex.updateHovered(affected);
 	}
 	
 	@Override
@@ -366,12 +395,13 @@ public abstract class Screen implements Drawable, MouseListener,
 
 		Component focusedComponent = null;
 
-		// Traverse in reverse; last components in list are drawn on top of the first components in list
-		for(int i = components.size() - 1; i >= 0; i--) {
-			Component c = components.get(i);
+		// Traverse from the top; last components in list are drawn on top of the first components in list
+		final List<Component> affected = hitIndex.affectedBy(e.getPoint(), toWorld(e.getPoint()));
+		for (Component c : affected) {
+			final Point p = hitPoint(c, e.getPoint());
 			if(c.isAcceptingInput() && c.isVisible()) {
-				if(c.getPreciseRectangle().contains(e.getPoint()) && focusedComponent == null) {
-					if(c.getBounds().contains(e.getPoint())) {
+				if(c.getPreciseRectangle().contains(p) && focusedComponent == null) {
+					if(c.getBounds().contains(p)) {
 						if (c.getStatus() == ComponentStatus.NO_MOUSE) {
 							for (MouseListener m : c.getMouseListeners()) {
 								m.mouseEntered(e);
@@ -401,13 +431,17 @@ public abstract class Screen implements Drawable, MouseListener,
 				}
 			}
 		}
+		hitIndex.updateHovered(affected);
 	}
 	
 	@Override
 	public void mouseWheelMoved(MouseWheelEvent e) {
-		for (Component c : components) {
+		final List<Component> candidates = hitIndex.candidatesAt(e.getPoint(), toWorld(e.getPoint()));
+		// same order as the component list
+		for (int i = candidates.size() - 1; i >= 0; i--) {
+			Component c = candidates.get(i);
 			if(c.isAcceptingInput()) {
-				if(c.getBounds().contains(e.getPoint())) {
+				if(c.getBounds().contains(hitPoint(c, e.getPoint()))) {
 					for (MouseWheelListener m : c.getMouseWheelListeners()) {
 						m.mouseWheelMoved(e);
 					}
@@ -447,6 +481,56 @@ public abstract class Screen implements Drawable, MouseListener,
 
 	public void add(int index, Component c) {
 		components.add(index, c);
+		hitIndex.add(c);
+	}
+
+	/**
+	 * Sets the translation with which the components placed in world coordinates appear on the screen.
+	 * The components themselves are not moved.
+	 * @param x The horizontal translation.
+	 * @param y The vertical translation.
+	 */
+	public void setCamera(int x, int y) {
+		if (x == cameraX && y == cameraY) return;
+		cameraX = x;
+		cameraY = y;
+		DamageTracker.getInstance().markAllDirty();
+	}
+
+	public int getCameraX() {
+		return cameraX;
+	}
+
+	public int getCameraY() {
+		return cameraY;
+	}
+
+	/**
+	 * Converts a point on the screen into world coordinates.
+	 * @param screenPoint The point on the screen.
+	 * @return The point in world coordinates.
+	 */
+	public Point toWorld(Point screenPoint) {
+		return new Point(screenPoint.x - cameraX, screenPoint.y - cameraY);
+	}
+
+	/** Returns the translation with which the component appears on the screen. */
+	private Point cameraOf(Component c) {
+		return c.isWorldSpace() ? new Point(cameraX, cameraY) : new Point();
+	}
+
+	/** Returns the point on the screen in the coordinates the component is placed in. */
+	private Point hitPoint(Component c, Point screenPoint) {
+		return c.isWorldSpace() ? toWorld(screenPoint) : screenPoint;
+	}
+
+	/**
+	 * Tells the screen that the bounds of the component have changed without the component being transformed,
+	 * so that mouse events find the component at its new place.
+	 * @param c The component.
+	 */
+	public void invalidateHitBounds(Component c) {
+		hitIndex.invalidate(c);
 	}
 	
 	/**
@@ -457,6 +541,7 @@ public abstract class Screen implements Drawable, MouseListener,
 		if(components.contains(c)) {
             c.unparent();
 			components.remove(c);
+			hitIndex.remove(c);
 		}
 	}
 
@@ -483,6 +568,7 @@ public abstract class Screen implements Drawable, MouseListener,
 		int oldIndex = components.indexOf(component);
 		components.remove(component);
 		components.add(oldIndex - 1, component);
+		hitIndex.reorder();
 	}
 
 	/**
@@ -498,6 +584,7 @@ public abstract class Screen implements Drawable, MouseListener,
 
 		components.remove(component);
 		components.add(0, component);
+		hitIndex.reorder();
 	}
 
 	/**
@@ -514,6 +601,7 @@ public abstract class Screen implements Drawable, MouseListener,
 		int oldIndex = components.indexOf(component);
 		components.remove(component);
 		components.add(oldIndex + 1, component);
+		hitIndex.reorder();
 	}
 
 	/**
@@ -529,20 +617,33 @@ public abstract class Screen implements Drawable, MouseListener,
 
 		components.remove(component);
 		components.add(component);
+		hitIndex.reorder();
 	}
 
 	public Screen putBefore(Component beforeWhat, Component move) {
-		if(components.contains(move)) components.remove(move);
+		final boolean contained = components.remove(move);
 		final int beforeIndex = FunctionCollection.clamp(components.indexOf(beforeWhat), 0, components.size());
 		components.add(beforeIndex, move);
+		layerChanged(move, contained);
 		return this;
 	}
 
 	public Screen putAfter(Component afterWhat, Component move) {
-		if(components.contains(move)) components.remove(move);
+		final boolean contained = components.remove(move);
 		components.add(components.indexOf(afterWhat) + 1, move);
+		layerChanged(move, contained);
 		return this;
 	}
+
+	/**
+	 * Tells the hit index about a component that has been put into another layer.
+	 * @param c The component.
+	 * @param contained Whether the component has been on this screen before, or has just been inserted.
+	 */
+	private void layerChanged(Component c, boolean contained) {
+		if(contained) hitIndex.reorder();
+		else hitIndex.add(c);
+	}
 	
 	protected boolean isPreprocessedDrawingEnabled() {
 		return preprocessedDrawingEnabled;
@@ -552,6 +653,14 @@ public abstract class Screen implements Drawable, MouseListener,
 		this.preprocessedDrawingEnabled = preprocessedDrawingEnabled;
 	}
 
+	public boolean isDamageTracked() {
+		return damageTracked;
+	}
+
+	protected void setDamageTracked(boolean damageTracked) {
+		this.damageTracked = damageTracked;
+	}
+
     public boolean isBoundsDrawEnabled()
     {
         return boundsDrawEnabled;
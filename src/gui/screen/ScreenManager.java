@@ -1,5 +1,6 @@
 package gui.screen;
 
+import general.DamageTracker;
 import gui.Drawable;
 
 import java.awt.*;
@@ -56,6 +57,7 @@ public final class ScreenManager implements Drawable {
                 this.activeScreen.onScreenLeft.apply(new Screen.ScreenChangedEvent(activeScreen.SCREEN_INDEX));
             lastScreenChange = System.currentTimeMillis();
             this.activeScreen = activeScreen;
+            DamageTracker.getInstance().markAllDirty();
             activeScreen.onScreenEnter.apply();
 		} else throw new IllegalArgumentException("Screen is not listed!");
 	}
@@ -107,6 +109,7 @@ public final class ScreenManager implements Drawable {
                 activeScreen.onScreenLeft.apply(new Screen.ScreenChangedEvent(transitioning.SCREEN_INDEX));
                 activeScreen = transitioning;
                 lastScreenChange = System.currentTimeMillis();
+                DamageTracker.getInstance().markAllDirty();
                 activeScreen.onScreenEnter.apply();
                 transitioning = null;
             } else {
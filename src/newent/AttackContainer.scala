@@ -22,6 +22,12 @@ trait AttackContainer extends BoardPositionable {
 
   private var _attackList = mutable.ArrayBuffer[AttackProgress]()
 
+  /**
+    * The scheduler of the world of this container. The container registers itself there when it takes an attack,
+    * so that its queue is updated at the end of every turn cycle.
+    */
+  protected def attackScheduler: AttackScheduler
+
   /**
     * Called when the attack container recognizes an incoming attack.
     *
@@ -57,6 +63,7 @@ trait AttackContainer extends BoardPositionable {
 
     val progress = new AttackProgress(e)
     _attackList += progress
+    attackScheduler.register(this)
     onAttacked(progress)
 
     if(Main.isDebug) {
@@ -76,21 +83,26 @@ trait AttackContainer extends BoardPositionable {
   def queuedAttacks = _attackList.toList
   def getQueuedAttacks = JavaConversions.seqAsJavaList(queuedAttacks)
 
+  /** Returns true if any attack is on its way to this container. */
+  def hasQueuedAttacks = _attackList.nonEmpty
+
   /**
-    * Should be called at end of every round.
+    * Called by the [[newent.AttackScheduler]] at end of every round, if this container has queued attacks.
     * Updates data related to attack events (timers, damage, etc.)
     */
   final def updateQueues(): Unit = {
-    _attackList foreach { p =>
+    val impacting = mutable.ArrayBuffer[AttackProgress]()
+    // Remove the impacting attacks from the list in one pass
+    _attackList = _attackList filter { p =>
       p.updateProgress()
-      // If the attack has reached the container, do following steps
+      // If the attack has reached the container, it is impacting
       if (p.progress >= 1.0) {
-        // Remove the attack from the list, since it is impacting
-        val removed = _attackList.remove(_attackList.indexOf(p))
-        // And notify the callbacks about this event
-        onImpact(removed.event)
-      }
+        impacting += p
+        false
+      } else true
     }
+    // And notify the callbacks about these events
+    impacting foreach { p => onImpact(p.event) }
   }
 }
 
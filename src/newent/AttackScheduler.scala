@@ -0,0 +1,53 @@
+package newent
+
+import scala.collection.mutable
+
+/**
+  * Keeps track of the attack containers of a world which have queued attacks.
+  *
+  * An attack container registers itself as soon as it takes an attack (see [[newent.AttackContainer#take]]), and it
+  * is dropped again once all of its attacks have impacted. At the end of every turn cycle, only the registered
+  * containers need to update their queues, so the work depends on the number of attacks in flight instead of the
+  * size of the map.
+  *
+  * Access is thread-safe.
+  */
+class AttackScheduler {
+
+  /** The containers with queued attacks, in the order in which they have been attacked first. */
+  private val _active = mutable.LinkedHashSet[AttackContainer]()
+
+  /** Registers the container, which has just taken an attack. */
+  private[newent] def register(container: AttackContainer): Unit = synchronized {
+    _active += container
+  }
+
+  /**
+    * Drops the container, e.g. when an entity leaves the world. Its queued attacks do not progress anymore,
+    * unless it takes another attack.
+    */
+  def unregister(container: AttackContainer): Unit = synchronized {
+    _active -= container
+  }
+
+  /** The containers with queued attacks. */
+  def activeContainers: Seq[AttackContainer] = synchronized { _active.toList }
+
+  /** The number of containers with queued attacks. */
+  def activeCount = synchronized { _active.size }
+
+  /**
+    * Lets the attacks of every registered container progress, so that the arriving ones impact.
+    * Containers without remaining attacks are dropped. Called at the end of every turn cycle.
+    */
+  def updateQueues(): Unit = {
+    for (container <- activeContainers) {
+      container.updateQueues()
+      synchronized {
+        // The container may have been attacked again in the meantime; then it stays registered.
+        if (!container.hasQueuedAttacks) _active -= container
+      }
+    }
+  }
+
+}
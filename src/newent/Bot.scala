@@ -5,10 +5,13 @@ import java.awt.{Color, Graphics2D, Point}
 import comp.Component
 import general.property.{DoubleStaticProperty, IntStaticProperty}
 import general.{Delegate, GameWindow, Main, PfeileContext}
+import geom.functions.FunctionCollection
 import gui.LifeUI
-import newent.pathfinding.{AStarPathfinder, Pathfinder}
+import newent.pathfinding.{LandPathfinder, Pathfinder}
 import player.Life
-import world.{CoastTile, SeaTile, World}
+import world.{MovementProfile, World}
+
+import scala.collection.JavaConverters._
 
 /**
   * The KI is not implemented as a intelligent KI. It is just a basic construct, that is similar to the Player class.
@@ -72,11 +75,30 @@ class Bot(world: World, spawnPoint: Point, name: String)
   override def defaultMovementPoints: Int = 4
 
   /** This is just the same as the player has */
-  override val pathfinderLogic: Pathfinder = new AStarPathfinder(20, {
-    case sea: SeaTile => false
-    case coast: CoastTile => false
-    case anythingElse => true
-  })
+  override def pathfinderLogic: Pathfinder = LandPathfinder
+
+  /**
+    * Moves the bot towards the specified position.
+    * The path is read from the distance map of the world, so bots and troops heading for the same target
+    * (the opponent, a chest, a trader) share one computation per turn cycle.
+    *
+    * @param x The x position of the target.
+    * @param y The y position of the target.
+    */
+  def approach(x: Int, y: Int): Unit = {
+    require(world.terrain.isTileValid(x, y), s"Tile ($x|$y) is not valid.")
+    moveTowards(world.distanceMaps.towards(x, y, MovementProfile.Land))
+  }
+
+  // On its turn, the bot heads for the nearest player of another team.
+  onTurnGet += { () =>
+    val opponents = world.entities.helper.getPlayers.asScala.filterNot(player => belongsTo.team.isInTeam(player))
+    if (opponents.nonEmpty) {
+      val target = opponents.minBy(player => FunctionCollection.distanceWithoutSqrt(getGridX, getGridY, player.getGridX, player.getGridY))
+      approach(target.getGridX, target.getGridY)
+    }
+    onMovesCompleted()
+  }
 
   private var _localVisionPoint = visionMap.grantVision(getGridX, getGridY, 5)
 
@@ -87,7 +109,7 @@ class Bot(world: World, spawnPoint: Point, name: String)
     _localVisionPoint = visionMap.grantVision(getGridX, getGridY, 5)
   }
 
-  override protected def setGridPosition(x: Int, y: Int): Unit = {
+  override protected def setGridPosition(x: Int, y: Int): Unit = visionMap.batch {
     super.setGridPosition(x, y)
     updateLocalVisionPoint()
   }
@@ -20,6 +20,9 @@ abstract class Entity(@NotNull world: World, initX: Int, initY: Int, @Nullable n
 
   def this(world: World, x: Int, y: Int) = this(world, x, y, null)
 
+  /** The attack scheduler of the world, for entities taking attacks. */
+  protected def attackScheduler = getWorld.attackScheduler
+
   /**
     * The name of the entity.
     */
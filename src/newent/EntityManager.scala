@@ -1,21 +1,46 @@
 package newent
 
 import java.util.function._
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.{List => IList, _}
 
 import general.JavaInterop._
-import general.{Delegate, LogFacility, Main}
+import general.{Delegate, DelegateLike, LogFacility, Main}
 import player.shop.trader.Trader
 import world.Tile
 
 import scala.collection.JavaConverters._
 import scala.compat.java8.OptionConverters._
 
-// Self-evident.
-class EntityManager {
+/**
+  * Keeps track of every game object of a world.
+  *
+  * @param width The width of the terrain the game objects are placed on.
+  * @param height The height of the terrain.
+  */
+class EntityManager(width: Int, height: Int) {
 
   private val m_entityList = new ArrayList[GameObject](20)
 
+  /**
+    * Finds the registered game objects by their position. Kept current through the `onLocationChanged`
+    * delegate of every game object.
+    */
+  private val m_spatialIndex = new SpatialIndex(width, height)
+
+  // Registered game objects of the types asked for frequently (e.g. every frame), so that the queries of the
+  // helper do not need to walk through every entity. Iterating them is safe while entities are registered.
+  private val m_players = new CopyOnWriteArrayList[Player]
+  private val m_attackContainers = new CopyOnWriteArrayList[AttackContainer]
+  private val m_traders = new CopyOnWriteArrayList[Trader]
+
+  private val m_playersView = Collections.unmodifiableList[Player](m_players)
+  private val m_attackContainersView = Collections.unmodifiableList[AttackContainer](m_attackContainers)
+  private val m_tradersView = Collections.unmodifiableList[Trader](m_traders)
+
+  /** The handles of the callbacks updating the spatial index, disposed when the game object is unlogged. */
+  private val m_locationHandles = new IdentityHashMap[GameObject, DelegateLike#Handle]
+
   // Self-evident actually.
   val onEntityRegistered = Delegate.create[GameObject]
   val onEntityUnlogged = Delegate.create[GameObject]
@@ -28,6 +53,22 @@ class EntityManager {
   def register(e: GameObject): Unit = {
     m_entityList.synchronized {
       m_entityList.add(e)
+      m_spatialIndex.add(e, e.getGridX, e.getGridY)
+      e match {
+        case p: Player => m_players.add(p)
+        case _ =>
+      }
+      e match {
+        case a: AttackContainer => m_attackContainers.add(a)
+        case _ =>
+      }
+      e match {
+        case t: Trader => m_traders.add(t)
+        case _ =>
+      }
+      m_locationHandles.put(e, e.onLocationChanged += { event =>
+        m_spatialIndex.move(event.entity, event.fromX, event.fromY, event.toX, event.toY)
+      })
       onEntityRegistered(e)
     }
   }
@@ -101,14 +142,7 @@ class EntityManager {
     return true
   }
 
-  def unlog(e: GameObject): Unit = {
-    m_entityList.synchronized {
-      val prev = entityList
-      sortOut { _ == e }
-      if(prev.diff(entityList).nonEmpty)
-        onEntityUnlogged(e)
-    }
-  }
+  def unlog(e: GameObject): Unit = sortOut { _ == e }
 
   /**
     * The listing of all game objects currently registered in the manager.
@@ -118,12 +152,26 @@ class EntityManager {
   def getEntityList: IList[GameObject] = m_entityList.toImmutableList
 
   /**
-    * Removes all entities that satisfy given predicate.
+    * Removes all entities that satisfy given predicate. `onEntityUnlogged` is fired for every removed entity.
     *
     * @param f The filter function. If the function returns `true` for
     *          a given game object, that game object is going to be removed.
     */
-  def sortOut(f: Predicate[GameObject]): Unit = m_entityList removeIf f
+  def sortOut(f: Predicate[GameObject]): Unit = {
+    m_entityList.synchronized {
+      val removed = m_entityList.asScala.filter(f.test)
+      m_entityList removeIf f
+      for (e <- removed) {
+        val handle = m_locationHandles.remove(e)
+        if (handle != null) handle.dispose()
+        m_spatialIndex.remove(e, e.getGridX, e.getGridY)
+        m_players.remove(e)
+        m_attackContainers.remove(e)
+        m_traders.remove(e)
+        onEntityUnlogged(e)
+      }
+    }
+  }
 
   /**
     * Returns the helper object for this entity manager, containing helper methods for easier entity handling.
@@ -137,19 +185,29 @@ class EntityManager {
   object Helper {
 
     /**
-      * Collects exclusively the game objects whose position matches given position or whose shape contains
-      * given coordinate.
+      * Collects exclusively the game objects whose position matches given position.
       */
-    def getEntitiesAt(x: Int, y: Int): IList[GameObject] = getEntityList.parallelStream.filter(entity => entity.getGridX == x && entity.getGridY == y).toImmutableList
+    def getEntitiesAt(x: Int, y: Int): IList[GameObject] = m_spatialIndex.entitiesAt(x, y).toImmutableList
 
     def getEntitiesAt(t: Tile): IList[GameObject] = {
       require(t != null)
-      getEntityList.stream.filter(_.tileLocation == t).toImmutableList
+      getEntitiesAt(t.getGridX, t.getGridY)
     }
 
-    def getPlayers: IList[Player] = {
-      entityList.collect { case p: Player => p }.asJava
-    }
+    /**
+      * Collects the game objects whose distance to given position is at most the radius.
+      */
+    def getEntitiesInRadius(x: Int, y: Int, radius: Int): IList[GameObject] =
+      m_spatialIndex.entitiesInRadius(x, y, radius).toImmutableList
+
+    /**
+      * Collects the game objects inside of the rectangle spanned by both corners (inclusively).
+      */
+    def getEntitiesInRectangle(x1: Int, y1: Int, x2: Int, y2: Int): IList[GameObject] =
+      m_spatialIndex.entitiesInRectangle(x1, y1, x2, y2).toImmutableList
+
+    /** Returns a read-only view on the registered players; it reflects later registrations. */
+    def getPlayers: IList[Player] = m_playersView
 
     /** returns the player. null, if called before ContextCreator#PopulatorStage */
     def getPlayer: Player = player
@@ -176,9 +234,11 @@ class EntityManager {
       maybePlayer.headOption.asJava
     }
 
-    def getAllAttackContainers: IList[AttackContainer] = entityList.collect({ case x: AttackContainer => x }).map(_.asInstanceOf[AttackContainer]).asJava
+    /** Returns a read-only view on the registered attack containers; it reflects later registrations. */
+    def getAllAttackContainers: IList[AttackContainer] = m_attackContainersView
 
-    def getAllTraders: IList[Trader] = entityList.collect { case x: Trader => x }.asJava
+    /** Returns a read-only view on the registered traders; it reflects later registrations. */
+    def getAllTraders: IList[Trader] = m_tradersView
 
   }
 
@@ -131,6 +131,14 @@ public abstract class GameObject extends AbstractDisplayRepresentable implements
         return getWorld();
     }
 
+    /**
+     * Game objects stand on the map, so their components are placed in world coordinates.
+     */
+    @Override
+    public boolean isPlacedInWorld() {
+        return true;
+    }
+
     public Tile getTileLocation() {
         return world.terrain().getTileAt(deltaX, deltaY);
     }
@@ -87,8 +87,8 @@ trait LivingEntity extends Entity with AttackContainer {
     GameScreen.getInstance().setWarningMessage("Dropped Loot: " + name)
   }
 
+  // The attack queue has already been updated by the attack scheduler of the world.
   onTurnCycleEnded += { () =>
-    updateQueues()
     life.updateLife()
   }
 
@@ -1,9 +1,13 @@
 package newent
 
-import java.util.{Collection => ICollection, Deque => IDeque, List => IList, Map => IMap, Queue => IQueue, Set => ISet}
+import java.util.{Optional, Collection => ICollection, Deque => IDeque, List => IList, Map => IMap, Queue => IQueue, Set => ISet}
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.atomic.AtomicReference
+import java.util.function.Consumer
 
+import general.GameLoop
 import geom.functions.FunctionCollection
-import newent.pathfinding.{DefaultPathfinder, Path, Pathfinder}
+import newent.pathfinding.{DefaultPathfinder, DistanceMap, Path, Pathfinder, PathfindingService}
 import world.Tile
 
 import scala.annotation.tailrec
@@ -18,7 +22,7 @@ trait MovableEntity extends Entity with StatisticalEntity {
 
   /**
     * The pathfinder instance for the entity.
-    * Defaults to a standard A-Star pathfinder.
+    * Defaults to a binary heap A-Star pathfinder.
     * Can be overridden for more control over the pathfinding algorithm.
     *
     * @see [[newent.pathfinding.DefaultPathfinder]]
@@ -40,6 +44,11 @@ trait MovableEntity extends Entity with StatisticalEntity {
     */
   private var _currentMovementPoints = defaultMovementPoints
 
+  /**
+    * The path request of the last `requestMoveTowards` call, as long as the entity has not started moving along it.
+    */
+  private val _pendingMove = new AtomicReference[CompletableFuture[Optional[Path]]]()
+
   /**
     * Called when this entity has moved some tiles.
     *
@@ -95,6 +104,61 @@ trait MovableEntity extends Entity with StatisticalEntity {
     moveAlong()
   }
 
+  /**
+    * Tells the entity to move towards the target of given distance map.
+    * Unlike `moveTowards`, no path search is run; the path is read from the distance map.
+    *
+    * @param distanceMap The distance map towards the target.
+    */
+  def moveTowards(distanceMap: DistanceMap): Unit = {
+    _currentPath = distanceMap.pathFrom(getGridX, getGridY)
+    moveAlong()
+  }
+
+  /**
+    * Requests the path to the specified position without blocking the caller.
+    * The path is computed on the workers of the [[newent.pathfinding.PathfindingService]] with the
+    * pathfinder logic of this entity; the entity itself does not move.
+    *
+    * @param x The x position.
+    * @param y The y position.
+    * @return A future completing with the path, or with an empty optional if there is none.
+    */
+  def requestPath(x: Int, y: Int): CompletableFuture[Optional[Path]] = PathfindingService.findPath(this, x, y)
+
+  /**
+    * Tells the entity to move towards the specified position, like `moveTowards`, but without blocking the caller
+    * while the path is searched. The path is requested with `requestPath`; once it is known, the entity moves
+    * along it on the game loop.
+    *
+    * A request that has not been answered yet when the next one is issued is cancelled, so only the latest
+    * target counts.
+    *
+    * @param x The x position.
+    * @param y The y position.
+    */
+  def requestMoveTowards(x: Int, y: Int): Unit = {
+    require(tileLocation.terrain.isTileValid(x, y), s"Tile ($x|$y) is not valid.")
+
+    val request = requestPath(x, y)
+    val superseded = _pendingMove.getAndSet(request)
+    if (superseded ne null) superseded.cancel(false)
+
+    request.thenAccept(new Consumer[Optional[Path]] {
+      override def accept(path: Optional[Path]): Unit = GameLoop.scheduleOnce(() => {
+        if (_pendingMove.compareAndSet(request, null)) {
+          val found = path.asScala
+          // The path starts where the entity has been when it was requested; if the entity has been moved since,
+          // the path is of no use anymore.
+          if (found.forall(p => p.steps.head.x == getGridX && p.steps.head.y == getGridY)) {
+            _currentPath = found
+            moveAlong()
+          } else moveTowards(x, y)
+        }
+      })
+    })
+  }
+
   /**
     * Moves the entity along his current path that has been set by the [[move(Int,Int)]] method.
     *
@@ -11,7 +11,7 @@ import general.property.{DoubleStaticProperty, IntStaticProperty}
 import gui.LifeUI
 import gui.screen.{GameOverScreen, GameScreen}
 import newent.MovableEntity.MovedEvent
-import newent.pathfinding.AStarPathfinder
+import newent.pathfinding.LandPathfinder
 import player.Life
 import world._
 
@@ -98,11 +98,7 @@ class Player(world: World, spawnPoint: Point, name: String) extends Entity(world
 
   //<editor-fold desc="Other overrides">
 
-  override val pathfinderLogic = new AStarPathfinder(20, {
-    case sea: SeaTile => false
-    case coast: CoastTile => false
-    case _ => true
-  })
+  override def pathfinderLogic = LandPathfinder
 
   override def defaultMovementPoints = 4
 
@@ -155,14 +151,20 @@ class Player(world: World, spawnPoint: Point, name: String) extends Entity(world
     GameScreen.getInstance.forcePullFront(this)
     setListenerTransparent(true)
 
+    /** The tile whose shape the component has taken over last. */
+    private var shapeTile: Tile = null
+
     tightenComponentToTile(tileLocation)
 
     def tightenComponentToTile(t: Tile): Unit = {
       val endComponent = t.component
-      setSourceShape(endComponent.getSourceShape)
-      setParent(t.component)
-      setX(endComponent.getX)
-      setY(endComponent.getY)
+      // Called every frame; taking over the shape resets the transformation, so it is only done on a new tile.
+      if (shapeTile ne t) {
+        setSourceShape(endComponent.getSourceShape)
+        setParent(t.component)
+        shapeTile = t
+      }
+      setLocation(endComponent.getX, endComponent.getY)
     }
 
     override def draw(g: Graphics2D): Unit = {
@@ -0,0 +1,109 @@
+package newent
+
+import world.Terrain
+
+/**
+  * Symmetric recursive shadowcasting for line of sight vision.
+  *
+  * The field of view is scanned quadrant by quadrant, row by row outwards from the origin. Tiles that block the sight
+  * (see [[world.TileProperties#blocksSight]]) narrow the scanned sector of the following rows, so tiles in
+  * their shadow are never visited at all. The work thus scales with the visible area instead of the area of the
+  * sight radius.
+  *
+  * The algorithm is symmetric: if a tile A sees a tile B, B sees A as well. Blocking tiles are visible themselves.
+  * Slopes are kept as integer fractions, so the result does not depend on floating point rounding.
+  */
+object ShadowCasting {
+
+  /**
+    * Computes the tiles visible from the origin.
+    *
+    * @param terrain The terrain to look at.
+    * @param originX The x position of the viewer.
+    * @param originY The y position of the viewer.
+    * @param radius The sight radius. Only tiles closer than the radius are visible, like with a circular vision.
+    * @param reveal Called for every visible tile with its index `y * width + x`. Tiles on the diagonals
+    *               between two quadrants are passed twice.
+    */
+  def compute(terrain: Terrain, originX: Int, originY: Int, radius: Int, reveal: Int => Unit): Unit = {
+    if (terrain.isTileValid(originX, originY) && radius > 0) {
+      reveal(terrain.tileIndex(originX, originY))
+      for (quadrant <- Quadrants) {
+        new Scan(terrain, originX, originY, radius, quadrant, reveal).scan(1, -1, 1, 1, 1)
+      }
+    }
+  }
+
+  /**
+    * One of the four quadrants, given as the direction of the rows (depth) and the direction along a row (column).
+    */
+  private case class Quadrant(depthX: Int, depthY: Int, columnX: Int, columnY: Int)
+
+  private val Quadrants = Seq(
+    Quadrant(0, -1, 1, 0), // north
+    Quadrant(1, 0, 0, 1),  // east
+    Quadrant(0, 1, 1, 0),  // south
+    Quadrant(-1, 0, 0, 1)  // west
+  )
+
+  private class Scan(terrain: Terrain, originX: Int, originY: Int, radius: Int, quadrant: Quadrant, reveal: Int => Unit) {
+
+    private val radiusSq = radius * radius
+
+    private def tileX(depth: Int, column: Int) = originX + quadrant.depthX * depth + quadrant.columnX * column
+    private def tileY(depth: Int, column: Int) = originY + quadrant.depthY * depth + quadrant.columnY * column
+
+    /** Tiles outside of the terrain block the sight. */
+    private def blocks(depth: Int, column: Int) = {
+      val x = tileX(depth, column)
+      val y = tileY(depth, column)
+      !terrain.isTileValid(x, y) || terrain.tileAt(x, y).tileProperties.blocksSight
+    }
+
+    /**
+      * Scans a row and, recursively, the rows behind it.
+      * The sector of the row lies between the slopes `startNum / startDen` and `endNum / endDen`.
+      */
+    def scan(depth: Int, startNum0: Int, startDen0: Int, endNum: Int, endDen: Int): Unit = {
+      if (depth <= radius) {
+        var startNum = startNum0
+        var startDen = startDen0
+
+        // The columns covered by the sector: round half up for the start, round half down for the end.
+        val minColumn = Math.floorDiv(2 * depth * startNum + startDen, 2 * startDen)
+        val maxColumn = -Math.floorDiv(-(2 * depth * endNum - endDen), 2 * endDen)
+
+        var previousBlocks = false
+        var hasPrevious = false
+        var column = minColumn
+        while (column <= maxColumn) {
+          val blocking = blocks(depth, column)
+          val symmetric = column.toLong * startDen >= depth.toLong * startNum && column.toLong * endDen <= depth.toLong * endNum
+
+          if ((blocking || symmetric) && column * column + depth * depth < radiusSq) {
+            val x = tileX(depth, column)
+            val y = tileY(depth, column)
+            if (terrain.isTileValid(x, y)) reveal(terrain.tileIndex(x, y))
+          }
+
+          if (hasPrevious && previousBlocks && !blocking) {
+            // The sector continues at the left edge of this tile.
+            startNum = 2 * column - 1
+            startDen = 2 * depth
+          }
+          if (hasPrevious && !previousBlocks && blocking) {
+            // The sector of the next row ends at the left edge of this tile.
+            scan(depth + 1, startNum, startDen, 2 * column - 1, 2 * depth)
+          }
+
+          previousBlocks = blocking
+          hasPrevious = true
+          column += 1
+        }
+
+        if (hasPrevious && !previousBlocks) scan(depth + 1, startNum, startDen, endNum, endDen)
+      }
+    }
+  }
+
+}
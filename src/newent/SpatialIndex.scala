@@ -0,0 +1,146 @@
+package newent
+
+import java.util.{ArrayList, List => IList}
+
+/**
+  * Grid of buckets that finds game objects by their position.
+  *
+  * Every tile keeps the game objects standing on it. Additionally, the tiles are grouped into square blocks
+  * that count the objects inside of them, so area queries skip empty blocks without looking at their tiles.
+  * Looking up a tile takes time proportional to the number of objects on it; area queries take time proportional
+  * to the number of objects found plus the number of occupied blocks overlapping the area.
+  *
+  * Game objects are indexed by their grid position, just like `getGridX` and `getGridY` report it. Objects outside
+  * of the bounds are not indexed. The index is thread-safe.
+  *
+  * @param width The width of the terrain.
+  * @param height The height of the terrain.
+  * @param blockSize The width and height of a block in tiles.
+  */
+class SpatialIndex(val width: Int, val height: Int, val blockSize: Int) {
+
+  require(width > 0 && height > 0 && blockSize > 0)
+
+  def this(width: Int, height: Int) = this(width, height, SpatialIndex.DefaultBlockSize)
+
+  /** The game objects of each tile, indexed by `y * width + x`. Empty tiles have no list. */
+  private val _cells = new Array[ArrayList[GameObject]](width * height)
+
+  private val _blocksX = (width + blockSize - 1) / blockSize
+  private val _blocksY = (height + blockSize - 1) / blockSize
+
+  /** The number of game objects in each block. */
+  private val _blockCounts = new Array[Int](_blocksX * _blocksY)
+
+  private var _size = 0
+
+  /** The number of indexed game objects. */
+  def size = synchronized { _size }
+
+  private def isInBounds(x: Int, y: Int) = x >= 0 && x < width && y >= 0 && y < height
+
+  private def blockOf(x: Int, y: Int) = (y / blockSize) * _blocksX + x / blockSize
+
+  /** Adds the game object at given position. */
+  def add(e: GameObject, x: Int, y: Int): Unit = synchronized {
+    if (isInBounds(x, y)) {
+      val index = y * width + x
+      if (_cells(index) == null) _cells(index) = new ArrayList[GameObject](2)
+      _cells(index).add(e)
+      _blockCounts(blockOf(x, y)) += 1
+      _size += 1
+    }
+  }
+
+  /** Removes the game object from given position. Nothing happens if the object is not indexed there. */
+  def remove(e: GameObject, x: Int, y: Int): Unit = synchronized {
+    if (isInBounds(x, y)) {
+      val index = y * width + x
+      val cell = _cells(index)
+      if (cell != null && cell.remove(e)) {
+        if (cell.isEmpty) _cells(index) = null
+        _blockCounts(blockOf(x, y)) -= 1
+        _size -= 1
+      }
+    }
+  }
+
+  /** Moves the game object from one position to another. */
+  def move(e: GameObject, fromX: Int, fromY: Int, toX: Int, toY: Int): Unit = synchronized {
+    remove(e, fromX, fromY)
+    add(e, toX, toY)
+  }
+
+  /** Returns the game objects at given position. */
+  def entitiesAt(x: Int, y: Int): IList[GameObject] = synchronized {
+    if (!isInBounds(x, y) || _cells(y * width + x) == null) new ArrayList[GameObject](0)
+    else new ArrayList[GameObject](_cells(y * width + x))
+  }
+
+  /**
+    * Returns the game objects inside of the rectangle. Both corners are included; the rectangle is clipped
+    * to the bounds of the index.
+    */
+  def entitiesInRectangle(x1: Int, y1: Int, x2: Int, y2: Int): IList[GameObject] = {
+    val result = new ArrayList[GameObject]
+    foreachIn(math.min(x1, x2), math.min(y1, y2), math.max(x1, x2), math.max(y1, y2)) { (_, _, cell) =>
+      result.addAll(cell)
+    }
+    result
+  }
+
+  /** Returns the game objects whose distance to given position is at most the radius. */
+  def entitiesInRadius(x: Int, y: Int, radius: Int): IList[GameObject] = {
+    val result = new ArrayList[GameObject]
+    if (radius >= 0) {
+      val radiusSq = radius.toLong * radius
+      foreachIn(x - radius, y - radius, x + radius, y + radius) { (cx, cy, cell) =>
+        val dx = (cx - x).toLong
+        val dy = (cy - y).toLong
+        if (dx * dx + dy * dy <= radiusSq) result.addAll(cell)
+      }
+    }
+    result
+  }
+
+  /** Visits every occupied tile inside of the rectangle, skipping blocks without any game object. */
+  private def foreachIn(minX: Int, minY: Int, maxX: Int, maxY: Int)(f: (Int, Int, ArrayList[GameObject]) => Unit): Unit = synchronized {
+    val fromX = math.max(0, minX)
+    val fromY = math.max(0, minY)
+    val toX = math.min(width - 1, maxX)
+    val toY = math.min(height - 1, maxY)
+
+    if (fromX <= toX && fromY <= toY) {
+      var blockY = fromY / blockSize
+      while (blockY <= toY / blockSize) {
+        var blockX = fromX / blockSize
+        while (blockX <= toX / blockSize) {
+          if (_blockCounts(blockY * _blocksX + blockX) > 0) {
+            val endY = math.min(toY, blockY * blockSize + blockSize - 1)
+            val endX = math.min(toX, blockX * blockSize + blockSize - 1)
+            var y = math.max(fromY, blockY * blockSize)
+            while (y <= endY) {
+              var x = math.max(fromX, blockX * blockSize)
+              while (x <= endX) {
+                val cell = _cells(y * width + x)
+                if (cell != null) f(x, y, cell)
+                x += 1
+              }
+              y += 1
+            }
+          }
+          blockX += 1
+        }
+        blockY += 1
+      }
+    }
+  }
+
+}
+
+object SpatialIndex {
+
+  /** The block size used if none is given. */
+  val DefaultBlockSize = 8
+
+}
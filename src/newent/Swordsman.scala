@@ -6,9 +6,9 @@ import javax.imageio.ImageIO
 
 import comp.ImageComponent
 import gui.screen.GameScreen
-import newent.pathfinding.AStarPathfinder
+import newent.pathfinding.CoastalPathfinder
 import player.Life
-import world.{SeaTile, World}
+import world.World
 
 /**
   * A swordsman. Ditto.
@@ -24,7 +24,7 @@ class Swordsman(world: World, spawnPosition: Point, team: Team)
 
   // The pathfinder logic. The swordsman looks up the path up to 20 tiles and is
   // not allowed to walk on sea tiles.
-  override val pathfinderLogic = new AStarPathfinder(20, t => !t.isInstanceOf[SeaTile])
+  override def pathfinderLogic = CoastalPathfinder
 
   /** The default movement points that the entity has. */
   override def defaultMovementPoints = 3
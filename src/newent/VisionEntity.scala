@@ -71,7 +71,11 @@ trait VisionEntity extends Entity {
     m_selfVisionPoint = Some(visionMap.grantVision(gridX, gridY, visionRadius))
   }
 
-  override protected def setGridPosition(x: Int, y: Int) = {
+  /**
+    * Moves the entity and updates its vision. The vision changes of one location change are published
+    * together, as one snapshot of the vision map.
+    */
+  override protected def setGridPosition(x: Int, y: Int) = visionMap.batch {
     super.setGridPosition(x, y)
     refreshSelfTracking(x, y)
   }
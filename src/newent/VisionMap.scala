@@ -2,92 +2,170 @@ package newent
 
 import comp.Circle
 import general.Delegate
-import newent.VisionMap.{VisionEntry, VisionPromise}
+import newent.VisionMap._
 import player.BoardPositionable
-import world.Tile
 
+import scala.beans.BeanProperty
 import scala.collection.JavaConverters._
-import scala.collection.mutable
-import scala.concurrent.ExecutionContext.Implicits.global
-import scala.concurrent.Future
 
 /**
   * Represents the parts of the map that have been revealed, are visible or are not even discovered.
   *
+  * The vision status of every tile is kept in a byte array indexed by `y * width + x`. Every tile also counts
+  * the vision promises that currently see it, so granting or releasing a promise only touches the tiles seen
+  * by the promise.
+  *
+  * Changes are not visible to readers right away. Once a batch of changes is complete (see `batch`), an
+  * immutable [[newent.VisionSnapshot]] is published and `onPublished` is called. Every query of this class
+  * is answered from the last published snapshot, so readers never see half-updated vision.
+  *
   * @constructor Creates a new vision map.
   * @param entity The entity to tie the vision map to.
   */
 class VisionMap(val entity: VisionEntity) {
 
-  /** The vision entries, where everything about vision is saved, inaccessible from the tile classes. */
-  private val _entries = {
-    val result = mutable.MutableList[VisionEntry]()
-    val terrain = entity.tileLocation.terrain
-    for (y <- 0 until terrain.height) {
-      for (x <- 0 until terrain.width) {
-        result += new VisionEntry(terrain.tileAt(x, y))
-      }
-    }
-    result.toList
-  }
+  private val _width = entity.tileLocation.terrain.width
+  private val _height = entity.tileLocation.terrain.height
+
+  /** The vision status of every tile, saved as ordinal of [[newent.VisionStatus]]. */
+  private val _status = Array.fill[Byte](_width * _height)(HiddenOrdinal)
+
+  /** The number of granted vision promises that see the tile. */
+  private val _visionCounts = new Array[Int](_width * _height)
+
+  /** How many batches are currently open. Changes are published when the outermost batch is closed. */
+  private var _batchDepth = 0
+
+  /** True if the vision has changed since the last publication. */
+  private var _changed = false
+
+  @volatile private var _snapshot = new VisionSnapshot(0, _width, _height, _status.clone())
 
-  private var _grantedVisionObjects = mutable.MutableList[VisionPromise]()
+  /**
+    * Called with the new snapshot every time the changed vision has been published.
+    */
+  val onPublished = Delegate.create[VisionSnapshot]
+
+  /** The last published state of the vision map. */
+  def snapshot = _snapshot
+  def getSnapshot = snapshot
+
+  /**
+    * If true, promises granted from now on see only the tiles in their line of sight (computed by
+    * [[newent.ShadowCasting]] with the opacity of the tiles) instead of every tile inside of their radius.
+    */
+  @BeanProperty var lineOfSight = false
 
   /** Returns a vision object that can be "released". */
   def grantVision(x: Int, y: Int, radius: Int): VisionPromise = {
-    val grantedVision = new VisionPromise(x, y, radius)
-    // When the vision is released, I need to keep a way of removing the vision object from the map
+    val grantedVision = new VisionPromise(x, y, radius, lineOfSight)
+    // When the vision is released, the tiles seen by the promise lose one vision point.
     grantedVision._onVisionReleased += { () =>
-      // Remove the constructed promise when the vision is going to be released.
-      _grantedVisionObjects = _grantedVisionObjects.filterNot(_ == grantedVision)
-      // Recalculate the vision map, since the vision objects have changed.
-      updateEntries()
+      batch(updateEntries(grantedVision, -1))
     }
-    _grantedVisionObjects += grantedVision
-    updateEntries()
+    batch(updateEntries(grantedVision, 1))
     grantedVision
   }
 
+  /**
+    * Executes the code and publishes the vision changes made by it as one snapshot afterwards.
+    * Batches may be nested; only the outermost batch publishes.
+    *
+    * @param changes The code changing the vision.
+    */
+  def batch[A](changes: => A): A = {
+    synchronized { _batchDepth += 1 }
+    try changes
+    finally {
+      val publishNow = synchronized {
+        _batchDepth -= 1
+        _batchDepth == 0 && _changed
+      }
+      if (publishNow) publish()
+    }
+  }
+
+  /** Publishes a new snapshot if the vision has changed since the last one. */
+  private def publish(): Unit = {
+    val published = synchronized {
+      if (!_changed) null
+      else {
+        _changed = false
+        _snapshot = new VisionSnapshot(_snapshot.version + 1, _width, _height, _status.clone())
+        _snapshot
+      }
+    }
+    if (published ne null) onPublished(published)
+  }
+
   /** Returns true if the specified tile on these coordinates is visible. */
-  def isVisible(x: Int, y: Int): Boolean = visionStatusOf(x, y) eq VisionStatus.Visible
+  def isVisible(x: Int, y: Int): Boolean = _snapshot.isVisible(x, y)
 
   /** Returns the current vision status of any board positionable object. */
-  def visionStatusOf(p: BoardPositionable): VisionStatus = visionStatusOf(p.getGridX, p.getGridY)
+  def visionStatusOf(p: BoardPositionable): VisionStatus = _snapshot.visionStatusOf(p)
 
   /** Returns the current vision status of the tile. */
-  def visionStatusOf(x: Int, y: Int): VisionStatus = {
-    require(entity.world.terrain.isTileValid(x, y))
-    val findResult = _entries.find { e => e.tile.getGridX == x && e.tile.getGridY == y }.get
-    findResult.visionStatus
-  }
+  def visionStatusOf(x: Int, y: Int): VisionStatus = _snapshot.visionStatusOf(x, y)
 
   /**
     * Collects all tiles from this vision map that are visible to the entity.
     */
-  def visibleTiles = _entries.filter(_.visionStatus == VisionStatus.Visible).map(_.tile)
+  def visibleTiles = {
+    val terrain = entity.world.terrain
+    val snapshot = _snapshot
+    for (y <- (0 until _height).toList; x <- 0 until _width if snapshot.isVisible(x, y))
+      yield terrain.tileAt(x, y)
+  }
   def getVisibleTiles = visibleTiles.asJava
 
-  /** Updates the vision entries based on the vision promises that have been granted. */
-  private def updateEntries(): Unit = {
-    // Reset every visibility so that no tile has the status "Visible"
-    makeNonVisible()
-    _grantedVisionObjects foreach { v =>
-      _entries foreach { e =>
-        Future {
-          if (v.circle.contains(e.tile.getGridX, e.tile.getGridY)) {
-            e.visionStatus = VisionStatus.Visible
-          }
+  /**
+    * Determines the tiles seen by a promise: either every tile inside of its circle (visiting the bounding box
+    * of the circle only) or, with line of sight vision, the tiles found by [[newent.ShadowCasting]].
+    */
+  private def tilesSeenBy(promise: VisionPromise): Array[Int] = {
+    val circle = promise.circle
+    val seen = new java.util.BitSet(_width * _height)
+
+    if (promise.lineOfSight) {
+      ShadowCasting.compute(entity.world.terrain, circle.getX.toInt, circle.getY.toInt, circle.getRadius.toInt, seen.set(_))
+    } else {
+      val minX = math.max(0, math.floor(circle.getX - circle.getRadius).toInt)
+      val maxX = math.min(_width - 1, math.ceil(circle.getX + circle.getRadius).toInt)
+      val minY = math.max(0, math.floor(circle.getY - circle.getRadius).toInt)
+      val maxY = math.min(_height - 1, math.ceil(circle.getY + circle.getRadius).toInt)
+
+      var y = minY
+      while (y <= maxY) {
+        var x = minX
+        while (x <= maxX) {
+          if (circle.contains(x, y)) seen.set(y * _width + x)
+          x += 1
         }
+        y += 1
       }
     }
+
+    seen.stream().toArray
   }
 
-  /** Clears every tile from being "visible" to more respective statuses. */
-  private def makeNonVisible(): Unit = {
-    _entries foreach { e =>
-      // Every tile that has been seen at least once is "revealed"; it is not in the fog of war
-      // anymore.
-      if (e.visionStatus == VisionStatus.Visible) e.visionStatus = VisionStatus.Revealed
+  /**
+    * Adds or removes the vision of a promise.
+    *
+    * Only the tiles seen by the promise are visited; they are determined once, when the promise is granted,
+    * so releasing the promise takes back exactly the vision it has granted. A tile is visible as long as at
+    * least one promise sees it; once the last one is released, the tile stays revealed.
+    *
+    * @param promise The promise that has been granted or released.
+    * @param change `1` if the promise has been granted, `-1` if it has been released.
+    */
+  private def updateEntries(promise: VisionPromise, change: Int): Unit = synchronized {
+    if (promise.tiles == null) promise.tiles = tilesSeenBy(promise)
+
+    for (index <- promise.tiles) {
+      _visionCounts(index) += change
+      // Every tile that has been seen at least once is "revealed"; it is not in the fog of war anymore.
+      _status(index) = if (_visionCounts(index) > 0) VisibleOrdinal else RevealedOrdinal
+      _changed = true
     }
   }
 
@@ -95,16 +173,12 @@ class VisionMap(val entity: VisionEntity) {
 
 object VisionMap {
 
-  /** Internal class for handling vision of tiles. */
-  private class VisionEntry(val tile: Tile) {
-
-    /** The current vision status. */
-    var visionStatus = VisionStatus.Hidden
-
-  }
+  private val VisibleOrdinal = VisionStatus.Visible.ordinal.toByte
+  private val RevealedOrdinal = VisionStatus.Revealed.ordinal.toByte
+  private val HiddenOrdinal = VisionStatus.Hidden.ordinal.toByte
 
   /** Represents a vision point in the map. Just like a "ward". */
-  class VisionPromise private[VisionMap] (x: Int, y: Int, radius: Int) {
+  class VisionPromise private[VisionMap] (x: Int, y: Int, radius: Int, private[VisionMap] val lineOfSight: Boolean) {
 
     /** Circle for representing the geometry of the vision. */
     private[VisionMap] val circle = {
@@ -115,17 +189,25 @@ object VisionMap {
       ret
     }
 
+    /** The indices of the tiles seen by this promise; determined when the promise is granted. */
+    private[VisionMap] var tiles: Array[Int] = null
+
     /** Called when the vision has been released on this promise. */
     private[VisionMap] val _onVisionReleased = Delegate.createZeroArity
 
+    private var _released = false
+
     /**
       * Releases the promise from the vision, meaning that the vision point is no longer
-      * meaningful for the vision map.
+      * meaningful for the vision map. Releasing a promise more than once has no effect.
       */
-    def releaseVision() = {
+    def releaseVision() = synchronized {
       // I know in advance that the VisionMap class registered a callback on the delegate for
       // deleting this promise out of the vision.
-      _onVisionReleased.apply()
+      if (!_released) {
+        _released = true
+        _onVisionReleased.apply()
+      }
     }
   }
 }
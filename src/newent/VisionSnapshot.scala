@@ -0,0 +1,42 @@
+package newent
+
+import player.BoardPositionable
+
+/**
+  * Immutable state of a vision map at the time it has been published.
+  *
+  * Readers that need a consistent view on the vision (e.g. the lists of visible loots and traders) work on
+  * a snapshot, so they never see a vision map that is being updated at the same time.
+  *
+  * @param version The number of the publication; increases with every published snapshot of a vision map.
+  * @param width The width of the terrain.
+  * @param height The height of the terrain.
+  * @param statuses The vision status of every tile, as ordinal of [[newent.VisionStatus]], indexed by `y * width + x`.
+  *                 The array is owned by the snapshot and must not be changed afterwards.
+  */
+final class VisionSnapshot private[newent](val version: Long, val width: Int, val height: Int, statuses: Array[Byte]) {
+
+  require(statuses.length == width * height)
+
+  /** Returns the vision status of the tile. */
+  def visionStatusOf(x: Int, y: Int): VisionStatus = {
+    require(x >= 0 && x < width && y >= 0 && y < height, s"($x|$y) is not on the map")
+    VisionSnapshot.Statuses(statuses(y * width + x))
+  }
+
+  /** Returns the vision status of any board positionable object. */
+  def visionStatusOf(p: BoardPositionable): VisionStatus = visionStatusOf(p.getGridX, p.getGridY)
+
+  /** Returns true if the specified tile on these coordinates is visible. */
+  def isVisible(x: Int, y: Int): Boolean = visionStatusOf(x, y) eq VisionStatus.Visible
+
+  override def toString = s"VisionSnapshot(version=$version, ${width}x$height)"
+
+}
+
+object VisionSnapshot {
+
+  /** Every vision status, indexed by ordinal. */
+  private val Statuses = VisionStatus.values()
+
+}
@@ -0,0 +1,165 @@
+package newent.pathfinding
+
+import newent.MovableEntity
+import world.{MovementProfile, Terrain}
+
+/**
+  * A-Star pathfinder working on primitive node arrays instead of node objects.
+  *
+  * The node data (cost, parent, depth, state) lives in a [[newent.pathfinding.SearchSpace]] that is allocated
+  * once per terrain size and thread and reused by every following search of that thread. Consequently, searches
+  * of different threads run in parallel without any locking. The open set is an
+  * [[newent.pathfinding.IndexedBinaryHeap]], so picking the next node and updating a node with a cheaper way
+  * both run in logarithmic time, and the closed set check is a simple array lookup.
+  * Movement costs and passability are read from the cost grid and the passability bitmaps of the terrain,
+  * so no tile object is touched while searching.
+  *
+  * The first step of a returned path is the start position (with zero movement points), every following step
+  * carries the movement points required to enter its tile.
+  *
+  * @param maxSearchDepth The number of steps up to which paths are searched first. Nodes that lie deeper are
+  *                       only expanded once no shallower node is left, like the list based implementation did.
+  * @param profile The movement profile deciding which tiles may be entered. Tiles that cannot be entered
+  *                are never part of a path.
+  */
+class BinaryHeapAStarPathfinder(val maxSearchDepth: Int, val profile: MovementProfile) extends Pathfinder {
+
+  import BinaryHeapAStarPathfinder._
+  import SearchSpace.{Closed, Unvisited}
+
+  require(maxSearchDepth > 0, s"maxSearchDepth must be positive: $maxSearchDepth")
+
+  /** Scratch memory of the terrain size searched last by the current thread. */
+  private val _searchSpaces = new ThreadLocal[SearchSpace]
+
+  private def searchSpaceFor(terrain: Terrain): SearchSpace = {
+    val cached = _searchSpaces.get
+    if (cached == null || !cached.fits(terrain.width, terrain.height)) {
+      val space = new SearchSpace(terrain.width, terrain.height)
+      _searchSpaces.set(space)
+      space
+    } else cached
+  }
+
+  /** Finds a path according to the implemented logic.
+    *
+    * @param moveable The moveable entity for which to find the path.
+    * @param tx The target x position.
+    * @param ty The target y position.
+    * @return An optional path.
+    */
+  override def findPath(moveable: MovableEntity, tx: Int, ty: Int): Option[Path] = {
+    val terrain = moveable.tileLocation.terrain
+    val sx = moveable.getGridX
+    val sy = moveable.getGridY
+
+    if (!terrain.isTileValid(tx, ty) || (sx == tx && sy == ty)) None
+    else {
+      val space = searchSpaceFor(terrain)
+      try search(terrain, space, sx, sy, tx, ty)
+      finally space.reset()
+    }
+  }
+
+  private def search(terrain: Terrain, space: SearchSpace, sx: Int, sy: Int, tx: Int, ty: Int): Option[Path] = {
+    val start = space.index(sx, sy)
+    val target = space.index(tx, ty)
+    val open = space.open
+
+    space.discover(start, 0, -1, 0)
+    open.insert(start, heuristic(sx, sy, tx, ty))
+
+    var found = false
+    while (!found && open.nonEmpty) {
+      val current = open.poll()
+
+      if (current == target) found = true
+      else {
+        space.state(current) = Closed
+
+        val currentDepth = space.depth(current)
+        val cx = space.xOf(current)
+        val cy = space.yOf(current)
+
+        var dx = -1
+        while (dx <= 1) {
+          var dy = -1
+          while (dy <= 1) {
+            if (dx != 0 || dy != 0) {
+              relax(terrain, space, current, currentDepth, cx + dx, cy + dy, dx != 0 && dy != 0, tx, ty)
+            }
+            dy += 1
+          }
+          dx += 1
+        }
+      }
+    }
+
+    if (found) Some(reconstruct(terrain, space, start, target)) else None
+  }
+
+  /**
+    * Evaluates the neighbor (nx|ny) of the current node as next step.
+    */
+  private def relax(terrain: Terrain, space: SearchSpace, current: Int, currentDepth: Int,
+                    nx: Int, ny: Int, isDiagonal: Boolean, tx: Int, ty: Int): Unit = {
+    if (terrain.isTileValid(nx, ny)) {
+      val neighbor = space.index(nx, ny)
+      val neighborState = space.state(neighbor)
+
+      if (neighborState != Closed && terrain.isPassable(neighbor, profile)) {
+        // Straight steps are preferred over diagonal steps of the same movement cost.
+        val g = space.gCost(current) + terrain.movementCost(neighbor) * CostScale + (if (isDiagonal) DiagonalPenalty else 0)
+
+        if (neighborState == Unvisited) {
+          space.discover(neighbor, g, current, currentDepth + 1)
+          space.open.insert(neighbor, priority(g, currentDepth + 1, nx, ny, tx, ty))
+        } else if (g < space.gCost(neighbor)) {
+          space.gCost(neighbor) = g
+          space.parent(neighbor) = current
+          space.depth(neighbor) = currentDepth + 1
+          space.open.decreaseKey(neighbor, priority(g, currentDepth + 1, nx, ny, tx, ty))
+        }
+      }
+    }
+  }
+
+  /** The key by which a node is ordered in the open set. */
+  private def priority(g: Int, depth: Int, x: Int, y: Int, tx: Int, ty: Int): Int = {
+    val f = g + heuristic(x, y, tx, ty)
+    if (depth >= maxSearchDepth) f + DepthPenalty else f
+  }
+
+  private def reconstruct(terrain: Terrain, space: SearchSpace, start: Int, target: Int): Path = {
+    var steps = List[Path.Step]()
+    var node = target
+    while (node != start) {
+      steps = Path.Step(space.xOf(node), space.yOf(node), terrain.movementCost(node)) :: steps
+      node = space.parent(node)
+    }
+
+    // Prepend the starting position (with required movement points set as zero).
+    Path(Path.Step(space.xOf(start), space.yOf(start), 0) :: steps)
+  }
+
+}
+
+object BinaryHeapAStarPathfinder {
+
+  /** Factor by which movement points are scaled to leave room for the diagonal tie breaker. */
+  private[pathfinding] val CostScale = 1000
+
+  /** Additional cost of a diagonal step, so that straight paths win ties. */
+  private[pathfinding] val DiagonalPenalty = 1
+
+  /** Added to the key of nodes beyond the search depth, so that they are polled after every shallower node. */
+  private[pathfinding] val DepthPenalty = 1 << 29
+
+  /**
+    * Estimated cost from (x|y) to (tx|ty). Every step costs at least one movement point and
+    * a diagonal step covers both axes at once, so the chebyshev distance never overestimates.
+    */
+  private[pathfinding] def heuristic(x: Int, y: Int, tx: Int, ty: Int): Int =
+    math.max(math.abs(tx - x), math.abs(ty - y)) * CostScale
+
+}
@@ -0,0 +1,317 @@
+package newent.pathfinding
+
+import java.util.BitSet
+import java.util.concurrent.locks.ReentrantReadWriteLock
+
+import world.{MovementProfile, Terrain}
+
+import scala.collection.mutable
+
+/**
+  * Abstract graph of a terrain for hierarchical pathfinding.
+  *
+  * The terrain is divided into square clusters. Wherever the border between two neighboring clusters can be
+  * crossed, transitions are placed: pairs of tiles, one on each side of the border, which become nodes of the
+  * abstract graph. Nodes of the same cluster are connected by edges carrying the cost of the cheapest way
+  * between them inside of the cluster; these intra cluster costs are precomputed.
+  *
+  * When a tile of the terrain changes, only its cluster and the clusters around it are marked as dirty. Dirty
+  * clusters are rebuilt right before the next search, the rest of the graph is kept.
+  *
+  * Searches may run concurrently (see `readLock`); rebuilding takes the write lock.
+  *
+  * @param terrain The terrain to build the graph for.
+  * @param profile The movement profile deciding which tiles may be entered.
+  * @param clusterSize The width and height of a cluster in tiles.
+  */
+private[pathfinding] final class ClusterGraph(val terrain: Terrain, val profile: MovementProfile, val clusterSize: Int) {
+
+  import BinaryHeapAStarPathfinder.{CostScale, DiagonalPenalty}
+  import ClusterGraph._
+  import SearchSpace.{Closed, Unvisited}
+
+  require(clusterSize > 1, s"Cluster size must be greater than 1: $clusterSize")
+
+  val clustersX = (terrain.width + clusterSize - 1) / clusterSize
+  val clustersY = (terrain.height + clusterSize - 1) / clusterSize
+
+  val clusters = Array.tabulate(clustersX * clustersY) { index =>
+    val cx = index % clustersX
+    val cy = index / clustersX
+    new Cluster(cx, cy, cx * clusterSize, cy * clusterSize,
+      math.min(terrain.width, (cx + 1) * clusterSize) - 1, math.min(terrain.height, (cy + 1) * clusterSize) - 1)
+  }
+
+  /** The slot of every tile in the node list of its cluster, or -1 if the tile is no node. */
+  private val _slots = Array.fill(terrain.width * terrain.height)(-1)
+
+  /** Clusters that have to be rebuilt before the next search. Every cluster is dirty initially. */
+  private val _dirty = {
+    val ret = new BitSet(clusters.length)
+    ret.set(0, clusters.length)
+    ret
+  }
+
+  private val _lock = new ReentrantReadWriteLock
+
+  private val _tileChangedHandle = terrain.onTileChanged += { tile =>
+    markDirty(tile.getGridX, tile.getGridY)
+  }
+
+  /** Stops listening to the terrain. The graph must not be used anymore afterwards. */
+  def dispose(): Unit = _tileChangedHandle.dispose()
+
+  def clusterAt(x: Int, y: Int) = clusters((y / clusterSize) * clustersX + x / clusterSize)
+  def clusterOf(index: Int) = clusterAt(index % terrain.width, index / terrain.width)
+
+  /** Returns the slot of the tile in the node list of its cluster, or -1 if the tile is no node. */
+  def slotOf(index: Int) = _slots(index)
+
+  /** Marks the cluster of (x|y) as dirty. */
+  def markDirty(x: Int, y: Int): Unit = _dirty.synchronized {
+    _dirty.set((y / clusterSize) * clustersX + x / clusterSize)
+  }
+
+  /** The lock that searches on the graph have to hold. Acquire it only after `update`. */
+  def readLock = _lock.readLock
+
+  /**
+    * Rebuilds every dirty cluster and every cluster bordering on a dirty one.
+    *
+    * @param space Scratch memory of the calling thread, matching the size of the terrain.
+    */
+  def update(space: SearchSpace): Unit = {
+    val dirty = _dirty.synchronized {
+      if (_dirty.isEmpty) null
+      else {
+        val ret = _dirty.clone().asInstanceOf[BitSet]
+        _dirty.clear()
+        ret
+      }
+    }
+
+    if (dirty ne null) {
+      // The entrances on the borders of a dirty cluster change for its neighbors as well.
+      val affected = new BitSet(clusters.length)
+      var i = dirty.nextSetBit(0)
+      while (i >= 0) {
+        val cluster = clusters(i)
+        for (neighbor <- neighborsOf(cluster)) affected.set(neighbor.cx + neighbor.cy * clustersX)
+        affected.set(i)
+        i = dirty.nextSetBit(i + 1)
+      }
+
+      _lock.writeLock.lock()
+      try {
+        var j = affected.nextSetBit(0)
+        while (j >= 0) {
+          rebuild(clusters(j), space)
+          j = affected.nextSetBit(j + 1)
+        }
+      } finally _lock.writeLock.unlock()
+    }
+  }
+
+  private def neighborsOf(cluster: Cluster): Seq[Cluster] = for {
+    dx <- -1 to 1
+    dy <- -1 to 1
+    if dx != 0 || dy != 0
+    nx = cluster.cx + dx
+    ny = cluster.cy + dy
+    if nx >= 0 && nx < clustersX && ny >= 0 && ny < clustersY
+  } yield clusters(ny * clustersX + nx)
+
+  private def rebuild(cluster: Cluster, space: SearchSpace): Unit = {
+    for (node <- cluster.nodes) _slots(node) = -1
+
+    // All transitions leading out of the cluster, as (own tile, foreign tile).
+    val transitions = mutable.ArrayBuffer[(Int, Int)]()
+    for (neighbor <- neighborsOf(cluster)) transitions ++= transitionsBetween(cluster, neighbor)
+
+    val nodes = transitions.map(_._1).distinct.toArray
+    for (slot <- nodes.indices) _slots(nodes(slot)) = slot
+
+    cluster.nodes = nodes
+    cluster.exits = nodes.map(node => transitions.collect({ case (`node`, foreign) => foreign }).toArray)
+    cluster.costs = nodes.map { node =>
+      searchWithin(space, cluster, node, reverse = false)
+      val costs = nodes.map(other => if (other == node) 0 else costIn(space, other))
+      space.reset()
+      costs
+    }
+  }
+
+  /**
+    * Computes the transitions between two neighboring clusters, oriented from `a` to `b`.
+    * Both orientations yield the same pairs of tiles, so the graph stays symmetric.
+    */
+  private def transitionsBetween(a: Cluster, b: Cluster): Seq[(Int, Int)] = {
+    val dx = b.cx - a.cx
+    val dy = b.cy - a.cy
+
+    if (dx < 0 || (dx == 0 && dy < 0)) transitionsBetween(b, a).map(_.swap)
+    else if (dy == 0) {
+      // b is right of a: scan along the column of a's eastern border.
+      border(a.y0, a.y1, y => terrain.tileIndex(a.x1, y), y => terrain.tileIndex(b.x0, y))
+    } else if (dx == 0) {
+      // b is below a: scan along the row of a's southern border.
+      border(a.x0, a.x1, x => terrain.tileIndex(x, a.y1), x => terrain.tileIndex(x, b.y0))
+    } else if (dy > 0) {
+      // b is diagonally below right; the only crossing is the corner step.
+      corner(terrain.tileIndex(a.x1, a.y1), terrain.tileIndex(b.x0, b.y0))
+    } else {
+      // b is diagonally above right.
+      corner(terrain.tileIndex(a.x1, a.y0), terrain.tileIndex(b.x0, b.y1))
+    }
+  }
+
+  private def corner(a: Int, b: Int): Seq[(Int, Int)] =
+    if (terrain.isPassable(a, profile) && terrain.isPassable(b, profile)) Seq((a, b)) else Seq()
+
+  /**
+    * Finds the entrances along a straight border. Consecutive positions where the border can be crossed
+    * straight, at the same movement cost, form one entrance; short entrances get one transition in their
+    * middle, long ones get one at either end. Since the tiles of an entrance are connected along the border on
+    * both sides, the transitions keep every position of the entrance reachable, and crossing at a transition
+    * costs as much as crossing anywhere else in the entrance.
+    * Diagonal crossings are only added on their own if neither of their tiles belongs to an entrance.
+    *
+    * @param from The first position along the border.
+    * @param to The last position along the border.
+    * @param inner The tile index on the near side of the border at a position.
+    * @param outer The tile index on the far side of the border at a position.
+    */
+  private def border(from: Int, to: Int, inner: Int => Int, outer: Int => Int): Seq[(Int, Int)] = {
+    val innerPassable = (from to to).map(pos => terrain.isPassable(inner(pos), profile))
+    val outerPassable = (from to to).map(pos => terrain.isPassable(outer(pos), profile))
+    def straight(pos: Int) = innerPassable(pos - from) && outerPassable(pos - from)
+    def crossingCost(pos: Int) = terrain.movementCost(inner(pos)) + terrain.movementCost(outer(pos))
+
+    val ret = mutable.ArrayBuffer[(Int, Int)]()
+
+    var pos = from
+    while (pos <= to) {
+      if (!straight(pos)) pos += 1
+      else {
+        val start = pos
+        while (pos <= to && straight(pos) && crossingCost(pos) == crossingCost(start)) pos += 1
+        val end = pos - 1
+        if (end - start + 1 >= LongEntrance) {
+          ret += ((inner(start), outer(start)))
+          ret += ((inner(end), outer(end)))
+        } else {
+          val middle = (start + end) / 2
+          ret += ((inner(middle), outer(middle)))
+        }
+      }
+    }
+
+    for (pos <- from to to;
+         other <- Seq(pos - 1, pos + 1)
+         if other >= from && other <= to && !straight(pos) && !straight(other) &&
+           innerPassable(pos - from) && outerPassable(other - from)) {
+      ret += ((inner(pos), outer(other)))
+    }
+
+    ret
+  }
+
+  /**
+    * Dijkstra search that does not leave the bounds of given cluster. The costs are left in the search space;
+    * read them with `costIn` and reset the space afterwards.
+    *
+    * @param space The scratch memory, matching the size of the terrain.
+    * @param cluster The cluster to search in.
+    * @param source The tile to start from.
+    * @param reverse If false, the costs of getting from the source to every tile are computed. If true,
+    *                the costs of getting from every tile to the source are computed.
+    * @param stopAt The search stops as soon as the cost of this tile is known. -1 to search the whole cluster.
+    */
+  def searchWithin(space: SearchSpace, cluster: Cluster, source: Int, reverse: Boolean, stopAt: Int = -1): Unit = {
+    val open = space.open
+    space.discover(source, 0, -1, 0)
+    open.insert(source, 0)
+
+    var done = false
+    while (!done && open.nonEmpty) {
+      val current = open.poll()
+      space.state(current) = Closed
+
+      if (current == stopAt) done = true
+      // Backwards, no way may lead through a tile that cannot be entered.
+      else if (!reverse || terrain.isPassable(current, profile)) {
+        val cx = space.xOf(current)
+        val cy = space.yOf(current)
+
+        var dx = -1
+        while (dx <= 1) {
+          var dy = -1
+          while (dy <= 1) {
+            val nx = cx + dx
+            val ny = cy + dy
+            if ((dx != 0 || dy != 0) && cluster.contains(nx, ny)) {
+              val neighbor = space.index(nx, ny)
+              if (space.state(neighbor) != Closed && (reverse || terrain.isPassable(neighbor, profile))) {
+                val entered = if (reverse) current else neighbor
+                val g = space.gCost(current) + terrain.movementCost(entered) * CostScale +
+                  (if (dx != 0 && dy != 0) DiagonalPenalty else 0)
+
+                if (space.state(neighbor) == Unvisited) {
+                  space.discover(neighbor, g, current, 0)
+                  open.insert(neighbor, g)
+                } else if (g < space.gCost(neighbor)) {
+                  space.gCost(neighbor) = g
+                  space.parent(neighbor) = current
+                  open.decreaseKey(neighbor, g)
+                }
+              }
+            }
+            dy += 1
+          }
+          dx += 1
+        }
+      }
+    }
+  }
+
+  /** Returns the final cost of a tile after `searchWithin`, or `Unreachable`. */
+  def costIn(space: SearchSpace, index: Int): Int =
+    if (space.state(index) == Closed) space.gCost(index) else Unreachable
+
+}
+
+private[pathfinding] object ClusterGraph {
+
+  /** Cost of nodes that cannot be reached. */
+  val Unreachable = Int.MaxValue
+
+  /** Entrances at least this long get two transitions instead of one. */
+  val LongEntrance = 6
+
+  /**
+    * A rectangular part of the terrain.
+    *
+    * @param cx The x position of the cluster in the cluster grid.
+    * @param cy The y position of the cluster in the cluster grid.
+    * @param x0 The first tile column of the cluster.
+    * @param y0 The first tile row of the cluster.
+    * @param x1 The last tile column of the cluster.
+    * @param y1 The last tile row of the cluster.
+    */
+  final class Cluster(val cx: Int, val cy: Int, val x0: Int, val y0: Int, val x1: Int, val y1: Int) {
+
+    /** The tile indices of the entrance nodes inside of the cluster. */
+    var nodes = Array.emptyIntArray
+
+    /** For every node, the tile indices outside of the cluster that can be entered from the node. */
+    var exits = Array.empty[Array[Int]]
+
+    /** `costs(i)(j)`: the cost from node `i` to node `j` inside of the cluster, or `Unreachable`. */
+    var costs = Array.empty[Array[Int]]
+
+    def contains(x: Int, y: Int) = x >= x0 && x <= x1 && y >= y0 && y <= y1
+
+    override def toString = s"Cluster($cx|$cy)"
+  }
+
+}
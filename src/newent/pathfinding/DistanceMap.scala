@@ -0,0 +1,151 @@
+package newent.pathfinding
+
+import java.util.Arrays
+
+import world.{MovementProfile, Terrain}
+
+/**
+  * Flow field towards one target tile.
+  *
+  * On construction, a Dijkstra search runs backwards from the target over the whole terrain. Afterwards, the
+  * cheapest way to the target is known for every tile: every tile stores its remaining cost and the tile to step
+  * on next. Any number of entities moving towards the same target can then read their next step in constant
+  * time, instead of running their own A-Star search each.
+  *
+  * Costs are accumulated exactly like [[newent.pathfinding.BinaryHeapAStarPathfinder]] does (including the
+  * tie breaker against diagonal steps), so the paths read from a distance map are just as cheap as the ones
+  * found by the pathfinder. Unlike the pathfinder, the distance map has no search depth.
+  *
+  * The map is a snapshot of the terrain at the time of its construction and is not updated afterwards.
+  * Instances are immutable and thus thread-safe.
+  *
+  * @param terrain The terrain to compute the distances on.
+  * @param targetX The x position of the target tile.
+  * @param targetY The y position of the target tile.
+  * @param profile The movement profile deciding which tiles may be entered.
+  */
+final class DistanceMap(val terrain: Terrain, val targetX: Int, val targetY: Int, val profile: MovementProfile) {
+
+  import BinaryHeapAStarPathfinder.{CostScale, DiagonalPenalty}
+  import DistanceMap.Unreachable
+
+  require(terrain.isTileValid(targetX, targetY), s"Target ($targetX|$targetY) is not valid")
+
+  private val _width = terrain.width
+
+  /** The scaled cost from every tile to the target, or `Unreachable`. */
+  private val _cost = new Array[Int](terrain.width * terrain.height)
+
+  /** The index of the tile to step on next from every tile, or -1. */
+  private val _next = new Array[Int](terrain.width * terrain.height)
+
+  compute()
+
+  private def compute(): Unit = {
+    Arrays.fill(_cost, Unreachable)
+    Arrays.fill(_next, -1)
+
+    val target = terrain.tileIndex(targetX, targetY)
+
+    // No entity can ever reach a target it may not enter.
+    if (terrain.isPassable(target, profile)) {
+      val open = new IndexedBinaryHeap(_cost.length)
+      val closed = new java.util.BitSet(_cost.length)
+
+      _cost(target) = 0
+      open.insert(target, 0)
+
+      while (open.nonEmpty) {
+        val current = open.poll()
+        closed.set(current)
+
+        // Tiles that cannot be entered still get a distance (an entity may stand on them),
+        // but no way leads through them.
+        if (terrain.isPassable(current, profile)) {
+          val cx = current % _width
+          val cy = current / _width
+          val enterCost = terrain.movementCost(current) * CostScale
+
+          var dx = -1
+          while (dx <= 1) {
+            var dy = -1
+            while (dy <= 1) {
+              val nx = cx + dx
+              val ny = cy + dy
+              if ((dx != 0 || dy != 0) && terrain.isTileValid(nx, ny)) {
+                val neighbor = terrain.tileIndex(nx, ny)
+                if (!closed.get(neighbor)) {
+                  val cost = _cost(current) + enterCost + (if (dx != 0 && dy != 0) DiagonalPenalty else 0)
+                  if (cost < _cost(neighbor)) {
+                    _cost(neighbor) = cost
+                    _next(neighbor) = current
+                    if (open.contains(neighbor)) open.decreaseKey(neighbor, cost)
+                    else open.insert(neighbor, cost)
+                  }
+                }
+              }
+              dy += 1
+            }
+            dx += 1
+          }
+        }
+      }
+    }
+  }
+
+  /** Returns true if the target can be reached from (x|y). */
+  def isReachable(x: Int, y: Int): Boolean =
+    terrain.isTileValid(x, y) && _cost(terrain.tileIndex(x, y)) != Unreachable
+
+  /**
+    * Returns the movement points needed to get from (x|y) to the target.
+    *
+    * @return The movement points, or `-1` if the target cannot be reached from (x|y).
+    */
+  def distance(x: Int, y: Int): Int =
+    if (isReachable(x, y)) _cost(terrain.tileIndex(x, y)) / CostScale else -1
+
+  /**
+    * Returns the step that leads from (x|y) towards the target.
+    *
+    * @return The next step, or nothing if (x|y) is the target itself or the target cannot be reached.
+    */
+  def nextStep(x: Int, y: Int): Option[Path.Step] = {
+    if (!terrain.isTileValid(x, y)) None
+    else {
+      val next = _next(terrain.tileIndex(x, y))
+      if (next == -1) None
+      else Some(Path.Step(next % _width, next / _width, terrain.movementCost(next)))
+    }
+  }
+
+  /**
+    * Returns the complete path from (x|y) to the target, structured like the paths of the pathfinders:
+    * the first step is (x|y) itself with zero movement points.
+    *
+    * @return The path, or nothing if (x|y) is the target itself or the target cannot be reached.
+    */
+  def pathFrom(x: Int, y: Int): Option[Path] = {
+    if (!isReachable(x, y) || (x == targetX && y == targetY)) None
+    else {
+      val steps = Vector.newBuilder[Path.Step]
+      steps += Path.Step(x, y, 0)
+      var node = _next(terrain.tileIndex(x, y))
+      while (node != -1) {
+        steps += Path.Step(node % _width, node / _width, terrain.movementCost(node))
+        node = _next(node)
+      }
+      Some(Path(steps.result()))
+    }
+  }
+
+  override def toString = s"DistanceMap(target=($targetX|$targetY), profile=$profile)"
+
+}
+
+object DistanceMap {
+
+  /** Cost of tiles from which the target cannot be reached. */
+  private val Unreachable = Int.MaxValue
+
+}
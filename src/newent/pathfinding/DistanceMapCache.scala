@@ -0,0 +1,47 @@
+package newent.pathfinding
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.{Function => IFunction}
+
+import world.{MovementProfile, Terrain}
+
+/**
+  * Keeps the distance maps of a terrain, so that every target is computed only once per turn cycle,
+  * no matter how many entities are heading towards it.
+  *
+  * The cache is emptied with `invalidate()`; the context does so at the end of every turn cycle.
+  * Changing a tile of the terrain empties the cache as well.
+  * Access is thread-safe, so the pathfinding workers may read from the cache as well.
+  *
+  * @param terrain The terrain for which the distance maps are computed.
+  */
+class DistanceMapCache(val terrain: Terrain) {
+
+  private case class Key(x: Int, y: Int, profile: MovementProfile)
+
+  private val _maps = new ConcurrentHashMap[Key, DistanceMap]
+
+  terrain.onTileChanged += { _ => invalidate() }
+
+  private val _computeMap = new IFunction[Key, DistanceMap] {
+    override def apply(key: Key) = new DistanceMap(terrain, key.x, key.y, key.profile)
+  }
+
+  /**
+    * Returns the distance map towards given target, computing it if it is not cached yet.
+    *
+    * @param x The x position of the target.
+    * @param y The y position of the target.
+    * @param profile The movement profile of the entities heading towards the target.
+    * @return The distance map towards (x|y).
+    */
+  def towards(x: Int, y: Int, profile: MovementProfile): DistanceMap =
+    _maps.computeIfAbsent(Key(x, y, profile), _computeMap)
+
+  /** The number of currently cached distance maps. */
+  def size = _maps.size
+
+  /** Discards every cached distance map. */
+  def invalidate(): Unit = _maps.clear()
+
+}
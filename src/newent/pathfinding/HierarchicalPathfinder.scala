@@ -0,0 +1,280 @@
+package newent.pathfinding
+
+import newent.MovableEntity
+import world.{MovementProfile, Terrain}
+
+import scala.collection.mutable
+
+/**
+  * Hierarchical pathfinder (HPA*) for large terrains.
+  *
+  * The search runs in two levels. First, A-Star searches a route through the abstract [[newent.pathfinding.ClusterGraph]]
+  * of the terrain, whose nodes are the entrances between clusters. Only then the route is refined into single
+  * steps, and only inside of the clusters along the route. The size of the abstract graph grows with
+  * the number of clusters instead of the number of tiles, so long paths on large terrains stay cheap.
+  *
+  * The paths are near-optimal: the route crosses every entrance at one of few fixed positions, and a cheaper
+  * way outside of the clusters along the route is not found.
+  * There is no search depth; paths of any length are found.
+  *
+  * The pathfinder is thread-safe. The abstract graph is kept for the terrain searched last and is updated
+  * cluster by cluster when tiles of the terrain change.
+  *
+  * @param profile The movement profile deciding which tiles may be entered.
+  * @param clusterSize The width and height of a cluster in tiles.
+  */
+class HierarchicalPathfinder(val profile: MovementProfile, val clusterSize: Int) extends Pathfinder {
+
+  import BinaryHeapAStarPathfinder.{CostScale, DiagonalPenalty, heuristic}
+  import ClusterGraph.{Cluster, Unreachable}
+  import SearchSpace.{Closed, Unvisited}
+
+  def this(profile: MovementProfile) = this(profile, HierarchicalPathfinder.DefaultClusterSize)
+
+  @volatile private var _graph: ClusterGraph = null
+
+  /** Scratch memory of the current thread: one space for the local searches, one for the abstract search. */
+  private val _searchSpaces = new ThreadLocal[(SearchSpace, SearchSpace)]
+
+  private def graphFor(terrain: Terrain): ClusterGraph = synchronized {
+    if (_graph == null || (_graph.terrain ne terrain)) {
+      if (_graph ne null) _graph.dispose()
+      _graph = new ClusterGraph(terrain, profile, clusterSize)
+    }
+    _graph
+  }
+
+  private def searchSpacesFor(terrain: Terrain): (SearchSpace, SearchSpace) = {
+    val cached = _searchSpaces.get
+    if (cached == null || !cached._1.fits(terrain.width, terrain.height)) {
+      val spaces = (new SearchSpace(terrain.width, terrain.height), new SearchSpace(terrain.width, terrain.height))
+      _searchSpaces.set(spaces)
+      spaces
+    } else cached
+  }
+
+  /** Finds a path according to the implemented logic.
+    *
+    * @param moveable The moveable entity for which to find the path.
+    * @param tx The target x position.
+    * @param ty The target y position.
+    * @return An optional path.
+    */
+  override def findPath(moveable: MovableEntity, tx: Int, ty: Int): Option[Path] = {
+    val terrain = moveable.tileLocation.terrain
+    val sx = moveable.getGridX
+    val sy = moveable.getGridY
+
+    if (!terrain.isPassable(tx, ty, profile) || (sx == tx && sy == ty)) None
+    else {
+      val graph = graphFor(terrain)
+      val (local, abstractSpace) = searchSpacesFor(terrain)
+
+      graph.update(local)
+      graph.readLock.lock()
+      try {
+        val route = try searchRoute(graph, local, abstractSpace, terrain.tileIndex(sx, sy), terrain.tileIndex(tx, ty))
+        finally abstractSpace.reset()
+        route.flatMap(refine(graph, local, _))
+      } finally graph.readLock.unlock()
+    }
+  }
+
+  /**
+    * Searches the route through the abstract graph.
+    *
+    * @return The tile indices of the route, from start to target. Consecutive tiles either lie in the same
+    *         cluster or are neighbors.
+    */
+  private[pathfinding] def searchRoute(graph: ClusterGraph, local: SearchSpace, space: SearchSpace, start: Int, target: Int): Option[Seq[Int]] = {
+    val terrain = graph.terrain
+    val startCluster = graph.clusterOf(start)
+    val targetCluster = graph.clusterOf(target)
+
+    // Connect the start with the nodes of its cluster...
+    graph.searchWithin(local, startCluster, start, reverse = false)
+    val startCosts = startCluster.nodes.map(graph.costIn(local, _))
+    val directCost = if (startCluster eq targetCluster) graph.costIn(local, target) else Unreachable
+    local.reset()
+
+    // ... and the nodes of the target cluster with the target.
+    graph.searchWithin(local, targetCluster, target, reverse = true)
+    val targetCosts = targetCluster.nodes.map(graph.costIn(local, _))
+    local.reset()
+
+    val tx = terrain.width
+
+    // The start may lie on a tile that cannot be entered, so it is no transition even on a border. Its steps
+    // into the neighboring clusters are connected with the nodes of these clusters like the start itself.
+    val entries = mutable.Map[Int, (Cluster, Array[Int])]()
+    for (dx <- -1 to 1; dy <- -1 to 1 if dx != 0 || dy != 0) {
+      val nx = start % tx + dx
+      val ny = start / tx + dy
+      if (terrain.isPassable(nx, ny, graph.profile) && !startCluster.contains(nx, ny)) {
+        val entry = terrain.tileIndex(nx, ny)
+        val cluster = graph.clusterOf(entry)
+        graph.searchWithin(local, cluster, entry, reverse = false)
+        val costs = cluster.nodes.map(graph.costIn(local, _)) :+ (if (cluster eq targetCluster) graph.costIn(local, target) else Unreachable)
+        local.reset()
+        entries(entry) = (cluster, costs)
+      }
+    }
+
+    def relax(from: Int, to: Int, cost: Int): Unit = {
+      if (cost != Unreachable && space.state(to) != Closed) {
+        val g = space.gCost(from) + cost
+        val key = g + heuristic(to % tx, to / tx, target % tx, target / tx)
+        if (space.state(to) == Unvisited) {
+          space.discover(to, g, from, 0)
+          space.open.insert(to, key)
+        } else if (g < space.gCost(to)) {
+          space.gCost(to) = g
+          space.parent(to) = from
+          space.open.decreaseKey(to, key)
+        }
+      }
+    }
+
+    space.discover(start, 0, -1, 0)
+    space.open.insert(start, 0)
+
+    var found = false
+    while (!found && space.open.nonEmpty) {
+      val current = space.open.poll()
+      space.state(current) = Closed
+
+      if (current == target) found = true
+      else {
+        if (current == start) {
+          for (i <- startCluster.nodes.indices) relax(current, startCluster.nodes(i), startCosts(i))
+          relax(current, target, directCost)
+          for (entry <- entries.keys) relax(current, entry, stepCost(terrain, current, entry))
+        }
+
+        for ((cluster, costs) <- entries.get(current)) {
+          for (i <- cluster.nodes.indices) relax(current, cluster.nodes(i), costs(i))
+          relax(current, target, costs.last)
+        }
+
+        val slot = graph.slotOf(current)
+        if (slot != -1) {
+          val cluster = graph.clusterOf(current)
+          val costs = cluster.costs(slot)
+          for (i <- cluster.nodes.indices) relax(current, cluster.nodes(i), costs(i))
+          for (exit <- cluster.exits(slot)) relax(current, exit, stepCost(terrain, current, exit))
+          if (cluster eq targetCluster) relax(current, target, targetCosts(slot))
+        }
+      }
+    }
+
+    if (!found) None
+    else {
+      var route = List[Int]()
+      var node = target
+      while (node != -1) {
+        route = node :: route
+        node = space.parent(node)
+      }
+      Some(route)
+    }
+  }
+
+  private def stepCost(terrain: Terrain, from: Int, to: Int): Int = {
+    val isDiagonal = from % terrain.width != to % terrain.width && from / terrain.width != to / terrain.width
+    terrain.movementCost(to) * CostScale + (if (isDiagonal) DiagonalPenalty else 0)
+  }
+
+  /**
+    * Turns the route through the abstract graph into single steps.
+    *
+    * The route only chooses the corridor the path runs through: the clusters of the route and the clusters
+    * around them. One A-Star search within the corridor finds the steps, so the path is free to cross the
+    * borders anywhere instead of at the transitions of the route. The route itself lies within the corridor,
+    * so the path is never more expensive than the route.
+    *
+    * The tiles are read from the terrain again: `setTileAt` does not wait for running searches, so they may
+    * have changed since the route has been searched.
+    *
+    * @return The path, or nothing if the corridor does not lead to the target anymore.
+    */
+  private[pathfinding] def refine(graph: ClusterGraph, space: SearchSpace, route: Seq[Int]): Option[Path] = {
+    val terrain = graph.terrain
+    val start = route.head
+    val target = route.last
+    val tx = space.xOf(target)
+    val ty = space.yOf(target)
+
+    val corridor = new java.util.BitSet(graph.clusters.length)
+    for (node <- route) {
+      val cluster = graph.clusterOf(node)
+      for (dx <- -1 to 1; dy <- -1 to 1) {
+        val cx = cluster.cx + dx
+        val cy = cluster.cy + dy
+        if (cx >= 0 && cx < graph.clustersX && cy >= 0 && cy < graph.clustersY) corridor.set(cy * graph.clustersX + cx)
+      }
+    }
+    def inCorridor(x: Int, y: Int) =
+      terrain.isTileValid(x, y) && corridor.get((y / clusterSize) * graph.clustersX + x / clusterSize)
+
+    space.discover(start, 0, -1, 0)
+    space.open.insert(start, 0)
+    try {
+      var found = false
+      while (!found && space.open.nonEmpty) {
+        val current = space.open.poll()
+        space.state(current) = Closed
+
+        if (current == target) found = true
+        else {
+          val cx = space.xOf(current)
+          val cy = space.yOf(current)
+
+          var dx = -1
+          while (dx <= 1) {
+            var dy = -1
+            while (dy <= 1) {
+              val nx = cx + dx
+              val ny = cy + dy
+              if ((dx != 0 || dy != 0) && inCorridor(nx, ny)) {
+                val neighbor = space.index(nx, ny)
+                if (space.state(neighbor) != Closed && terrain.isPassable(neighbor, profile)) {
+                  val g = space.gCost(current) + stepCost(terrain, current, neighbor)
+                  val key = g + heuristic(nx, ny, tx, ty)
+                  if (space.state(neighbor) == Unvisited) {
+                    space.discover(neighbor, g, current, 0)
+                    space.open.insert(neighbor, key)
+                  } else if (g < space.gCost(neighbor)) {
+                    space.gCost(neighbor) = g
+                    space.parent(neighbor) = current
+                    space.open.decreaseKey(neighbor, key)
+                  }
+                }
+              }
+              dy += 1
+            }
+            dx += 1
+          }
+        }
+      }
+
+      if (!found) None
+      else {
+        var steps = List[Path.Step]()
+        var node = target
+        while (node != start) {
+          steps = Path.Step(space.xOf(node), space.yOf(node), terrain.movementCost(node)) :: steps
+          node = space.parent(node)
+        }
+        Some(Path(Path.Step(space.xOf(start), space.yOf(start), 0) :: steps))
+      }
+    } finally space.reset()
+  }
+
+}
+
+object HierarchicalPathfinder {
+
+  /** The cluster size used if none is given. */
+  val DefaultClusterSize = 10
+
+}
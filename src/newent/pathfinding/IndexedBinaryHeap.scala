@@ -0,0 +1,143 @@
+package newent.pathfinding
+
+import java.util.Arrays
+
+/**
+  * Binary min-heap over a fixed range of integer ids (`0 until capacity`), ordered by an integer key.
+  *
+  * Every id can be in the heap at most once. The position of every id inside the heap is tracked,
+  * so that lowering the key of an already inserted id (`decreaseKey`) is possible in `O(log n)` without
+  * searching for it first.
+  *
+  * The heap does not allocate after construction; it is meant to be reused across searches.
+  *
+  * @param capacity The number of ids that the heap is able to manage.
+  */
+final class IndexedBinaryHeap(val capacity: Int) {
+
+  require(capacity >= 0, s"Capacity may not be negative: $capacity")
+
+  /** The ids, ordered as binary heap. */
+  private val _heap = new Array[Int](capacity)
+
+  /** The position of every id inside `_heap`, or -1 if the id is not in the heap. */
+  private val _position = {
+    val ret = new Array[Int](capacity)
+    Arrays.fill(ret, -1)
+    ret
+  }
+
+  /** The key of every id. Only meaningful for ids that are contained in the heap. */
+  private val _keys = new Array[Int](capacity)
+
+  private var _size = 0
+
+  def size = _size
+  def isEmpty = _size == 0
+  def nonEmpty = !isEmpty
+
+  /** Returns true if given id is currently in the heap. */
+  def contains(id: Int): Boolean = _position(id) != -1
+
+  /** Returns the key with which given id is stored in the heap. */
+  def keyOf(id: Int): Int = _keys(id)
+
+  /**
+    * Inserts an id with given key.
+    *
+    * @param id The id. Must not be in the heap already.
+    * @param key The key to order the id by.
+    */
+  def insert(id: Int, key: Int): Unit = {
+    require(!contains(id), s"Id $id is already in the heap")
+    _keys(id) = key
+    _heap(_size) = id
+    _position(id) = _size
+    _size += 1
+    siftUp(_size - 1)
+  }
+
+  /**
+    * Lowers the key of an id that is already in the heap.
+    * Keys that are not lower than the current key are ignored.
+    *
+    * @param id The id whose key to lower.
+    * @param key The new key.
+    */
+  def decreaseKey(id: Int, key: Int): Unit = {
+    if (key < _keys(id)) {
+      _keys(id) = key
+      siftUp(_position(id))
+    }
+  }
+
+  /** Returns the id with the lowest key without removing it. */
+  def peek: Int = {
+    if (isEmpty) throw new NoSuchElementException("Heap is empty")
+    _heap(0)
+  }
+
+  /** Removes the id with the lowest key and returns it. */
+  def poll(): Int = {
+    val top = peek
+    _size -= 1
+    _position(top) = -1
+    if (_size > 0) {
+      val last = _heap(_size)
+      _heap(0) = last
+      _position(last) = 0
+      siftDown(0)
+    }
+    top
+  }
+
+  /** Removes every id from the heap. Runs in `O(size)`, not `O(capacity)`. */
+  def clear(): Unit = {
+    var i = 0
+    while (i < _size) {
+      _position(_heap(i)) = -1
+      i += 1
+    }
+    _size = 0
+  }
+
+  private def siftUp(from: Int): Unit = {
+    var i = from
+    val id = _heap(i)
+    val key = _keys(id)
+    var continue = true
+    while (continue && i > 0) {
+      val parent = (i - 1) >>> 1
+      val parentId = _heap(parent)
+      if (key < _keys(parentId)) {
+        _heap(i) = parentId
+        _position(parentId) = i
+        i = parent
+      } else continue = false
+    }
+    _heap(i) = id
+    _position(id) = i
+  }
+
+  private def siftDown(from: Int): Unit = {
+    var i = from
+    val id = _heap(i)
+    val key = _keys(id)
+    val half = _size >>> 1
+    var continue = true
+    while (continue && i < half) {
+      var child = (i << 1) + 1
+      val right = child + 1
+      if (right < _size && _keys(_heap(right)) < _keys(_heap(child))) child = right
+      val childId = _heap(child)
+      if (_keys(childId) < key) {
+        _heap(i) = childId
+        _position(childId) = i
+        i = child
+      } else continue = false
+    }
+    _heap(i) = id
+    _position(id) = i
+  }
+
+}
@@ -1,6 +1,7 @@
 package newent.pathfinding
 
 import newent.MovableEntity
+import world.MovementProfile
 
 trait Pathfinder {
 
@@ -16,4 +17,47 @@ trait Pathfinder {
 
 }
 
-object DefaultPathfinder extends AStarPathfinder(50, tile => true)
+/**
+  * Delegates to a grid pathfinder on small terrains and to a hierarchical pathfinder on large ones.
+  *
+  * @param grid The pathfinder used for terrains with up to `tileThreshold` tiles.
+  * @param hierarchical The pathfinder used for larger terrains.
+  * @param tileThreshold The number of tiles above which the hierarchical pathfinder is used.
+  */
+class TerrainSizePathfinder(val grid: Pathfinder, val hierarchical: Pathfinder, val tileThreshold: Int) extends Pathfinder {
+
+  override def findPath(moveable: MovableEntity, tx: Int, ty: Int): Option[Path] = {
+    val terrain = moveable.tileLocation.terrain
+    if (terrain.width * terrain.height <= tileThreshold) grid.findPath(moveable, tx, ty)
+    else hierarchical.findPath(moveable, tx, ty)
+  }
+
+}
+
+object TerrainSizePathfinder {
+
+  /** Terrains larger than 64x64 tiles are searched hierarchically by default. */
+  val DefaultTileThreshold = 64 * 64
+
+}
+
+object DefaultPathfinder extends BinaryHeapAStarPathfinder(50, MovementProfile.Unrestricted)
+
+/**
+  * Pathfinder for entities walking on land only. The pathfinder is thread-safe,
+  * so every entity with this kind of movement shares this very instance.
+  * On large terrains, paths are searched hierarchically.
+  */
+object LandPathfinder extends TerrainSizePathfinder(
+  new BinaryHeapAStarPathfinder(20, MovementProfile.Land),
+  new HierarchicalPathfinder(MovementProfile.Land),
+  TerrainSizePathfinder.DefaultTileThreshold)
+
+/**
+  * Pathfinder for entities walking on land and along the coast, but not on the open sea.
+  * Shared like [[newent.pathfinding.LandPathfinder]].
+  */
+object CoastalPathfinder extends TerrainSizePathfinder(
+  new BinaryHeapAStarPathfinder(20, MovementProfile.Coastal),
+  new HierarchicalPathfinder(MovementProfile.Coastal),
+  TerrainSizePathfinder.DefaultTileThreshold)
@@ -0,0 +1,91 @@
+package newent.pathfinding
+
+import java.util.Optional
+import java.util.concurrent._
+import java.util.concurrent.atomic.{AtomicInteger, AtomicReference}
+
+import general.{LogFacility, ScalaUtil}
+import newent.MovableEntity
+
+/**
+  * Runs path requests of movable entities on a small pool of worker threads.
+  *
+  * Independent requests are computed in parallel; the pathfinders themselves keep their scratch memory
+  * per thread, so no request has to wait for another one to finish. Every request is answered with a
+  * `CompletableFuture` that completes with an empty `Optional` if no path could be found.
+  *
+  * Path previews (e.g. the hover prediction on the map) are requested through `previewPath`. A new
+  * preview supersedes the previous one: if the previous preview has not been computed yet, it is cancelled
+  * and will never be computed.
+  */
+object PathfindingService {
+
+  /** The number of worker threads. At least one, at most four, and one core is left for the game loop. */
+  val WorkerCount = math.max(1, math.min(4, Runtime.getRuntime.availableProcessors - 1))
+
+  private val _workers = {
+    val threadCount = new AtomicInteger(0)
+    val factory = new ThreadFactory {
+      override def newThread(r: Runnable): Thread = {
+        val thread = new Thread(r, s"Pathfinding Worker #${threadCount.incrementAndGet()}")
+        thread.setDaemon(true)
+        thread
+      }
+    }
+    new ThreadPoolExecutor(WorkerCount, WorkerCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue[Runnable], factory)
+  }
+
+  /** The preview request that has been issued last. */
+  private val _currentPreview = new AtomicReference[CompletableFuture[Optional[Path]]]()
+
+  /**
+    * Requests a path for given entity, computed with the entity's own pathfinder logic.
+    *
+    * @param moveable The entity to find the path for.
+    * @param tx The target x position.
+    * @param ty The target y position.
+    * @return A future completing with the path, or with an empty optional if there is none.
+    */
+  def findPath(moveable: MovableEntity, tx: Int, ty: Int): CompletableFuture[Optional[Path]] =
+    submit(moveable.pathfinderLogic, moveable, tx, ty)
+
+  /**
+    * Requests a path that is only needed until the next preview is requested.
+    * The previous preview request is cancelled, if it has not completed yet.
+    *
+    * @param moveable The entity to find the path for.
+    * @param tx The target x position.
+    * @param ty The target y position.
+    * @return A future completing with the path, or with an empty optional if there is none.
+    *         The future is cancelled if it gets superseded before it completes.
+    */
+  def previewPath(moveable: MovableEntity, tx: Int, ty: Int): CompletableFuture[Optional[Path]] = {
+    val request = findPath(moveable, tx, ty)
+    val superseded = _currentPreview.getAndSet(request)
+    if (superseded ne null) superseded.cancel(false)
+    request
+  }
+
+  private def submit(pathfinder: Pathfinder, moveable: MovableEntity, tx: Int, ty: Int): CompletableFuture[Optional[Path]] = {
+    val request = new CompletableFuture[Optional[Path]]()
+    _workers.execute(new Runnable {
+      override def run(): Unit = {
+        // Cancelled (superseded) requests are skipped entirely.
+        if (!request.isDone) {
+          try request.complete(Optional.ofNullable(pathfinder.findPath(moveable, tx, ty).orNull))
+          catch {
+            case ex: Exception =>
+              LogFacility.log(ScalaUtil.errorMessage("Path request failed", ex, Map(
+                "moveable" -> moveable,
+                "tx" -> tx,
+                "ty" -> ty
+              )), LogFacility.LoggingLevel.Error)
+              request.completeExceptionally(ex)
+          }
+        }
+      }
+    })
+    request
+  }
+
+}
@@ -0,0 +1,84 @@
+package newent.pathfinding
+
+/**
+  * Reusable scratch memory for grid searches on a terrain of a fixed size.
+  *
+  * Every tile of the terrain is addressed by its index `y * width + x`. The node data is kept in primitive
+  * arrays instead of node objects, so that a search does not allocate anything per visited tile.
+  * Only the tiles touched by a search are reset afterwards, so the cost of `reset()` is proportional to
+  * the searched area, not to the size of the terrain.
+  *
+  * Instances are not thread-safe.
+  *
+  * @param width The width of the terrain.
+  * @param height The height of the terrain.
+  */
+final class SearchSpace(val width: Int, val height: Int) {
+
+  require(width > 0 && height > 0, s"Invalid search space dimensions ${width}x$height")
+
+  val tileCount = width * height
+
+  /** The cost of the best known way from the start to the tile. */
+  val gCost = new Array[Int](tileCount)
+
+  /** The index of the tile from which the best known way enters the tile, or -1. */
+  val parent = new Array[Int](tileCount)
+
+  /** How many steps the best known way needs to reach the tile. */
+  val depth = new Array[Int](tileCount)
+
+  /** The state of the tile in the current search; one of the constants in the companion object. */
+  val state = new Array[Byte](tileCount)
+
+  /** The open set of the search. */
+  val open = new IndexedBinaryHeap(tileCount)
+
+  private val _touched = new Array[Int](tileCount)
+  private var _touchedCount = 0
+
+  def index(x: Int, y: Int) = y * width + x
+  def xOf(index: Int) = index % width
+  def yOf(index: Int) = index / width
+
+  def fits(width: Int, height: Int) = this.width == width && this.height == height
+
+  /**
+    * Marks the tile as discovered in the current search and initializes its node data.
+    *
+    * @param index The index of the tile.
+    * @param g The cost to reach the tile.
+    * @param parentIndex The index of the preceding tile, or -1.
+    * @param d The depth of the tile.
+    */
+  def discover(index: Int, g: Int, parentIndex: Int, d: Int): Unit = {
+    if (state(index) == SearchSpace.Unvisited) {
+      _touched(_touchedCount) = index
+      _touchedCount += 1
+    }
+    state(index) = SearchSpace.Open
+    gCost(index) = g
+    parent(index) = parentIndex
+    depth(index) = d
+  }
+
+  /** Prepares the search space for the next search. */
+  def reset(): Unit = {
+    var i = 0
+    while (i < _touchedCount) {
+      state(_touched(i)) = SearchSpace.Unvisited
+      i += 1
+    }
+    _touchedCount = 0
+    open.clear()
+  }
+
+}
+
+object SearchSpace {
+
+  val Unvisited: Byte = 0
+  val Open: Byte = 1
+  val Closed: Byte = 2
+
+}
@@ -11,7 +11,7 @@ import player.item.ore.CopperOre;
 import player.item.ore.IronOre;
 import player.item.potion.*;
 import player.weapon.arrow.ArrowHelper;
-import world.GrassTile;
+import world.MovementProfile;
 import world.Terrain;
 
 import java.awt.*;
@@ -224,7 +224,7 @@ public class LootSpawner {
             int spawnX = random.nextInt(PfeileContext.worldSizeX().get());
             int spawnY = random.nextInt(PfeileContext.worldSizeY().get());
 
-            if (!(terrain.tileAt(spawnX, spawnY) instanceof GrassTile))
+            if (!terrain.isPassable(spawnX, spawnY, MovementProfile.getLand()))
                 continue;
 
             if (!isEntityNear(spawnX, spawnY, radiusTroops - distanceTroops, radiusPlayers - distancePlayers)) {
@@ -27,6 +27,7 @@ public abstract class LootUI implements Drawable {
     public LootUI (Component component) {
         this.component = component;
         component.setListenerTransparent(true);
+        component.setWorldSpace(true);
     }
 
     /**
@@ -72,6 +73,7 @@ public abstract class LootUI implements Drawable {
         component = new ImageComponent(
                 (int) (tileBounds.getCenterX() - 0.5 * image.getWidth()),
                 (int) (tileBounds.getCenterY() - 0.5 * image.getHeight()), image, GameScreen.getInstance());
+        component.setWorldSpace(true);
 
         mouseListeners.forEach(component:: addMouseListener);
         mouseMotionListeners.forEach(component:: addMouseMotionListener);
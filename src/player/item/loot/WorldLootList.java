@@ -5,7 +5,7 @@ import general.PfeileContext;
 import gui.Drawable;
 import newent.CommandTeam;
 import newent.Player;
-import newent.VisionMap;
+import newent.VisionSnapshot;
 import newent.VisionStatus;
 
 import java.awt.*;
@@ -35,7 +35,7 @@ public class WorldLootList implements Drawable {
 
     /** creating a new WorldLootList with the default size 18 [as java.util.ArrayList].
      * It also creates a new List for every visible Loot (from the view of the activePlayer) and registers
-     * the {@link WorldLootList#updateVisibleLoot()} to {@link newent.Player#onLocationChanged} and
+     * the {@link WorldLootList#updateVisibleLoot()} to {@link newent.VisionMap#onPublished()} of every player and
      * {@link general.TurnSystem#onTurnGet()}.
      * */
     public WorldLootList (PfeileContext context) {
@@ -46,11 +46,15 @@ public class WorldLootList implements Drawable {
 
         context.turnSystem().onTurnGet().registerJava(team -> updateVisibleLoot());
 
-        // every time, when the location of a player has changed, the list of every not-hidden loot must update itself.
-        // ==> {@link WorldLootList#updateVisibleLoot()} is registered to the "onLocationChanged"-Delegate of every Player.
+        // every time, when the vision of the active player has changed, the list of every not-hidden loot must update itself.
+        // ==> The update is registered to the "onPublished"-Delegate of the vision map of every Player, so that
+        // it only runs once the new vision is complete.
         context.getTurnSystem().getTeams().forEach(team -> {
             Player player = ((CommandTeam) team).getHead();
-            player.onLocationChanged.registerJava(locationChangedEvent -> updateVisibleLoot());
+            player.visionMap().onPublished().registerJava(snapshot -> {
+                if (player == context.getActivePlayer())
+                    updateVisibleLoot(snapshot);
+            });
         });
     }
 
@@ -117,16 +121,24 @@ public class WorldLootList implements Drawable {
      * by a Delegate.
      * */
     public void updateVisibleLoot () {
-        final VisionMap visibleMap = context.getActivePlayer().visionMap();
+        updateVisibleLoot(context.getActivePlayer().visionMap().snapshot());
+    }
 
+    /**
+     * Updates the {@link WorldLootList#getVisibleLoots()} according to the given published vision of the activePlayer.
+     *
+     * @param vision the snapshot of the activePlayer's vision map
+     */
+    private void updateVisibleLoot (VisionSnapshot vision) {
         synchronized (lootVisibleList) {
             lootVisibleList.clear();
 
-            for(Loot loot : lootList) {
-                // only the loot to the visibleList, when the VisionStatus isn't Hidden
-                if (visibleMap.visionStatusOf(loot.getGridX(), loot.getGridY()) != VisionStatus.Hidden)
-                    lootVisibleList.add(loot);
-
+            synchronized (lootList) {
+                for (Loot loot : lootList) {
+                    // only the loot to the visibleList, when the VisionStatus isn't Hidden
+                    if (vision.visionStatusOf(loot.getGridX(), loot.getGridY()) != VisionStatus.Hidden)
+                        lootVisibleList.add(loot);
+                }
             }
         }
     }
@@ -9,7 +9,7 @@ import general.Main;
 import gui.Drawable;
 import gui.screen.GameScreen;
 import player.shop.Article;
-import world.GrassTile;
+import world.MovementProfile;
 import world.Terrain;
 import world.Tile;
 import world.World;
@@ -176,11 +176,9 @@ public class WanderingTrader extends Trader implements Drawable {
                 for (int i = 0; i < 200; i++) {
                     int x = random.nextInt(world.width());
                     int y = random.nextInt(world.height());
-                    Tile tile = world.getTileAt(x, y);
-
-                    if (tile instanceof GrassTile) {
+                    if (world.isPassable(x, y, MovementProfile.getLand())) {
                         moveTowards(x, y);
-                        graphicRepresentation.setOnTile(tile);
+                        graphicRepresentation.setOnTile(world.getTileAt(x, y));
                         break;
                     }
                 }
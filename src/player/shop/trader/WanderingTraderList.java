@@ -6,7 +6,7 @@ import gui.Drawable;
 import gui.screen.GameScreen;
 import newent.CommandTeam;
 import newent.Player;
-import newent.VisionMap;
+import newent.VisionSnapshot;
 import player.item.loot.KeyDefaultChest;
 import player.item.loot.KeyRoundChest;
 import player.item.loot.WorldLootList;
@@ -14,12 +14,13 @@ import player.item.ore.CopperOre;
 import player.item.ore.IronOre;
 import player.item.potion.*;
 import player.shop.Article;
-import world.GrassTile;
+import world.MovementProfile;
 import world.Terrain;
 
 import java.awt.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * This class allows to access all registered traders on the world. It provides a shortcut to draw the traders (it draws
@@ -49,16 +50,20 @@ public class WanderingTraderList implements Drawable {
      *                 that there is an visionMap of the active player */
     public WanderingTraderList (PfeileContext context) {
         traders = new ArrayList<>(NUMBER_OF_INITIAL_TRADERS);
-        visibleTraders = new ArrayList<>(NUMBER_OF_INITIAL_TRADERS);
+        visibleTraders = new CopyOnWriteArrayList<>();
         this.context = context;
 
         // every time the turn changes, the visibleTraders list has to change.
         context.turnSystem().onTurnGet().registerJava(team -> updateVisibleTraders());
 
-        // every time a player moves, the visibleTraders list has to change.
+        // every time the vision of the active player changes, the visibleTraders list has to change.
+        // The vision is read from the published snapshot only, so it is never half-updated.
         context.getTurnSystem().getTeams().forEach(team -> {
             Player player = ((CommandTeam) team).getHead();
-            player.onLocationChanged.registerJava(locationChangedEvent -> updateVisibleTraders());
+            player.visionMap().onPublished().registerJava(snapshot -> {
+                if (player == context.getActivePlayer())
+                    updateVisibleTraders(snapshot);
+            });
         });
     }
 
@@ -92,7 +97,7 @@ public class WanderingTraderList implements Drawable {
             int spawnX = random.nextInt(PfeileContext.worldSizeX().get());
             int spawnY = random.nextInt(PfeileContext.worldSizeY().get());
 
-            if (terrain.tileAt(spawnX, spawnY) instanceof GrassTile)
+            if (terrain.isPassable(spawnX, spawnY, MovementProfile.getLand()))
                 spawnPoint.setLocation(spawnX, spawnY);
         } while (spawnPoint.x == -1 || spawnPoint.y == -1);
 
@@ -233,13 +238,20 @@ public class WanderingTraderList implements Drawable {
      *  visibleTraders-list. Needs to be called, e.g. it's another players turn.
      */
     private void updateVisibleTraders () {
-        VisionMap visionMap = context.getActivePlayer().visionMap();
+        updateVisibleTraders(context.getActivePlayer().visionMap().snapshot());
+    }
 
+    /** updates the visible trader list according to the given published vision of the active player. */
+    private void updateVisibleTraders (VisionSnapshot vision) {
         synchronized (visibleTraders) {
-            for (WanderingTrader trader : traders) {
-                // only add, if in the trader is on a visible tile.
-                if (visionMap.isVisible(trader.getGridX(), trader.getGridY()))
-                    visibleTraders.add(trader);
+            visibleTraders.clear();
+
+            synchronized (traders) {
+                for (WanderingTrader trader : traders) {
+                    // only add, if in the trader is on a visible tile.
+                    if (vision.isVisible(trader.getGridX(), trader.getGridY()))
+                        visibleTraders.add(trader);
+                }
             }
         }
     }
@@ -89,7 +89,7 @@ public class Aim implements BoardPositionable {
      */
     public double getPosXGui () {
         Tile attackedTile = Main.getContext().getWorld().terrain().tileAt(getGridX(), getGridY());
-        return attackedTile.getComponent().getPreciseRectangle().getCenterX();
+        return attackedTile.getComponent().getCenterX();
     }
 
     /** This returns the more accurate y-position of the <b>center</b> of the attacked Tile then the similar method <code>getPositionGui()</code>.
@@ -100,7 +100,7 @@ public class Aim implements BoardPositionable {
      */
     public double getPosYGui () {
         Tile attackedTile = Main.getContext().getWorld().terrain().tileAt(getGridX(), getGridY());
-        return attackedTile.getComponent().getPreciseRectangle().getCenterY();
+        return attackedTile.getComponent().getCenterY();
     }
 
     /** The radius of the attack, in which the attacks effects the surrounding area. <p>
@@ -1,6 +1,7 @@
 package player.weapon;
 
 import general.Main;
+import general.Profiler;
 import gui.Drawable;
 import newent.AttackContainer;
 import newent.AttackProgress;
@@ -77,11 +78,14 @@ public class AttackDrawer implements Drawable {
 
     @Override
     public void draw (Graphics2D g) {
-        List<AttackProgress> filteredProgresses = getAttackProgressesOfArrows();
-
-        for (AttackProgress filteredProgress : filteredProgresses) {
-            AbstractArrow attackingArrow = (AbstractArrow) filteredProgress.event().weapon();
-            attackingArrow.getComponent().draw(g);
+        final long start = Profiler.start();
+        // walking the attack containers directly, without collecting the progresses in between
+        for (AttackContainer attackContainer : Main.getContext().getWorld().getEntities().helper().getAllAttackContainers()) {
+            for (AttackProgress progress : JavaConversions.seqAsJavaList(attackContainer.queuedAttacks())) {
+                if (progress.event().weapon() instanceof AbstractArrow)
+                    ((AbstractArrow) progress.event().weapon()).getComponent().draw(g);
+            }
         }
+        Profiler.ATTACK_DRAWER.stop(start);
     }
 }
@@ -1,7 +1,7 @@
 package player.weapon;
 
-import comp.Component;
 import comp.ImageComponent;
+import general.GameLoop;
 import general.Main;
 import geom.Point;
 import geom.functions.FunctionCollectionEasing;
@@ -15,149 +15,178 @@ import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+/**
+ * Lets the attacking arrows fly to their aims.
+ * <p>
+ * The flights are simulated by the main thread: as long as arrows are flying, a callback scheduled with the
+ * {@link GameLoop} moves every one of them on every tick, according to the time elapsed since they have taken off.
+ */
 public class AttackingCalculator {
 
-    /** this value increases every millisecond. It counts the time, after starting the flying process */
-    private long milliSec;
-
     /** a time multiplier in milliseconds to calculate Tiles per turn to Tiles per (milli-)second. The higher TIME_MULTI, the longer the arrows will need to fly:
      * <p> <code>TIME_MULTI / attackingArrow.getSpeed()</code>*/
     private static final int TIME_MULTI = 1500;
 
-    /** The threads are saved in this list. It contains all AttackingThreads, which haven't been arrived yet (progress != 1). */
-    private LinkedList<AttackingThread> attackingThreads;
+    /** How long to wait after the arrows have arrived, so that the user is able to recognize what happened. */
+    private static final long ARRIVAL_PAUSE_MILLIS = 500;
+
+    /** The volleys of arrows which haven't arrived yet. Only accessed by the main thread. */
+    private final List<Volley> volleys = new ArrayList<>();
+
+    /** The callback moving the arrows; <code>null</code> while no arrow is flying. */
+    private GameLoop.UpdateHandle flightUpdates;
 
     /** the singleton-instance */
     private static AttackingCalculator instance;
 
-    /** only one AttackingCalculator can exist, because the old threads has to continue. */
+    /** only one AttackingCalculator can exist, because the old flights has to continue. */
     public static AttackingCalculator getInstance () {
         if (instance == null)
             instance = new AttackingCalculator();
         return instance;
     }
 
-    public AttackingCalculator () {
-        attackingThreads = new LinkedList<>();
-    }
+    public AttackingCalculator () {}
 
-    /** <b><code>AttackingCalculator.getInstance().arrowsFlying(AttackDrawer.getAttackProgressesOfArrows());</code></b> */
-    public void arrowsFlying (List<AttackProgress> filteredProgresses) {
+    /** <b><code>AttackingCalculator.getInstance().arrowsFlying(AttackDrawer.getAttackProgressesOfArrows());</code></b>
+     * <p>
+     * Lets the arrows take off with the next tick of the game loop. This method does not block.
+     *
+     * @return a future, which is completed by the main thread a short pause after every arrow has arrived.
+     */
+    public CompletableFuture<Void> arrowsFlying (List<AttackProgress> filteredProgresses) {
         List<AbstractArrow> attackingArrows = AttackDrawer.getAttackingArrows();
 
         executeForEvery(filteredProgresses, attackingArrows);
 
-        java.util.Timer timer = new java.util.Timer("attackCalculatorScheduler", true);
-        // every milliSec has to increase every millisecond
-        timer.schedule(new Clock(), 0, 1);
+        final Volley volley = new Volley();
+        for (int i = 0; i < attackingArrows.size(); i++)
+            volley.flights.add(new Flight(attackingArrows.get(i)));
 
-        for (int i = 0; i < attackingArrows.size(); i++) {
-            AbstractArrow attackingArrow = attackingArrows.get(i);
-            AttackProgress attackProgress = filteredProgresses.get(i);
-
-            AttackingThread attack = new AttackingThread (attackingArrow, attackProgress);
-            attack.setDaemon(true);
-            attack.setPriority(3);
-            attackingThreads.add(attack);
-            attack.start();
-        }
-
-        // waiting for the threads to stop their activity (to let the arrows arrive)
-        for (AttackingThread attackingThread : attackingThreads) {
-            try {
-                attackingThread.join();
-            } catch (InterruptedException e) { e.printStackTrace(); }
-        }
-
-        // if ready stop the timer and reset the milli-seconds after beginning
-        timer.cancel();
-        milliSec = 0;
-
-        // wait a little bit, that the user is able to recognize what happened.
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) { e.printStackTrace(); }
+        GameLoop.scheduleOnce(() -> takeOff(volley));
+        return volley.arrived;
     }
 
     /** calls <code> arrowsFlying(AttackDrawer.getAttackProgressesOfArrows()) </code>. If there are no arrows, this
-     * method does nothing. Use arrowsFlying(List...), because you can leave AttackingScreen directly, if there are no arrows. */
-    public void arrowsFlying () {
+     * method does nothing and returns a completed future. Use arrowsFlying(List...), because you can leave
+     * AttackingScreen directly, if there are no arrows. */
+    public CompletableFuture<Void> arrowsFlying () {
         List<AttackProgress> filteredProgresses = AttackDrawer.getAttackProgressesOfArrows();
 
         if (!filteredProgresses.isEmpty())
-            arrowsFlying(filteredProgresses);
+            return arrowsFlying(filteredProgresses);
+        return CompletableFuture.completedFuture(null);
     }
 
+    private void takeOff (Volley volley) {
+        volley.start = System.nanoTime();
+        for (Flight flight : volley.flights)
+            flight.takeOff();
+        volleys.add(volley);
 
-    /** This Timer increments <code>milliSec</code>. */
-    private class Clock extends TimerTask {
-        @Override
-        public void run () {
-            milliSec++;
-        }
+        if (flightUpdates == null)
+            flightUpdates = GameLoop.schedule(this::advanceFlights);
     }
 
-    /** for every attack, we need to run one thread */
-    private class AttackingThread extends Thread {
-        private AbstractArrow attackingArrow;
-        private AttackProgress attackProgress;
+    /** Moves every flying arrow to its position at the current time, in one pass. */
+    private void advanceFlights () {
+        final long now = System.nanoTime();
 
-        /** the percentage of the progress, the position of the arrow has reached. It is the changing variable of the
-         * FunctionCollectionFunctions. It's saved here because the the Thread has to run several times.
-         * If the arrow has arrived progress is <code>1</code>. */
-        private double progress;
+        for (Iterator<Volley> iterator = volleys.iterator(); iterator.hasNext(); ) {
+            final Volley volley = iterator.next();
+            final double elapsedMillis = (now - volley.start) / 1e6;
 
-        AttackingThread (AbstractArrow attackingArrow, AttackProgress attackProgress) {
-            this.attackingArrow = attackingArrow;
-            this.attackProgress = attackProgress;
+            boolean flying = false;
+            for (Flight flight : volley.flights)
+                flying |= flight.advance(elapsedMillis);
+
+            if (!flying) {
+                iterator.remove();
+                GameLoop.scheduleOnce(() -> volley.arrived.complete(null), GameLoop.DEFAULT_PRIORITY,
+                        ARRIVAL_PAUSE_MILLIS, TimeUnit.MILLISECONDS);
+            }
         }
 
-        @Override
-        public void run () {
-            Component comp = attackingArrow.getComponent();
-            double posXOldCenter = comp.getPreciseRectangle().getCenterX();
-            double posYOldCenter = comp.getPreciseRectangle().getCenterY();
+        if (volleys.isEmpty()) {
+            flightUpdates.invalidate();
+            flightUpdates = null;
+        }
+    }
 
-            Point attackedCenter = new Point(attackingArrow.getAim().getPositionGui().getX(), attackingArrow.getAim().getPositionGui().getY());
-            double posXAimCenter = attackedCenter.getX();
-            double posYAimCenter = attackedCenter.getY();
+    /** The arrows which have been sent flying together. */
+    private static class Volley {
+        private final List<Flight> flights = new ArrayList<>();
+        private final CompletableFuture<Void> arrived = new CompletableFuture<>();
+
+        /** The time of the take-off (see {@link System#nanoTime()}). */
+        private long start;
+    }
+
+    /** The flight of one arrow to its aim. */
+    private static class Flight {
+        private final AbstractArrow attackingArrow;
+
+        /** How long the flight takes in milliseconds. */
+        private final double duration;
+
+        private double posXOldCenter, posYOldCenter, posXAimCenter, posYAimCenter;
 
-            // alpha (radiant) is the ankle between the position of the aim and the current Point
-            // double alpha = FunctionCollection.angle(attackingArrow.getPosX(), attackingArrow.getPosY(), attackingArrow.getPosXAim(), attackingArrow.getPosYAim());
+        private boolean arrived = false;
 
-            // it's only a part of the distance the arrow has to fly...
-            //double maxDistanceToCover = attackProgress.event().lengthGUI();
-            //double distanceToCover = maxDistanceToCover / attackProgress.numberOfTurns();
-            double distanceToCover = attackProgress.event().lengthGUI();
+        Flight (AbstractArrow attackingArrow) {
+            this.attackingArrow = attackingArrow;
+            this.duration = TIME_MULTI / attackingArrow.getSpeed();
+        }
 
+        /** Remembers where the arrow starts and where it is going to. */
+        void takeOff () {
+            ImageComponent comp = attackingArrow.getComponent();
+            posXOldCenter = comp.getCenterX();
+            posYOldCenter = comp.getCenterY();
 
-            while (milliSec < TIME_MULTI / attackingArrow.getSpeed()) {
-                double accuracy = (milliSec / TIME_MULTI) * attackingArrow.getSpeed();
+            Point attackedCenter = new Point(attackingArrow.getAim().getPositionGui().getX(), attackingArrow.getAim().getPositionGui().getY());
+            posXAimCenter = attackedCenter.getX();
+            posYAimCenter = attackedCenter.getY();
+        }
 
-                double changeInX = FunctionCollectionEasing.quadratic_easing_inOut(
-                        distanceToCover * accuracy, 0, posXAimCenter - posXOldCenter, distanceToCover);
+        /**
+         * Moves the arrow to its position after the given time of flight.
+         *
+         * @return true, if the arrow is still flying
+         */
+        boolean advance (double elapsedMillis) {
+            if (arrived)
+                return false;
 
-                double changeInY = FunctionCollectionEasing.quadratic_easing_inOut(
-                        distanceToCover * accuracy, 0, posYAimCenter - posYOldCenter, distanceToCover);
+            // the percentage of the flight covered so far; the arrow has arrived at 1
+            final double accuracy = Math.min(1, elapsedMillis / duration);
 
+            // the same easing as over the whole length of the attack, normalized to a duration of 1
+            double changeInX = FunctionCollectionEasing.quadratic_easing_inOut(
+                    accuracy, 0, posXAimCenter - posXOldCenter, 1);
 
-                final ImageComponent component = attackingArrow.getComponent();
+            double changeInY = FunctionCollectionEasing.quadratic_easing_inOut(
+                    accuracy, 0, posYAimCenter - posYOldCenter, 1);
 
-                // refreshing the screen-position
-                component.setCenteredLocation((int) (posXOldCenter + changeInX), (int) (posYOldCenter + changeInY));
+            // refreshing the screen-position
+            attackingArrow.getComponent().setCenteredLocation((int) (posXOldCenter + changeInX), (int) (posYOldCenter + changeInY));
 
-                try {
-                    Thread.sleep(15);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
+            if (accuracy < 1)
+                return true;
+
+            arrived = true;
+            land();
+            return false;
+        }
 
+        /** refreshing the tile-position */
+        private void land () {
             Rectangle2D boundsArrow = attackingArrow.getComponent().getPreciseRectangle();
 
-            // refreshing the tile-position
             Tile newTile = Main.getContext().getWorld().terrain().helper().findTile(
                     boundsArrow.getCenterX(), boundsArrow.getCenterY());
             if (newTile == null) {
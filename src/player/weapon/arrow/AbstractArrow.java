@@ -93,6 +93,7 @@ public abstract class AbstractArrow extends RangedWeapon implements BoardPositio
 			@Override
 			public Component startComponent() {
 				Component component = new ImageComponent(0, 0, getImage(), GameScreen.getInstance());
+				component.setWorldSpace(true);
 				component.addMouseListener(new MouseAdapter() {
 					@Override
 					public void mouseReleased (MouseEvent e) {
@@ -219,26 +220,38 @@ public abstract class AbstractArrow extends RangedWeapon implements BoardPositio
 
     @Override
     public double damageAt (int posX, int posY) {
-		// the distance between the LivingEntity (posX/posY) and the Aim
-        double currentDistance = FunctionCollection.distance(posX, posY, getAim().getGridX(), getAim().getGridY());
+        return damageRatioAt(posX, posY) * getAttackValue() * PfeileContext.damageMultiplicator().get();
+    }
 
-        if (currentDistance >= getAim().getDamageRadius()) {
+    /** The share of the full damage (from 0 to 1) taken at the tile (posX|posY): 1 at the aim, falling to 0 at the
+     * damage radius. {@link AbstractArrow#damageAt(int, int)} is the full damage scaled by this share. */
+    public double damageRatioAt (int posX, int posY) {
+        if (!isInDamageRadius(posX, posY)) {
             return 0;
         } else {
+            // the distance between the LivingEntity (posX/posY) and the Aim
+            double currentDistance = FunctionCollection.distance(posX, posY, getAim().getGridX(), getAim().getGridY());
             // this the normalized cos (cos(x * 0.5 * Math.PI) of the ratio from the distance from center
             double distanceRatio = Math.cos((currentDistance / getAim().getDamageRadius()) * 0.5 * Math.PI);
             // distanceRatio * distanceRatio: because the curve is more smoothly at the edges.
-            return distanceRatio * distanceRatio * getAttackValue() * PfeileContext.damageMultiplicator().get();
+            return distanceRatio * distanceRatio;
         }
     }
 
+    /** Returns true if the tile (posX|posY) lies within the damage radius around the aim, i.e. if anything standing
+     * there is hurt by the arrow. */
+    public boolean isInDamageRadius (int posX, int posY) {
+        final double damageRadius = getAim().getDamageRadius();
+        return FunctionCollection.distanceWithoutSqrt(posX, posY, getAim().getGridX(), getAim().getGridY()) < damageRadius * damageRadius;
+    }
+
     /** changes the rotation of the BufferedImage. With this value the image is drawn in the direction to the aim.
      * Basically it updates the the rotation with:
      * <p> <code>rotation = FunctionCollection.angle(...getCenterX(), ...getCenterY(), getAim().getPosXGui(), getAim().getPosYGui());</code>
      */
     public void calculateRotation () {
         getComponent().rotateDeg(Math.toDegrees(FunctionCollection.angle(
-				getComponent().getPreciseRectangle().getCenterX(), getComponent().getPreciseRectangle().getCenterY(), getAim().getPosXGui(), getAim().getPosYGui())));
+				getComponent().getCenterX(), getComponent().getCenterY(), getAim().getPosXGui(), getAim().getPosYGui())));
     }
 
 	public ImageComponent getComponent () {
@@ -4,26 +4,46 @@ import gui.Drawable;
 import newent.event.AttackEvent;
 
 import java.awt.*;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * This class will draw an animation, when an arrow (<b>only Arrows!</b>)impacts. It is called by the Delegate <code>onImpact</code>, 
  * which is registered in Tile. For Handling the draw-process use {@link ImpactDrawerHandler}.
+ * <p>
+ * ImpactDrawers are reused by the {@link ImpactDrawerHandler}: after an animation has ended, the same object is
+ * {@link #reset(AttackEvent) reset} for the next impact. The animation is advanced by the handler on every tick of
+ * the game loop.
  */
 class ImpactDrawer implements Drawable {
 
-    /** this value increases every millisecond. It counts the time, after starting drawingProcess. */
-    private long milliSec;
+    /** the maximum milliseconds till end of animation */
+    private static final int MILLI_SEC = 3000;
+
+    /** some time for the user to see the rest of the effect, before it disappears */
+    private static final int LINGER_MILLI_SEC = 400;
+
+    /** the milliseconds since the animation has been started. */
+    private double milliSec;
+
+    /** true, if the animation has been started with {@link #startAnimation()} */
+    private boolean started;
+
+    /** true, if the animation has ended or the drawer has been removed */
+    private volatile boolean finished;
+
+    /** the center of the impact */
+    private int centerX, centerY;
 
     /** the current boundingBox of the explosion at the impact */
-    private Rectangle bounding;
+    private final Rectangle bounding = new Rectangle();
 
     /** TODO: the boundingBox of the center of the explosion. When we draw with BufferedImage, this is no longer needed. */
-    private Rectangle boundingInner;
+    private final Rectangle boundingInner = new Rectangle();
 
     /** the boundingBox at the end of the explosion. [at its maximum size] */
-    private Rectangle boundingEnd;
+    private final Rectangle boundingEnd = new Rectangle();
+
+    /** the color of the impact - equal to the UNIFIED_COLOR of the arrow, without alpha */
+    private Color unifiedColor;
 
     /** the color of the impact - equal to the UNIFIED_COLOR of the arrow, with changing Alpha-value */
     private Color damageColor;
@@ -32,89 +52,81 @@ class ImpactDrawer implements Drawable {
     private Color damageColorInner;
 
     ImpactDrawer (AttackEvent event) {
+        reset(event);
+    }
+
+    /** Prepares the drawer for the impact of the event. The animation is not started. */
+    void reset (AttackEvent event) {
         // the weapon need to be an AbstractArrow
         //assert event.weapon() instanceof AbstractArrow;
 
         AbstractArrow arrow = (AbstractArrow) event.weapon();
 
-        damageColor = ArrowHelper.getUnifiedColor(arrow.getName());
-        damageColorInner = damageColor;
-
-        bounding = new Rectangle((int) arrow.getComponent().getBounds().getBounds().getCenterX(), (int) arrow.getComponent().getBounds().getBounds().getCenterY(), 0, 0);
+        unifiedColor = ArrowHelper.getUnifiedColor(arrow.getName());
+        damageColor = unifiedColor;
+        damageColorInner = unifiedColor;
 
-        boundingInner = new Rectangle(bounding.x, bounding.y, 0, 0);
+        centerX = (int) arrow.getComponent().getBounds().getBounds().getCenterX();
+        centerY = (int) arrow.getComponent().getBounds().getBounds().getCenterY();
+        bounding.setBounds(centerX, centerY, 0, 0);
+        boundingInner.setBounds(centerX, centerY, 0, 0);
 
-        boundingEnd = new Rectangle((int) arrow.getAim().getPosXGui(), (int) arrow.getAim().getPosYGui(),
+        boundingEnd.setBounds((int) arrow.getAim().getPosXGui(), (int) arrow.getAim().getPosYGui(),
                 (int) arrow.getAim().getDamageRadiusGUIWidth(), (int) arrow.getAim().getDamageRadiusGUIHeight());
 
+        milliSec = 0;
+        started = false;
+        finished = false;
+
         // TODO use amazing textures :D
     }
 
-    /** This will start the animation of the impact. The duration will be <code>ImpactDrawer.ImpactAnimationThread.MILLI_SEC</code> (= 3000ms)*/
+    /** This will start the animation of the impact with the next tick. The duration will be <code>MILLI_SEC</code> (= 3000ms)*/
     void startAnimation () {
-        Thread x = new ImpactAnimationThread();
-        x.setDaemon(true);
-        x.setPriority(7);
-        x.start();
+        started = true;
     }
 
-    /** This Thread draws the explosion of the impact, if <code>impactDrawer.startAnimation()</code> is called.
-     * The Thread scales the texture/bounds of the impact automatically.
-     */
-    private class ImpactAnimationThread extends Thread {
-        /** the maximum milliseconds till end of animation */
-        private static final int MILLI_SEC = 3000;
-
-        @Override
-        public void run () {
-            /* The timer is counting every milliSecond ["milliSec++;"] */
-            Timer timer = new Timer("impactDrawerScheduler", true);
-            // every milliSec has to increase every millisecond
-            timer.schedule(new Clock(), 0, 1);
-
-            int oldLocationX = bounding.x;
-            int oldLocationY = bounding.y;
-
-
-            // to reassure, that some threads aren't running faster than other.
-            milliSec = 0;
-
-            while (milliSec <= MILLI_SEC) {
-                // the progress is between 0 and 1
-                double progress = milliSec / (double) MILLI_SEC;
-                bounding.setSize((int) (boundingEnd.width * progress),(int) (boundingEnd.height  * progress));
-                bounding.setLocation(oldLocationX - bounding.width / 2, oldLocationY - bounding.height / 2);
-
-                boundingInner.setSize((int) ((bounding.width / 4.0) * progress + 10), (int) ((bounding.height / 4.0) * progress + 10));
-                boundingInner.setLocation(oldLocationX - boundingInner.width / 2, oldLocationY - boundingInner.height / 2);
-
-                damageColor = new Color(damageColor.getRed(), damageColor.getGreen(), damageColor.getBlue(), (int) (240 * (1 - progress)));
-                damageColorInner = new Color(damageColorInner.getRed(), damageColorInner.getGreen(), damageColorInner.getBlue(), (int) (140 * (1 - progress)));
+    /** Ends the animation; the drawer is removed with the next tick. */
+    void finish () {
+        finished = true;
+    }
 
-                // it can't be drawn more often
-                try {
-                    Thread.sleep(10);
-                } catch (InterruptedException e) { e.printStackTrace(); }
-            }
+    boolean isFinished () {
+        return finished;
+    }
 
-            // done
-            timer.cancel();
+    /**
+     * Scales the bounds of the impact according to the time that has passed.
+     *
+     * @param deltaMillis the milliseconds since the last tick
+     * @return true, if the animation is still running
+     */
+    boolean advance (double deltaMillis) {
+        if (finished)
+            return false;
+        if (!started)
+            return true;
+
+        milliSec += deltaMillis;
+        if (milliSec > MILLI_SEC + LINGER_MILLI_SEC) {
+            finished = true;
+            return false;
+        }
 
-            // some time for the user to see the rest of the effect, before it disappears, when it's removed from the list in ImpactDrawerHandler
-            try {
-                Thread.sleep(400);
-            } catch (InterruptedException e) { e.printStackTrace(); }
+        // the progress is between 0 and 1
+        double progress = Math.min(1, milliSec / MILLI_SEC);
+        bounding.setSize((int) (boundingEnd.width * progress),(int) (boundingEnd.height  * progress));
+        bounding.setLocation(centerX - bounding.width / 2, centerY - bounding.height / 2);
 
-            // when ready, remove this Object is no longer needed.
-            ImpactDrawerHandler.removeImpactDrawer(ImpactDrawer.this);
-        }
-    }
+        boundingInner.setSize((int) ((bounding.width / 4.0) * progress + 10), (int) ((bounding.height / 4.0) * progress + 10));
+        boundingInner.setLocation(centerX - boundingInner.width / 2, centerY - boundingInner.height / 2);
 
-    private class Clock extends TimerTask {
-        @Override
-        public void run () {
-            milliSec++;
-        }
+        final int alpha = (int) (240 * (1 - progress)), alphaInner = (int) (140 * (1 - progress));
+        if (damageColor.getAlpha() != alpha)
+            damageColor = new Color(unifiedColor.getRed(), unifiedColor.getGreen(), unifiedColor.getBlue(), alpha);
+        if (damageColorInner.getAlpha() != alphaInner)
+            damageColorInner = new Color(unifiedColor.getRed(), unifiedColor.getGreen(), unifiedColor.getBlue(), alphaInner);
+        return true;
     }
 
     /** Redirect: <b>This method is already called by class <code>ImpactDrawerHandler</code>. Use the static methods from
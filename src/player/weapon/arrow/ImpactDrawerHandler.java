@@ -1,25 +1,47 @@
 package player.weapon.arrow;
 
+import general.GameLoop;
+import general.Profiler;
 import newent.event.AttackEvent;
 
 import java.awt.*;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /** Every ImpactDrawer need to be registered by the method <code>addImpactDrawer(...)</code>. Every registered impactDrawer
  * is drawn by the method {@link ImpactDrawerHandler#draw(java.awt.Graphics2D)} (which may be called by any draw-method in any screen).
- * Every ImpactDrawer unregisters (<code>removeAttackDrawer(AttackDrawer)</code> itself, when the Thread ended. */
+ * <p>
+ * The animations are advanced by the main thread: a callback scheduled with the {@link GameLoop} advances every
+ * running animation by the time since the last tick and removes the ones that have ended. Impacts may be added from
+ * any thread; they are handed over to the main thread, which also draws them, so drawing needs no lock. The
+ * ImpactDrawers of ended animations are kept and reused for the next impacts. */
 public class ImpactDrawerHandler {
 
-    private static final LinkedList<ImpactDrawer> impactDrawerList = new LinkedList<>();
+    /** the impacts added, but not taken over by the main thread yet. Either AttackEvents or ImpactDrawers. */
+    private static final Queue<Object> added = new ConcurrentLinkedQueue<>();
+
+    /** the registered impactDrawers. Only accessed by the main thread. */
+    private static final List<ImpactDrawer> impactDrawerList = new ArrayList<>();
+
+    /** the impactDrawers of ended animations, ready to be reused. Only accessed by the main thread. */
+    private static final ArrayDeque<ImpactDrawer> pool = new ArrayDeque<>();
+
+    /** the maximum number of impactDrawers kept for reuse */
+    private static final int POOL_CAPACITY = 32;
+
+    private static final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /** System.nanoTime() at the last tick */
+    private static long lastTick;
 
     /** this adds a new ImpactDrawer. You need to add an ImpactDrawer, if you want to want to draw it.
      * This is equal to: {@link ImpactDrawerHandler#addImpactDrawer(ImpactDrawer)}. The animation is started automatically.*/
     public static void addImpactDrawer (AttackEvent attackEvent) {
-        synchronized (impactDrawerList) {
-            ImpactDrawer impactDrawer = new ImpactDrawer(attackEvent);
-            impactDrawerList.add(impactDrawer);
-            impactDrawer.startAnimation();
-        }
+        add(attackEvent);
     }
 
     /** this adds the specified impactDrawer to an existing List of ImpactDrawers. Every ImpactDrawer need to be added,
@@ -28,24 +50,74 @@ public class ImpactDrawerHandler {
      * @see ImpactDrawerHandler#addImpactDrawer(newent.event.AttackEvent)
      */
     public static void addImpactDrawer (ImpactDrawer impactDrawer) {
-        synchronized (impactDrawerList) {
-            impactDrawerList.add(impactDrawer);
-        }
+        add(impactDrawer);
+    }
+
+    /** this removes an impactDrawer with the next tick. It will not be drawn anymore. */
+    public static void removeImpactDrawer (ImpactDrawer impactDrawer) {
+        impactDrawer.finish();
     }
 
-    /** this removes an attackDrawer. Every AttackDrawer will not be drawn. */
-    public static void removeImpactDrawer (ImpactDrawer attackDrawer) {
-        synchronized (impactDrawerList) {
-            impactDrawerList.remove(attackDrawer);
+    private static void add (Object impact) {
+        added.offer(impact);
+        // the callback is scheduled once and keeps running; without animations, it does nearly nothing
+        if (scheduled.compareAndSet(false, true)) {
+            lastTick = System.nanoTime();
+            GameLoop.schedule(ImpactDrawerHandler::advance);
         }
+        GameLoop.wakeUp();
     }
 
     /** nobody will instance this class */
     private ImpactDrawerHandler () {}
 
-    /** drawing every added/registered impact with this call. */
+    /** advances every animation, removes the ended ones and takes over the added impacts. Called on every tick. */
+    private static void advance () {
+        final long now = System.nanoTime();
+        final double deltaMillis = (now - lastTick) / 1e6;
+        lastTick = now;
+
+        // removing the ended animations in the same pass, keeping the drawing order of the others
+        int kept = 0;
+        for (int i = 0; i < impactDrawerList.size(); i++) {
+            final ImpactDrawer impactDrawer = impactDrawerList.get(i);
+            if (impactDrawer.advance(deltaMillis))
+                impactDrawerList.set(kept++, impactDrawer);
+            else if (pool.size() < POOL_CAPACITY)
+                pool.push(impactDrawer);
+        }
+        impactDrawerList.subList(kept, impactDrawerList.size()).clear();
+
+        // the new impacts are advanced from the next tick on
+        Object impact;
+        while ((impact = added.poll()) != null) {
+            if (impact instanceof AttackEvent) {
+                final ImpactDrawer impactDrawer = obtain((AttackEvent) impact);
+                impactDrawer.startAnimation();
+                impactDrawerList.add(impactDrawer);
+            } else {
+                impactDrawerList.add((ImpactDrawer) impact);
+            }
+        }
+
+        // the animations are still running, so the game loop must not idle
+        if (!impactDrawerList.isEmpty())
+            GameLoop.wakeUp();
+    }
+
+    private static ImpactDrawer obtain (AttackEvent attackEvent) {
+        final ImpactDrawer impactDrawer = pool.poll();
+        if (impactDrawer == null)
+            return new ImpactDrawer(attackEvent);
+        impactDrawer.reset(attackEvent);
+        return impactDrawer;
+    }
+
+    /** drawing every added/registered impact with this call. Must be called by the main thread. */
      public static void draw (Graphics2D g) {
-        for (ImpactDrawer drawer : impactDrawerList)
-            drawer.draw(g);
+        final long start = Profiler.start();
+        for (int i = 0; i < impactDrawerList.size(); i++)
+            impactDrawerList.get(i).draw(g);
+        Profiler.IMPACT_DRAWERS.stop(start);
     }
 }
@@ -1,7 +1,11 @@
 package world
 
+import java.util.Optional
+import java.util.function.BiConsumer
+
 import com.sun.istack.internal.Nullable
-import newent.pathfinding.Path
+import newent.MovableEntity
+import newent.pathfinding.{Path, PathfindingService}
 
 /**
   * Set of methods related to displaying a proper movement prediction of a movable entity.
@@ -68,6 +72,29 @@ object GuiMovementPrediction {
     display(p, t)
   }
 
+  /**
+    * Computes the path of the entity to given position in the background and displays it once it is known.
+    *
+    * The prediction is requested as preview from the [[newent.pathfinding.PathfindingService]], so a prediction
+    * that is still pending when the next one is requested is dropped and never displayed.
+    *
+    * @param entity The entity to predict the path for.
+    * @param tx The target x position.
+    * @param ty The target y position.
+    * @param t The terrain on which the path is displayed.
+    */
+  def predict(entity: MovableEntity, tx: Int, ty: Int, t: Terrain): Unit = {
+    PathfindingService.previewPath(entity, tx, ty).whenComplete(new BiConsumer[Optional[Path], Throwable] {
+      override def accept(path: Optional[Path], failure: Throwable): Unit = {
+        // Cancelled predictions have been superseded and are not displayed anymore.
+        if (failure == null) {
+          if (path.isPresent) replace(path.get, t)
+          else erasePath()
+        }
+      }
+    })
+  }
+
   /**
     * If a path is currently displayed, this method will return true.
     *
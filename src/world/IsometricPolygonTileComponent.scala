@@ -2,7 +2,7 @@ package world
 
 import java.awt._
 import java.awt.event.{MouseAdapter, MouseEvent}
-import java.awt.geom.Rectangle2D
+import java.awt.geom.{AffineTransform, Rectangle2D}
 import java.util.{Collection => ICollection, Deque => IDeque, List => IList, Map => IMap, Queue => IQueue, Set => ISet}
 import javax.swing.SwingUtilities
 
@@ -13,12 +13,8 @@ import general.property.{DynamicProperty, PropertyBase, StaticProperty}
 import gui.AdjustableDrawing
 import gui.screen.GameScreen
 import newent.MovableEntity
-import newent.pathfinding.Path
 import world.interfaces.TileComponentLike
 
-import scala.concurrent.ExecutionContext.Implicits.global
-import scala.concurrent.Future
-
 /**
   * The component that is responsible for drawing the isometric shape of the tile.
   */
@@ -75,13 +71,14 @@ class IsometricPolygonTileComponent(val isoTile: Tile) extends Component with Ad
   //<editor-fold desc="Initialization code">
 
   setBackingScreen(GameScreen.getInstance())
+  setWorldSpace(true)
   setSourceShape(tileShape.get.construct(-TileHalfWidth / 2, -TileHalfHeight / 2, TileWidth, TileHeight).polygon)
   setName((isoTile.getGridX, isoTile.getGridY).toString())
 
   cornerRecalculation(tileShape.get, 4282, 234279, getSourceShape.getBounds.width, getSourceShape.getBounds.height)
 
-  // Translate so that the tile fits into the grid again.
-  getTransformation.translate(normalX, normalY)
+  // Place the tile at its position in the world. The tile is never moved afterwards; moving the map moves the camera.
+  setLocation(normalX, normalY)
 
   //</editor-fold>
 
@@ -150,32 +147,10 @@ class IsometricPolygonTileComponent(val isoTile: Tile) extends Component with Ad
     */
   private def onGainedMoveTargetFocus() = {
     // The entity to calculate the path for
-    val entity = Main.getContext.entitySelection.selectedEntity
-
-    /**
-      * Actual prediction logic. This code is not written inside the future or match statement
-      * on purpose.
-      *
-      * @param x The entity to predict the path to this tile for.
-      * @return Ditto.
-      */
-    def predictWith(x: MovableEntity): Option[Path] = {
-      x.pathfinderLogic.findPath(x, isoTile.getGridX, isoTile.getGridY)
-    }
-
-    val prediction = Future {
-      entity match {
-        case entity: MovableEntity => predictWith(entity)
-        case _ => throw new RuntimeException("Current entity selection is no MovableEntity")
-      }
-    }
-
-    prediction.foreach { pathOption =>
-      pathOption.map { path =>
-        GuiMovementPrediction.replace(path, isoTile.terrain)
-      } getOrElse {
-        GuiMovementPrediction.erasePath()
-      }
+    Main.getContext.entitySelection.selectedEntity match {
+      case entity: MovableEntity =>
+        GuiMovementPrediction.predict(entity, isoTile.getGridX, isoTile.getGridY, isoTile.terrain)
+      case _ =>
     }
   }
 
@@ -192,11 +167,11 @@ class IsometricPolygonTileComponent(val isoTile: Tile) extends Component with Ad
 
   //<editor-fold desc="Entity movement">
 
-  // When the user is clicking on the tile, the active player should move towards it.
+  // When the user is clicking on the tile, the active player should move towards it; the path is searched in the background.
   addMouseListener(new MouseAdapter {
     override def mouseReleased(e: MouseEvent): Unit = if (e.getButton == MouseEvent.BUTTON3) {
       Main.getContext.entitySelection.selectedEntity match {
-        case move: MovableEntity => move.moveTowards(isoTile.getGridX, isoTile.getGridY)
+        case move: MovableEntity => move.requestMoveTowards(isoTile.getGridX, isoTile.getGridY)
         case _ => ???
       }
     }
@@ -291,25 +266,43 @@ class IsometricPolygonTileComponent(val isoTile: Tile) extends Component with Ad
   def normalY = isoTile.getGridX * TileHalfHeight - isoTile.getGridY * TileHalfHeight
 
   /**
-    * Sets the position of this tile component to the normal position, to which the given translation is added.
+    * Draws the surface of the tile, meaning its texture and its borders.
     *
-    * @param leftCornerX How much x units to move this tile additionally.
-    * @param leftCornerY How much y units to move this tile additionally.
+    * @param g The graphics object.
+    * @param matrix The transformation to draw the source shape with.
     */
-  def setPositionRelativeToMap(leftCornerX: Int, leftCornerY: Int): Unit = {
-    setLocation(normalX + leftCornerX, normalY + leftCornerY)
-  }
-
-  override def draw(g: Graphics2D): Unit = {
-    super.draw(g)
-    g.useMatrix(getTransformation.localConcatenatedMatrix) {
+  private def drawSurface(g: Graphics2D, matrix: AffineTransform): Unit = {
+    g.useMatrix(matrix) {
       val oldGrad = g.getPaint
       g.setPaint(textureGradient)
       g.fill(getSourceShape)
       g.setPaint(oldGrad)
       drawBorders(g)
     }
+  }
 
+  /**
+    * Draws the surface of the tile at its normal position (see `normalX` and `normalY`), moved by given offset.
+    * Used by [[world.TerrainRenderCache]] to bake the tile into the image of its chunk.
+    */
+  private[world] def drawSurfaceAtNormal(g: Graphics2D, offsetX: Int, offsetY: Int): Unit = {
+    val matrix = AffineTransform.getTranslateInstance(normalX - getX + offsetX, normalY - getY + offsetY)
+    matrix.concatenate(getTransformation.concatenatedMatrix)
+    drawSurface(g, matrix)
+  }
+
+  /**
+    * Draws everything of the tile that is not part of the surface: the additional drawings (e.g. the mouse focus)
+    * and the debug coordinates. Used when the surface comes from [[world.TerrainRenderCache]].
+    */
+  private[world] def drawOverlays(g: Graphics2D): Unit = if (isVisible) {
+    super.draw(g)
+    drawCoordinates(g)
+  }
+
+  override def draw(g: Graphics2D): Unit = {
+    super.draw(g)
+    drawSurface(g, getTransformation.concatenatedMatrix)
     drawCoordinates(g)
   }
 
@@ -0,0 +1,51 @@
+package world
+
+/**
+  * Describes which kinds of tiles an entity is able to enter.
+  *
+  * The terrain keeps a passability bitmap for every profile, so checking whether a tile can be entered
+  * does not require a look at the tile type itself.
+  *
+  * @param id Unique index of the profile. Used by the terrain to look up the bitmap of the profile.
+  */
+sealed abstract class MovementProfile private(val id: Int) {
+
+  /**
+    * Returns true if an entity with this movement profile is able to enter given tile.
+    *
+    * @param tile The tile to check.
+    */
+  def canEnter(tile: Tile): Boolean
+
+}
+
+object MovementProfile {
+
+  /** Every tile can be entered. */
+  case object Unrestricted extends MovementProfile(0) {
+    override def canEnter(tile: Tile) = true
+  }
+
+  /** Only land can be entered, neither sea nor coast. */
+  case object Land extends MovementProfile(1) {
+    override def canEnter(tile: Tile) = tile match {
+      case sea: SeaTile => false
+      case coast: CoastTile => false
+      case _ => true
+    }
+  }
+
+  /** Land and coast can be entered, the open sea cannot. */
+  case object Coastal extends MovementProfile(2) {
+    override def canEnter(tile: Tile) = !tile.isInstanceOf[SeaTile]
+  }
+
+  // Accessors for Java code.
+  def getUnrestricted: MovementProfile = Unrestricted
+  def getLand: MovementProfile = Land
+  def getCoastal: MovementProfile = Coastal
+
+  /** Every movement profile, ordered by id. */
+  val values = Seq(Unrestricted, Land, Coastal)
+
+}
@@ -2,6 +2,7 @@ package world
 
 import java.util.{Collection => ICollection, Deque => IDeque, List => IList, Map => IMap, Queue => IQueue, Set => ISet, _}
 
+import general.Delegate
 import world.brush.TileTypeBrush
 
 import scala.collection.JavaConverters._
@@ -32,6 +33,34 @@ class Terrain(val world: World, val width: Int, val height: Int) {
     }
   }
 
+  /**
+    * Called after a tile has been replaced by `setTileAt`. The new tile is passed.
+    */
+  val onTileChanged = Delegate.create[Tile]
+
+  /**
+    * Called when the appearance of a tile has changed without replacing the tile, e.g. when one of its border
+    * colors has been set. The tile is passed.
+    */
+  val onTileAppearanceChanged = Delegate.create[Tile]
+
+  /**
+    * The movement points required to enter every tile, indexed by `y * width + x`.
+    * Kept in sync with the tile array by `setTileAt`.
+    */
+  private lazy val _movementCosts = Array.tabulate(width * height) { index =>
+    _tiles(index % width)(index / width).requiredMovementPoints
+  }
+
+  /** For every movement profile (indexed by its id) the set of tiles that can be entered. */
+  private lazy val _passability = MovementProfile.values.map { profile =>
+    val passable = new BitSet(width * height)
+    for(index <- 0 until width * height) {
+      passable.set(index, profile.canEnter(_tiles(index % width)(index / width)))
+    }
+    passable
+  }.toArray
+
   /**
     * Returns true if the specified coordinate is valid.
     *
@@ -73,15 +102,68 @@ class Terrain(val world: World, val width: Int, val height: Int) {
   def setTileAt(x: Int, y: Int, t: Tile): Unit = {
     require(t != null)
     _tiles(x)(y) = t
+    updateTileCaches(x, y, t)
+    onTileChanged(t)
+  }
+
+  private def updateTileCaches(x: Int, y: Int, t: Tile): Unit = {
+    val index = tileIndex(x, y)
+    _movementCosts(index) = t.requiredMovementPoints
+    for (profile <- MovementProfile.values) {
+      _passability(profile.id).set(index, profile.canEnter(t))
+    }
   }
 
+  /**
+    * Returns the index of the tile at (x|y) in the cost grid and in the passability bitmaps.
+    *
+    * @param x The x coordinate.
+    * @param y The y coordinate.
+    * @return `y * width + x`
+    */
+  def tileIndex(x: Int, y: Int) = y * width + x
+
+  /**
+    * Returns the movement points required to enter the tile with given index.
+    *
+    * @param index The index of the tile, as returned by `tileIndex`.
+    */
+  def movementCost(index: Int): Int = _movementCosts(index)
+
+  /**
+    * Returns the movement points required to enter the tile at (x|y).
+    *
+    * @param x The x coordinate.
+    * @param y The y coordinate.
+    */
+  def movementCost(x: Int, y: Int): Int = _movementCosts(tileIndex(x, y))
+
+  /**
+    * Returns true if an entity with given movement profile can enter the tile with given index.
+    *
+    * @param index The index of the tile, as returned by `tileIndex`.
+    * @param profile The movement profile of the entity.
+    */
+  def isPassable(index: Int, profile: MovementProfile): Boolean = _passability(profile.id).get(index)
+
+  /**
+    * Returns true if an entity with given movement profile can enter the tile at (x|y).
+    * Invalid coordinates are never passable.
+    *
+    * @param x The x coordinate.
+    * @param y The y coordinate.
+    * @param profile The movement profile of the entity.
+    */
+  def isPassable(x: Int, y: Int, profile: MovementProfile): Boolean =
+    isTileValid(x, y) && _passability(profile.id).get(tileIndex(x, y))
+
   /**
     * Overwrites the contents of the tile array with grass fields.
     */
   def generatePlain(): Unit = {
     for(x <- 0 until width;
         y <- 0 until height) {
-      _tiles(x)(y) = new GrassTile(x, y, this)
+      setTileAt(x, y, new GrassTile(x, y, this))
     }
   }
 
@@ -144,14 +226,55 @@ class Terrain(val world: World, val width: Int, val height: Int) {
   object Helper {
 
     /**
-      * Finds the tile at the gui-position (posX|posY).
+      * Finds the tile at the world position (posX|posY).
+      *
+      * Instead of testing the shape of every tile, the position is transformed back onto the grid: the tiles
+      * are placed at `((x + y) * TileHalfWidth | (x - y) * TileHalfHeight)` (see `IsometricPolygonTileComponent.normalX`
+      * and `normalY`), which is read off the tile (0|0). Only the tile found this way and its four neighbors are
+      * tested against their actual shape.
       *
-      * @param posX the x-position on the screen / of a component
-      * @param posY the y-position on the screen / of a component
-      * @return The tile at given coordinates, or null if no tile can be found at these particular screen coordinates.
+      * Tiles are placed in world coordinates; positions on the screen need to be converted first
+      * (see `Screen.toWorld`).
+      *
+      * @param posX the x-position in the world / of a component
+      * @param posY the y-position in the world / of a component
+      * @return The tile at given coordinates, or null if no tile can be found at these particular world coordinates.
       */
-    def findTile(posX: Double, posY: Double): Tile = tiles.find(tile => tile.component.getBounds.contains(posX, posY)).orNull
+    def findTile(posX: Double, posY: Double): Tile = {
+      val origin = tileAt(0, 0).component
+      val (x, y) = Terrain.gridPositionAt(posX - origin.getX - origin.getWidth / 2.0, posY - origin.getY - origin.getHeight / 2.0)
+
+      def containsPosition(cx: Int, cy: Int) = isTileValid(cx, cy) && tileAt(cx, cy).component.getBounds.contains(posX, posY)
+
+      // The shapes of the tiles are rounded, so positions on the edges may belong to a neighbor.
+      PickingCandidates.find { case (dx, dy) => containsPosition(x + dx, y + dy) } match {
+        case Some((dx, dy)) => tileAt(x + dx, y + dy)
+        case None => null
+      }
+    }
+
+    /** The tile computed by `findTile`, followed by its neighbors sharing an edge with it. */
+    private val PickingCandidates = Seq((0, 0), (1, 0), (-1, 0), (0, 1), (0, -1))
+
+  }
+
+}
+
+object Terrain {
 
+  /**
+    * Transforms a position back onto the grid. Inverts the placement of the tiles at
+    * `((x + y) * TileHalfWidth | (x - y) * TileHalfHeight)`: every position inside of the diamond of a tile
+    * yields the grid position of that tile.
+    *
+    * @param offsetX The x distance of the position from the center of the tile (0|0).
+    * @param offsetY The y distance of the position from the center of the tile (0|0).
+    * @return The grid position (x, y), which may lie outside of the terrain.
+    */
+  def gridPositionAt(offsetX: Double, offsetY: Double): (Int, Int) = {
+    val u = offsetX / Tile.TileHalfWidth
+    val v = offsetY / Tile.TileHalfHeight
+    (math.round((u + v) / 2).toInt, math.round((u - v) / 2).toInt)
   }
 
 }
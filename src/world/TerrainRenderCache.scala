@@ -0,0 +1,252 @@
+package world
+
+import java.awt.image.BufferedImage
+import java.awt.{AlphaComposite, Color, Graphics2D, Rectangle}
+
+import general.Main
+import newent.{VisionSnapshot, VisionStatus}
+
+import scala.collection.JavaConverters._
+
+/**
+  * Pre-rendered surfaces of the tiles of a terrain.
+  *
+  * The terrain is divided into square chunks of tiles. The first time a chunk is drawn, the textures and borders
+  * of its tiles are baked into one image (in a format compatible with the screen); afterwards, drawing the chunk
+  * is just drawing that image. A chunk is baked again only when one of its tiles has been replaced
+  * (`Terrain.onTileChanged`), when the appearance of one of its tiles has changed (`Terrain.onTileAppearanceChanged`)
+  * or when the vision status of one of its tiles is different from the one it has been baked with.
+  *
+  * The images are positioned in world coordinates, just like the tile components, so moving the map (which only
+  * moves the camera) does not require baking anything. Only the chunks drawn most recently are kept.
+  *
+  * @param terrain The terrain to draw.
+  * @param chunkSize The width and height of a chunk in tiles.
+  * @param capacity How many chunk images are kept at most, unless more chunks are visible at once.
+  */
+class TerrainRenderCache(val terrain: Terrain, val chunkSize: Int, val capacity: Int) {
+
+  import TerrainRenderCache._
+
+  require(chunkSize > 0 && capacity > 0)
+
+  def this(terrain: Terrain) = this(terrain, TerrainRenderCache.DefaultChunkSize, TerrainRenderCache.DefaultCapacity)
+
+  private val _chunksX = (terrain.width + chunkSize - 1) / chunkSize
+  private val _chunksY = (terrain.height + chunkSize - 1) / chunkSize
+
+  /** The chunks with an image, in the order in which they have been drawn last (least recent first). */
+  private val _chunks = new java.util.LinkedHashMap[Integer, Chunk](64, 0.75f, true)
+
+  terrain.onTileChanged += { tile => invalidate(tile.getGridX, tile.getGridY) }
+  terrain.onTileAppearanceChanged += { tile => invalidate(tile.getGridX, tile.getGridY) }
+
+  /** The number of chunk images currently kept. */
+  def size = synchronized { _chunks.size }
+
+  /** Causes the chunk containing the tile to be baked again before it is drawn the next time. */
+  def invalidate(x: Int, y: Int): Unit = synchronized {
+    if (terrain.isTileValid(x, y)) {
+      val chunk = _chunks.get((y / chunkSize) * _chunksX + x / chunkSize)
+      if (chunk != null) chunk.dirty = true
+    }
+  }
+
+  /** Causes every chunk to be baked again before it is drawn the next time. */
+  def invalidateAll(): Unit = synchronized {
+    for (chunk <- _chunks.values.asScala) chunk.dirty = true
+  }
+
+  /**
+    * Draws the surfaces of the tiles in the range, in world coordinates.
+    *
+    * @param g The graphics object, already translated by the camera.
+    * @param range The tiles to draw. Whole chunks are drawn, so some tiles outside of the range may be drawn as well.
+    * @param vision The vision to draw the tiles with: hidden tiles are left out, revealed tiles are darkened.
+    *               If `null`, every tile is drawn as visible.
+    */
+  def draw(g: Graphics2D, range: VisualMap.TileRange, vision: VisionSnapshot): Unit = synchronized {
+    var drawn = 0
+    // Same order as the tiles: rows from the highest y to the lowest.
+    var chunkY = _chunksY - 1
+    while (chunkY >= 0) {
+      var chunkX = 0
+      while (chunkX < _chunksX) {
+        if (overlaps(chunkX, chunkY, range)) {
+          val chunk = chunkAt(chunkX, chunkY)
+          if (needsBake(chunk, vision)) bake(chunk, vision, g)
+          g.drawImage(chunk.image, chunk.bounds.x, chunk.bounds.y, null)
+          drawn += 1
+        }
+        chunkX += 1
+      }
+      chunkY -= 1
+    }
+    evict(math.max(capacity, drawn))
+  }
+
+  private def chunkAt(chunkX: Int, chunkY: Int): Chunk = {
+    val key = chunkY * _chunksX + chunkX
+    var chunk = _chunks.get(key)
+    if (chunk == null) {
+      chunk = new Chunk(chunkX * chunkSize, chunkY * chunkSize,
+        math.min(terrain.width, (chunkX + 1) * chunkSize) - 1, math.min(terrain.height, (chunkY + 1) * chunkSize) - 1)
+      _chunks.put(key, chunk)
+    }
+    chunk
+  }
+
+  /** Drops the chunks drawn least recently until at most `keep` chunks are left. */
+  private def evict(keep: Int): Unit = {
+    val iterator = _chunks.values.iterator
+    while (_chunks.size > keep && iterator.hasNext) {
+      val chunk = iterator.next()
+      if (chunk.image != null) chunk.image.flush()
+      iterator.remove()
+    }
+  }
+
+  /** Returns true if any tile of the chunk may lie inside of the range. */
+  private def overlaps(chunkX: Int, chunkY: Int, range: VisualMap.TileRange): Boolean = {
+    val minX = chunkX * chunkSize
+    val minY = chunkY * chunkSize
+    val maxX = minX + chunkSize - 1
+    val maxY = minY + chunkSize - 1
+    minX + minY <= range.maxSum && maxX + maxY >= range.minSum &&
+      minX - maxY <= range.maxDifference && maxX - minY >= range.minDifference
+  }
+
+  private def component(tile: Tile): IsometricPolygonTileComponent = tile.component match {
+    case isometric: IsometricPolygonTileComponent => isometric
+    // The render cache can only handle isometric tiles for now.
+    case unknownComponent => throw new NotImplementedError(s"Component of tile is ${unknownComponent.getClass.getName}; " +
+      s"Tile#IsometricPolygonTileComponent expected")
+  }
+
+  private def statusOf(x: Int, y: Int, vision: VisionSnapshot): Byte =
+    if (vision == null) VisibleOrdinal else vision.visionStatusOf(x, y).ordinal.toByte
+
+  private def needsBake(chunk: Chunk, vision: VisionSnapshot): Boolean = {
+    if (chunk.dirty || chunk.image == null || (vision == null) != chunk.fullSight) true
+    else if (vision == null || (vision eq chunk.vision)) false
+    else {
+      // Another snapshot has been published; the chunk needs to be baked only if any of its tiles looks different.
+      var changed = false
+      var y = chunk.minY
+      while (!changed && y <= chunk.maxY) {
+        var x = chunk.minX
+        while (!changed && x <= chunk.maxX) {
+          changed = statusOf(x, y, vision) != chunk.statuses(chunk.indexOf(x, y))
+          x += 1
+        }
+        y += 1
+      }
+      if (!changed) chunk.vision = vision
+      changed
+    }
+  }
+
+  private def bake(chunk: Chunk, vision: VisionSnapshot, target: Graphics2D): Unit = {
+    if (chunk.bounds == null) chunk.bounds = boundsOf(chunk)
+    if (chunk.image == null)
+      chunk.image = Main.toCompatibleImage(new BufferedImage(chunk.bounds.width, chunk.bounds.height, BufferedImage.TYPE_INT_ARGB))
+
+    val g = chunk.image.createGraphics()
+    try {
+      g.setComposite(AlphaComposite.Clear)
+      g.fillRect(0, 0, chunk.bounds.width, chunk.bounds.height)
+      g.setComposite(AlphaComposite.SrcOver)
+      g.setRenderingHints(target.getRenderingHints)
+
+      var y = chunk.maxY
+      while (y >= chunk.minY) {
+        var x = chunk.minX
+        while (x <= chunk.maxX) {
+          val status = statusOf(x, y, vision)
+          chunk.statuses(chunk.indexOf(x, y)) = status
+
+          if (status != HiddenOrdinal) {
+            val tileComponent = component(terrain.tileAt(x, y))
+            tileComponent.drawSurfaceAtNormal(g, -chunk.bounds.x, -chunk.bounds.y)
+
+            if (status == RevealedOrdinal) {
+              val offsetX = tileComponent.normalX - tileComponent.getX - chunk.bounds.x
+              val offsetY = tileComponent.normalY - tileComponent.getY - chunk.bounds.y
+              g.translate(offsetX, offsetY)
+              g.setColor(RevealedTileColor)
+              g.fill(tileComponent.getBounds)
+              g.translate(-offsetX, -offsetY)
+            }
+          }
+          x += 1
+        }
+        y -= 1
+      }
+    } finally g.dispose()
+
+    chunk.dirty = false
+    chunk.fullSight = vision == null
+    chunk.vision = vision
+  }
+
+  /** The area covered by the tiles of the chunk in world coordinates, including some room for the borders. */
+  private def boundsOf(chunk: Chunk): Rectangle = {
+    var bounds: Rectangle = null
+    for (y <- chunk.minY to chunk.maxY; x <- chunk.minX to chunk.maxX) {
+      val tileComponent = component(terrain.tileAt(x, y))
+      val tileBounds = tileComponent.getBounds.getBounds
+      tileBounds.translate(tileComponent.normalX - tileComponent.getX, tileComponent.normalY - tileComponent.getY)
+      if (bounds == null) bounds = tileBounds else bounds.add(tileBounds)
+    }
+    bounds.grow(BorderMargin, BorderMargin)
+    bounds
+  }
+
+  /**
+    * The chunk spanning the tiles from `(minX|minY)` to `(maxX|maxY)`.
+    */
+  private class Chunk(val minX: Int, val minY: Int, val maxX: Int, val maxY: Int) {
+
+    /** The baked image; `null` until the chunk has been baked the first time. */
+    var image: BufferedImage = null
+
+    /** The area of the image in world coordinates. */
+    var bounds: Rectangle = null
+
+    /** True if a tile has changed since the chunk has been baked. */
+    var dirty = true
+
+    /** True if the chunk has been baked without vision. */
+    var fullSight = false
+
+    /** The vision snapshot the current image is known to match. */
+    var vision: VisionSnapshot = null
+
+    /** The vision status of every tile when the chunk has been baked, as ordinal. */
+    val statuses = new Array[Byte]((maxX - minX + 1) * (maxY - minY + 1))
+
+    def indexOf(x: Int, y: Int) = (y - minY) * (maxX - minX + 1) + (x - minX)
+
+  }
+
+}
+
+object TerrainRenderCache {
+
+  /** The chunk size used if none is given. */
+  val DefaultChunkSize = 4
+
+  /** The number of chunk images kept if no capacity is given. */
+  val DefaultCapacity = 64
+
+  /** The color which is drawn on top of the tile when it is revealed (but not visible). */
+  val RevealedTileColor = new Color(0.0f, 0.0f, 0.0f, 0.2f)
+
+  /** The room left around the tiles of a chunk, so the borders of the tiles are not cut off. */
+  private val BorderMargin = 2
+
+  private val VisibleOrdinal = VisionStatus.Visible.ordinal.toByte
+  private val RevealedOrdinal = VisionStatus.Revealed.ordinal.toByte
+  private val HiddenOrdinal = VisionStatus.Hidden.ordinal.toByte
+
+}
@@ -55,13 +55,13 @@ abstract class Tile protected(gridX: Int, gridY: Int, val terrain: Terrain) exte
     /**
       * The stroke with which the borders are drawn.
       */
-    val stroke = new StaticProperty(StandardDrawStroke)
+    val stroke = new BorderProperty[Stroke](StandardDrawStroke)
 
     // All non-existent by default.
-    val northEast = new StaticProperty[Color]
-    val northWest = new StaticProperty[Color]
-    val southWest = new StaticProperty[Color]
-    val southEast = new StaticProperty[Color]
+    val northEast = new BorderProperty[Color](null)
+    val northWest = new BorderProperty[Color](null)
+    val southWest = new BorderProperty[Color](null)
+    val southEast = new BorderProperty[Color](null)
 
     /**
       * Sets every border color to specified color.
@@ -80,12 +80,27 @@ abstract class Tile protected(gridX: Int, gridY: Int, val terrain: Terrain) exte
       */
     private def borderColorProps = Seq(northEast, northWest, southWest, southEast)
 
+    /**
+      * Property of the border that notifies the terrain (see `Terrain.onTileAppearanceChanged`) when it is set.
+      * Setting the initial value does not notify anyone.
+      */
+    class BorderProperty[A](initial: A) extends StaticProperty[A] {
+      super.set(initial)
+
+      override def set(x: A): Unit = {
+        super.set(x)
+        terrain.onTileAppearanceChanged(Tile.this)
+      }
+    }
+
   }
 
   //</editor-fold>
 
   //<editor-fold desc="Attack impact logic">
 
+  override protected def attackScheduler = terrain.world.attackScheduler
+
   onImpact += { e =>
     // Every entity that is an attack container and is standing on THIS tile
     // If there is any weapon the entity needs to feel the attack only on this file
@@ -94,16 +109,22 @@ abstract class Tile protected(gridX: Int, gridY: Int, val terrain: Terrain) exte
     val filteredEntityList = mutable.ListBuffer[GameObject]()
 
     if (e.weapon.isInstanceOf[AbstractArrow]) {
+      val arrow = e.weapon.asInstanceOf[AbstractArrow]
 
       // The attack impacts and it is an AbstractArrow, so we can register a new ImpactDrawer
       ImpactDrawerHandler.addImpactDrawer(e)
 
       this.takeImmediately(e)
 
-      // Every entity has to take the attack. The damage system will eventually calculate 0 damage, but the list doesn't need to be filtered
-      terrain.world.entities.entityList.foreach {
-        case x: AttackContainer => x.takeImmediately(e)
-      }
+      // Only the entities inside of the damage radius around the aim can take damage; their damage is calculated
+      // by themselves (see LivingEntity.onDamage).
+      val aim = arrow.getAim
+      terrain.world.entities.helper
+        .getEntitiesInRadius(aim.getGridX, aim.getGridY, math.ceil(aim.getDamageRadius).toInt).asScala
+        .foreach {
+          case x: AttackContainer if arrow.isInDamageRadius(x.getGridX, x.getGridY) => x.takeImmediately(e)
+          case _ =>
+        }
 
     } else {
       filteredEntityList ++= terrain.world.entities.helper.getEntitiesAt(this).asScala
@@ -149,6 +170,8 @@ abstract class Tile protected(gridX: Int, gridY: Int, val terrain: Terrain) exte
   override val getGridX = gridX
   override protected def startComponent: Component = new IsometricPolygonTileComponent(this)
 
+  override protected def isPlacedInWorld = true
+
   //</editor-fold>
 
   /**
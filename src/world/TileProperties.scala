@@ -1,6 +1,6 @@
 package world
 
-import general.property.StaticProperty
+import general.property.{FloatStaticProperty, StaticProperty}
 import player.item.ore.OreDeposit
 
 /**
@@ -11,4 +11,13 @@ class TileProperties {
   val oreDeposit = new StaticProperty[OreDeposit]
   var placedObject = Option.empty[Placeable]
 
+  /**
+    * How much the tile blocks the sight, from 0 (not at all) to 1 (completely).
+    * Only tiles with an opacity of 1 cast shadows in line of sight vision.
+    */
+  val opacity = new FloatStaticProperty(0f)
+
+  /** Returns true if the tile blocks the line of sight completely. */
+  def blocksSight = opacity.get >= 1f
+
 }
@@ -6,10 +6,10 @@ import java.util.{Deque => IDeque, List => IList, Map => IMap, Queue => IQueue,
 import general._
 import geom.{Point, Vector}
 import gui.Drawable
-import newent.{CommandTeam, VisionStatus}
-import player.item.loot.Loot
-import player.weapon.AttackDrawer
-import player.weapon.arrow.AbstractArrow
+import gui.screen.GameScreen
+import newent.{CommandTeam, VisionSnapshot, VisionStatus}
+
+import scala.collection.JavaConverters._
 
 /**
   * Takes care of the drawing of the tiles in the given world.
@@ -25,6 +25,13 @@ class VisualMap(context: PfeileContext) extends Drawable {
     case _ =>
   }
 
+  // Changes of the map that do not transform any component; the whole map needs to be redrawn.
+  context.turnSystem.onTurnGet += { _ => DamageTracker.getInstance.markAllDirty() }
+  context.world.terrain.onTileAppearanceChanged += { _ => DamageTracker.getInstance.markAllDirty() }
+  for (player <- context.world.entities.helper.getPlayers.asScala) {
+    player.visionMap.onPublished += { _ => DamageTracker.getInstance.markAllDirty() }
+  }
+
   /**
     * Called when the world GUI has been changed in some way, either through moving the map
     * or zooming.
@@ -34,8 +41,8 @@ class VisualMap(context: PfeileContext) extends Drawable {
   /** Data object that holds information on how to display the viewport. */
   private val _vp = new WorldViewport
 
-  /** The color which is drawn on top of the tile when it is revealed (but not visible). */
-  private val _revealedTileColor = new java.awt.Color(0.0f, 0.0f, 0.0f, 0.2f)
+  /** The surfaces of the tiles, baked chunk by chunk. */
+  private val _renderCache = new TerrainRenderCache(context.world.terrain)
 
   /**
     * Object that gives information on how to display the map.
@@ -51,6 +58,26 @@ class VisualMap(context: PfeileContext) extends Drawable {
   /** The world that is being displayed currently. */
   private val _displayWorld = context.world
 
+  /**
+    * Draws the tiles in the visible range: the surfaces from the render cache, everything else (like the mouse
+    * focus) directly from the tile components.
+    *
+    * @param vision The vision to draw the tiles with; `null` to draw every tile.
+    */
+  private def drawTiles(g: Graphics2D, vision: VisionSnapshot): Unit = {
+    val terrain = _displayWorld.terrain
+    val range = visibleRange
+
+    _renderCache.draw(g, range, vision)
+
+    range foreach { (x, y) =>
+      if (vision == null || vision.visionStatusOf(x, y) != VisionStatus.Hidden) terrain.tileAt(x, y).component match {
+        case isometric: IsometricPolygonTileComponent => isometric.drawOverlays(g)
+        case _ =>
+      }
+    }
+  }
+
   /** Returns the current shifting of the map in the x direction. */
   def getShiftY: Int = _vp.getShiftY.asInstanceOf[Int]
   /** Returns the current shifting of the map in the y direction. */
@@ -65,8 +92,7 @@ class VisualMap(context: PfeileContext) extends Drawable {
   def setSightType(s: SightType) = this.sightType = s
 
   /**
-    * Schedules the main thread to update the tiles to their new positions as defined
-    * by the parameters.
+    * Schedules the main thread to move the camera by given vector.
     * This method translates the entire map by given vector.
     */
   def moveMap(shiftX: Int, shiftY: Int): Unit = {
@@ -74,35 +100,17 @@ class VisualMap(context: PfeileContext) extends Drawable {
   }
 
   /**
-    * Schedules the main thread to update the tiles to their new positions as defined
-    * by the parameters.
+    * Schedules the main thread to set the camera to the position defined by the parameters.
     * This method sets the absolute translation of the entire map.
+    *
+    * Tiles, entities, loots and arrows are placed in world coordinates and stay where they are; only the
+    * camera of the game screen is moved (see `Screen.setCamera`), which is applied once when drawing the map
+    * and inverted when looking for the components under the mouse.
     */
   def setMapPosition(x: Int, y: Int): Unit = GameLoop.scheduleOnce(() => {
-    import scala.collection.JavaConversions._
-
-    val shiftX = x - getShiftX
-    val shiftY = y - getShiftY
-
     _vp.setShiftX(x)
     _vp.setShiftY(y)
-
-    for (tile <- _displayWorld.terrain.tiles) tile.component match {
-      case isometric: IsometricPolygonTileComponent =>
-        isometric.setPositionRelativeToMap(x, y)
-      // The visual map can only handle isometric tiles for now.
-      case unknownComponent => throw new NotImplementedError(s"Component of tile is ${unknownComponent.getClass.getName}; " +
-        s"Tile#IsometricPolygonTileComponent expected")
-    }
-
-    context.getWorldLootList.getLoots.foreach { loot: Loot =>
-      loot.getLootUI.relocateGuiPosition()
-    }
-
-    // TODO: other weapons (AttackDrawer.getAttackingWeapons()) apart from Arrows need to be moved.
-    AttackDrawer.getAttackingArrows.foreach { arrow: AbstractArrow =>
-      arrow.getComponent.move(shiftX, shiftY)
-    }
+    GameScreen.getInstance.setCamera(x, y)
 
     onWorldGuiChanged()
   })
@@ -132,9 +140,56 @@ class VisualMap(context: PfeileContext) extends Drawable {
     LogFacility.log("Zooming currently disabled. Don't rotate your mouse wheel to not see me again.", "Info")
   }
 
+  /**
+    * Computes the part of the terrain that is currently on the screen.
+    *
+    * The isometric transform maps a tile to `normalX = (x + y) * TileHalfWidth` and
+    * `normalY = (x - y) * TileHalfHeight`, so the window of the screen, moved back by the shift of the viewport,
+    * becomes a range of `x + y` and a range of `x - y` on the grid: a diamond.
+    */
+  def visibleRange: VisualMap.TileRange = {
+    import Tile.{TileHalfHeight, TileHalfWidth}
+
+    val window = Main.getGameWindow
+    val left = -_vp.getShiftX
+    val top = -_vp.getShiftY
+    val right = left + window.getWidth
+    val bottom = top + window.getHeight
+
+    val margin = VisualMap.TileRangeMargin
+    VisualMap.TileRange(
+      _displayWorld.terrain,
+      math.floor(left / TileHalfWidth).toInt - margin, math.ceil(right / TileHalfWidth).toInt + margin,
+      math.floor(top / TileHalfHeight).toInt - margin, math.ceil(bottom / TileHalfHeight).toInt + margin)
+  }
+  def getVisibleRange = visibleRange
+
   /** Draws the whole map. */
   override def draw(g: Graphics2D): Unit = {
-    _sightType.draw(g)
+    val start = Profiler.start()
+    throughCamera(g) {
+      _sightType.draw(g)
+    }
+    Profiler.VISUAL_MAP.stop(start)
+  }
+
+  /**
+    * Draws something placed in world coordinates (like the paths of flying arrows) through the camera:
+    * the graphics object is translated by the shift of the map while the drawing is executed.
+    *
+    * @param g The graphics object.
+    * @param drawing The drawing routine, using world coordinates.
+    */
+  def drawInWorld(g: Graphics2D, drawing: Drawable): Unit = throughCamera(g) {
+    drawing.draw(g)
+  }
+
+  private def throughCamera(g: Graphics2D)(drawing: => Unit): Unit = {
+    val shiftX = getShiftX
+    val shiftY = getShiftY
+    g.translate(shiftX, shiftY)
+    try drawing
+    finally g.translate(-shiftX, -shiftY)
   }
 
   /**
@@ -154,43 +209,19 @@ class VisualMap(context: PfeileContext) extends Drawable {
   /** Draws the map with the currently active player's vision map and the visible loots in WorldLootList. */
   object VisionSightType extends SightType {
 
-    private def drawTiles(g: Graphics2D) = {
-
-      val terrain = _displayWorld.terrain
-      val usedVision = context.activePlayer.visionMap
-
-      for (
-        y <- terrain.height - 1 to 0 by -1;
-        x <- 0 until terrain.width;
-        visionStatus = usedVision.visionStatusOf(x, y) if visionStatus != VisionStatus.Hidden
-      ) {
-        val tile = terrain.tileAt(x, y)
-        tile.component.drawChecked(g)
-
-        if (visionStatus == VisionStatus.Revealed) {
-          g.setColor(_revealedTileColor)
-          g.fill(tile.component.getBounds)
-        }
-      }
-
-    }
-
     private def drawEntities(g: Graphics2D) = {
       val terrain = _displayWorld.terrain
-      val usedVision = context.activePlayer.visionMap
-
-      for (
-        y <- terrain.height - 1 to 0 by -1;
-        x <- 0 until terrain.width;
-        visionStatus = usedVision.visionStatusOf(x, y) if terrain.isTileValid(x, y) && visionStatus == VisionStatus.Visible;
-        entity <- terrain.tileAt(x, y).entities
-      ) {
-        entity.component.draw(g)
+      val usedVision = context.activePlayer.visionMap.snapshot
+
+      visibleRange foreach { (x, y) =>
+        if (usedVision.isVisible(x, y)) {
+          for (entity <- terrain.tileAt(x, y).entities) entity.component.draw(g)
+        }
       }
     }
 
     protected[VisualMap] override def draw(g: Graphics2D): Unit = {
-      drawTiles(g)
+      drawTiles(g, context.activePlayer.visionMap.snapshot)
       drawEntities(g)
       context.getWorldLootList.draw(g)
       context.getWanderingTraders.draw(g)
@@ -202,12 +233,64 @@ class VisualMap(context: PfeileContext) extends Drawable {
     import scala.collection.JavaConversions._
 
     protected[VisualMap] override def draw(g: Graphics2D): Unit = {
-      _displayWorld.terrain.tiles foreach { tile =>
-        tile.component.drawChecked(g)
-      }
+      drawTiles(g, null)
 
       context.getWorldLootList.getLoots.foreach(loot =>
         loot.getLootUI.draw(g))
     }
   }
 }
+
+object VisualMap {
+
+  /**
+    * How many tiles the visible range reaches beyond the screen, so that tiles sticking into the screen with
+    * their shape (or their entities) are drawn as well.
+    */
+  private val TileRangeMargin = 2
+
+  /**
+    * Diamond-shaped range of tiles, given by the range of `x + y` and the range of `x - y`, clipped to
+    * the terrain.
+    *
+    * @param terrain The terrain of the tiles.
+    * @param minSum The smallest `x + y` inside of the range.
+    * @param maxSum The largest `x + y` inside of the range.
+    * @param minDifference The smallest `x - y` inside of the range.
+    * @param maxDifference The largest `x - y` inside of the range.
+    */
+  case class TileRange(terrain: Terrain, minSum: Int, maxSum: Int, minDifference: Int, maxDifference: Int) {
+
+    /** Returns true if the tile is inside of the range. */
+    def contains(x: Int, y: Int): Boolean = terrain.isTileValid(x, y) &&
+      x + y >= minSum && x + y <= maxSum && x - y >= minDifference && x - y <= maxDifference
+
+    /**
+      * Calls the function with the coordinates of every tile inside of the range, in the order in which the map
+      * is drawn: rows from the highest y to the lowest, every row from the lowest x to the highest.
+      */
+    def foreach(f: (Int, Int) => Unit): Unit = {
+      var y = math.min(terrain.height - 1, (maxSum - minDifference) / 2 + 1)
+      val lowestY = math.max(0, (minSum - maxDifference) / 2 - 1)
+      while (y >= lowestY) {
+        val fromX = math.max(0, math.max(minSum - y, minDifference + y))
+        val toX = math.min(terrain.width - 1, math.min(maxSum - y, maxDifference + y))
+        var x = fromX
+        while (x <= toX) {
+          f(x, y)
+          x += 1
+        }
+        y -= 1
+      }
+    }
+
+    /** The number of tiles inside of the range. */
+    def size: Int = {
+      var count = 0
+      foreach((_, _) => count += 1)
+      count
+    }
+
+  }
+
+}
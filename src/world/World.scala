@@ -1,6 +1,7 @@
 package world
 
-import newent.EntityManager
+import newent.{AttackContainer, AttackScheduler, EntityManager}
+import newent.pathfinding.DistanceMapCache
 
 /** Base trait for all worlds.
   *
@@ -20,9 +21,29 @@ class World(width: Int, height: Int) {
   /**
     * The entities that describe the population of the world.
     */
-  val entities = new EntityManager
+  val entities = new EntityManager(width, height)
   def getEntities = entities
 
+  /**
+    * The distance maps towards frequently targeted tiles. Emptied at the end of every turn cycle.
+    */
+  val distanceMaps = new DistanceMapCache(terrain)
+  def getDistanceMaps = distanceMaps
+
+  /**
+    * The tiles and entities with queued attacks. Updated at the end of every turn cycle.
+    */
+  val attackScheduler = new AttackScheduler
+  def getAttackScheduler = attackScheduler
+
+  // Attacks on entities which have left the world do not progress anymore.
+  entities.onEntityUnlogged += { entity =>
+    entity match {
+      case container: AttackContainer => attackScheduler.unregister(container)
+      case _ =>
+    }
+  }
+
   /**
     * The name of the world. Defaults to its hash code.
     */
@@ -0,0 +1,93 @@
+package pfeile.test.scala
+
+import newent.pathfinding.BinaryHeapAStarPathfinder
+import pfeile.test.scala.TestWorlds._
+import world.MovementProfile
+
+import scala.util.Random
+
+/**
+  * Class being tested is [[newent.pathfinding.BinaryHeapAStarPathfinder]].
+  *
+  * The paths are compared with the cheapest ways found by a plain Dijkstra search (see [[TestWorlds.cheapestCost]]).
+  */
+class BinaryHeapAStarPathfinderTest extends CommonTestSuite {
+
+  /** Deep enough to never penalize a node on the terrains of this test. */
+  private val SearchDepth = 10000
+
+  "A path on plain terrain" should "go straight and diagonally to the target" in {
+    val world = plain(20, 20)
+    val pathfinder = new BinaryHeapAStarPathfinder(SearchDepth, MovementProfile.Land)
+
+    val path = pathfinder.findPath(new Walker(world, 2, 3), 14, 8).get
+
+    assert(isValidPath(world.terrain, MovementProfile.Land, path, 2, 3, 14, 8))
+    assert(path.length == 13)
+    assert(costOf(path) == 12)
+  }
+
+  "Paths over grass, coast and sea" should "be as cheap as the cheapest way" in {
+    for (seed <- 1 to 5) {
+      val world = TestWorlds.random(25, 25, seed)
+      val terrain = world.terrain
+      val pathfinder = new BinaryHeapAStarPathfinder(SearchDepth, MovementProfile.Unrestricted)
+      val random = new Random(seed)
+
+      for (i <- 0 until 20) {
+        val (sx, sy, tx, ty) = (random.nextInt(25), random.nextInt(25), random.nextInt(25), random.nextInt(25))
+        if (sx != tx || sy != ty) {
+          val path = pathfinder.findPath(new Walker(world, sx, sy), tx, ty)
+          assert(path.isDefined)
+          assert(isValidPath(terrain, MovementProfile.Unrestricted, path.get, sx, sy, tx, ty))
+          assert(costOf(path.get) == cheapestCost(terrain, MovementProfile.Unrestricted, sx, sy, tx, ty))
+        }
+      }
+    }
+  }
+
+  "Paths on land" should "exist exactly if the target can be reached, and never leave the land" in {
+    for (seed <- 1 to 5) {
+      val world = TestWorlds.random(25, 25, seed)
+      val terrain = world.terrain
+      val pathfinder = new BinaryHeapAStarPathfinder(SearchDepth, MovementProfile.Land)
+      val random = new Random(seed)
+
+      for (i <- 0 until 20) {
+        val (sx, sy, tx, ty) = (random.nextInt(25), random.nextInt(25), random.nextInt(25), random.nextInt(25))
+        if (sx != tx || sy != ty) {
+          val path = pathfinder.findPath(new Walker(world, sx, sy), tx, ty)
+          val expectedCost = cheapestCost(terrain, MovementProfile.Land, sx, sy, tx, ty)
+          if (expectedCost == -1) assert(path.isEmpty)
+          else {
+            assert(isValidPath(terrain, MovementProfile.Land, path.get, sx, sy, tx, ty))
+            assert(costOf(path.get) == expectedCost)
+          }
+        }
+      }
+    }
+  }
+
+  "The pathfinder" should "find no path to the position of the entity itself or outside of the terrain" in {
+    val world = plain(10, 10)
+    val pathfinder = new BinaryHeapAStarPathfinder(SearchDepth, MovementProfile.Land)
+    val walker = new Walker(world, 4, 4)
+
+    assert(pathfinder.findPath(walker, 4, 4).isEmpty)
+    assert(pathfinder.findPath(walker, 10, 4).isEmpty)
+    assert(pathfinder.findPath(walker, -1, 0).isEmpty)
+  }
+
+  it should "answer concurrent requests like sequential ones" in {
+    val world = TestWorlds.random(30, 30, 42)
+    val pathfinder = new BinaryHeapAStarPathfinder(SearchDepth, MovementProfile.Unrestricted)
+    val targets = for (x <- 0 until 30 by 3; y <- 0 until 30 by 3 if x != 0 || y != 0) yield (x, y)
+    val walker = new Walker(world, 0, 0)
+
+    val sequential = targets.map { case (x, y) => pathfinder.findPath(walker, x, y) }
+    val concurrent = targets.par.map { case (x, y) => pathfinder.findPath(walker, x, y) }.seq
+
+    assert(concurrent == sequential)
+  }
+
+}
@@ -0,0 +1,66 @@
+package gui.screen
+
+import java.awt.{GraphicsEnvironment, Point, Rectangle}
+import java.util.concurrent.CopyOnWriteArrayList
+
+import comp.Component
+import pfeile.test.scala.CommonTestSuite
+
+import scala.collection.JavaConverters._
+
+/**
+  * Class being tested is [[gui.screen.ComponentHitIndex]].
+  *
+  * Components read the screen size when they are loaded, so these tests are cancelled without a display.
+  */
+class ComponentHitIndexTest extends CommonTestSuite {
+
+  /** Two components overlapping in the square from (50|50) to (100|100), indexed in the given order. */
+  private def overlapping() = {
+    val components = new CopyOnWriteArrayList[Component]
+    val index = new ComponentHitIndex(components)
+    val bottom = new Component(new Rectangle(0, 0, 100, 100))
+    val top = new Component(new Rectangle(0, 0, 100, 100))
+    top.setLocation(50, 50)
+    for (c <- Seq(bottom, top)) {
+      components.add(c)
+      index.add(c)
+    }
+    (components, index, bottom, top)
+  }
+
+  private def candidatesAt(index: ComponentHitIndex, x: Int, y: Int) =
+    index.candidatesAt(new Point(x, y), new Point(x, y)).asScala
+
+  "The candidates under a point" should "be ordered from the topmost to the bottommost component" in {
+    assume(!GraphicsEnvironment.isHeadless, "Components need a display")
+    val (_, index, bottom, top) = overlapping()
+
+    assert(candidatesAt(index, 75, 75) == Seq(top, bottom))
+    assert(candidatesAt(index, 140, 140) == Seq(top))
+  }
+
+  they should "follow the drawing order after the components have been reordered" in {
+    assume(!GraphicsEnvironment.isHeadless, "Components need a display")
+    val (components, index, bottom, top) = overlapping()
+    assert(candidatesAt(index, 75, 75) == Seq(top, bottom))
+
+    // Like Screen.forcePushBack(top)
+    components.remove(top)
+    components.add(0, top)
+    index.reorder()
+
+    assert(candidatesAt(index, 75, 75) == Seq(bottom, top))
+  }
+
+  they should "follow a component that has been moved" in {
+    assume(!GraphicsEnvironment.isHeadless, "Components need a display")
+    val (_, index, bottom, top) = overlapping()
+
+    top.setX(500)
+
+    assert(candidatesAt(index, 75, 75) == Seq(bottom))
+    assert(candidatesAt(index, 550, 75) == Seq(top))
+  }
+
+}
@@ -0,0 +1,86 @@
+package pfeile.test.scala
+
+import newent.pathfinding.DistanceMap
+import pfeile.test.scala.TestWorlds._
+import world.{MovementProfile, SeaTile}
+
+/**
+  * Class being tested is [[newent.pathfinding.DistanceMap]].
+  *
+  * The distances are compared with the cheapest ways found by a plain Dijkstra search (see [[TestWorlds.cheapestCost]]).
+  */
+class DistanceMapTest extends CommonTestSuite {
+
+  "The distances" should "be the movement points of the cheapest way to the target" in {
+    for (seed <- 1 to 3; profile <- Seq(MovementProfile.Land, MovementProfile.Unrestricted)) {
+      val terrain = TestWorlds.random(20, 20, seed).terrain
+      val map = new DistanceMap(terrain, 7, 12, profile)
+
+      // The target itself is no exception if it cannot be entered.
+      val targetPassable = terrain.isPassable(7, 12, profile)
+
+      for (x <- 0 until 20; y <- 0 until 20) {
+        val expected = if (targetPassable) cheapestCost(terrain, profile, x, y, 7, 12) else -1
+        assert(map.distance(x, y) == expected, s"Distance from ($x|$y), seed $seed, $profile")
+        assert(map.isReachable(x, y) == (expected != -1))
+      }
+    }
+  }
+
+  they should "grow by one per tile on plain terrain" in {
+    val map = new DistanceMap(plain(15, 15).terrain, 4, 9, MovementProfile.Land)
+
+    for (x <- 0 until 15; y <- 0 until 15) {
+      assert(map.distance(x, y) == math.max(math.abs(x - 4), math.abs(y - 9)))
+    }
+  }
+
+  "The paths" should "lead to the target and cost as much as the distance" in {
+    for (seed <- 1 to 3) {
+      val terrain = TestWorlds.random(20, 20, seed).terrain
+      val map = new DistanceMap(terrain, 15, 3, MovementProfile.Coastal)
+
+      for (x <- 0 until 20; y <- 0 until 20 if map.isReachable(x, y) && (x != 15 || y != 3)) {
+        val path = map.pathFrom(x, y).get
+        assert(isValidPath(terrain, MovementProfile.Coastal, path, x, y, 15, 3))
+        assert(costOf(path) == map.distance(x, y))
+        assert(map.nextStep(x, y).get == path.steps(1))
+      }
+    }
+  }
+
+  they should "not exist from the target itself or from tiles that cannot reach it" in {
+    val world = plain(10, 10)
+    // A wall of sea cuts off the two rightmost columns.
+    for (y <- 0 until 10) world.terrain.setTileAt(7, y, new SeaTile(7, y, world.terrain))
+    val map = new DistanceMap(world.terrain, 2, 2, MovementProfile.Land)
+
+    assert(map.distance(2, 2) == 0)
+    assert(map.pathFrom(2, 2).isEmpty)
+    assert(map.nextStep(2, 2).isEmpty)
+
+    assert(!map.isReachable(8, 5))
+    assert(map.distance(8, 5) == -1)
+    assert(map.pathFrom(8, 5).isEmpty)
+    assert(map.nextStep(8, 5).isEmpty)
+  }
+
+  "A target that cannot be entered" should "not be reachable from anywhere" in {
+    val world = plain(10, 10)
+    world.terrain.setTileAt(5, 5, new SeaTile(5, 5, world.terrain))
+    val map = new DistanceMap(world.terrain, 5, 5, MovementProfile.Land)
+
+    assert((0 until 10).forall(x => (0 until 10).forall(y => !map.isReachable(x, y))))
+  }
+
+  "A distance map" should "be a snapshot of the terrain at its construction" in {
+    val world = plain(10, 10)
+    val map = new DistanceMap(world.terrain, 0, 0, MovementProfile.Land)
+
+    world.terrain.setTileAt(1, 1, new SeaTile(1, 1, world.terrain))
+
+    assert(map.distance(2, 2) == 2)
+    assert(map.nextStep(2, 2).get == newent.pathfinding.Path.Step(1, 1, 1))
+  }
+
+}
@@ -0,0 +1,67 @@
+package newent
+
+import pfeile.test.scala.CommonTestSuite
+import pfeile.test.scala.TestWorlds._
+import world.World
+
+import scala.collection.mutable
+
+/**
+  * Class being tested is [[newent.EntityManager]], together with the unregistration of attack containers
+  * leaving the world (see [[world.World]]).
+  */
+class EntityManagerTest extends CommonTestSuite {
+
+  /** A walker that can be attacked. */
+  private class Target(w: World, x: Int, y: Int) extends Walker(w, x, y) with AttackContainer
+
+  "Unlogging an entity" should "fire onEntityUnlogged and remove it from the entity list" in {
+    val world = plain(10, 10)
+    val walker = new Walker(world, 3, 3)
+    val unlogged = mutable.ArrayBuffer[GameObject]()
+    world.entities.onEntityUnlogged += { e => unlogged += e }
+
+    world.entities.unlog(walker)
+
+    assert(unlogged == Seq(walker))
+    assert(!world.entities.entityList.contains(walker))
+    assert(world.entities.helper.getEntitiesAt(3, 3).isEmpty)
+  }
+
+  it should "not fire onEntityUnlogged if the entity is not registered anymore" in {
+    val world = plain(10, 10)
+    val walker = new Walker(world, 3, 3)
+    world.entities.unlog(walker)
+    val unlogged = mutable.ArrayBuffer[GameObject]()
+    world.entities.onEntityUnlogged += { e => unlogged += e }
+
+    world.entities.unlog(walker)
+
+    assert(unlogged.isEmpty)
+  }
+
+  it should "unregister it from the attack scheduler of the world" in {
+    val world = plain(10, 10)
+    val walker = new Target(world, 3, 3)
+    // Like AttackContainer.take
+    world.attackScheduler.register(walker)
+    assert(world.attackScheduler.activeContainers == Seq(walker))
+
+    world.entities.unlog(walker)
+
+    assert(world.attackScheduler.activeCount == 0)
+  }
+
+  "Sorting out entities" should "fire onEntityUnlogged for every removed entity" in {
+    val world = plain(10, 10)
+    val walkers = for (x <- 0 until 4) yield new Walker(world, x, 0)
+    val unlogged = mutable.ArrayBuffer[GameObject]()
+    world.entities.onEntityUnlogged += { e => unlogged += e }
+
+    world.entities.sortOut(e => e.getGridX % 2 == 0)
+
+    assert(unlogged == Seq(walkers(0), walkers(2)))
+    assert(world.entities.entityList == Seq(walkers(1), walkers(3)))
+  }
+
+}
@@ -0,0 +1,126 @@
+package newent.pathfinding
+
+import pfeile.test.scala.TestWorlds._
+import pfeile.test.scala.{CommonTestSuite, TestWorlds}
+import world.{MovementProfile, SeaTile}
+
+import scala.util.Random
+
+/**
+  * Class being tested is [[newent.pathfinding.HierarchicalPathfinder]], and with it the
+  * [[newent.pathfinding.ClusterGraph]] it searches.
+  *
+  * The paths are compared with the cheapest ways found by a plain Dijkstra search (see [[TestWorlds.cheapestCost]]).
+  */
+class HierarchicalPathfinderTest extends CommonTestSuite {
+
+  /**
+    * How much more expensive than the cheapest way a path may be, at most and on average. Grass, coast and sea
+    * mixed at random are a hard case: the cheapest way may leave the clusters along the abstract route.
+    */
+  private val MaxDetour = 1.1
+  private val MaxMeanDetour = 1.01
+
+  "Paths on plain terrain" should "be as cheap as the cheapest way" in {
+    val world = plain(40, 40)
+    val pathfinder = new HierarchicalPathfinder(MovementProfile.Land, 8)
+    val random = new Random(3)
+
+    for (i <- 0 until 50) {
+      val (sx, sy, tx, ty) = (random.nextInt(40), random.nextInt(40), random.nextInt(40), random.nextInt(40))
+      if (sx != tx || sy != ty) {
+        val path = pathfinder.findPath(new Walker(world, sx, sy), tx, ty).get
+        assert(isValidPath(world.terrain, MovementProfile.Land, path, sx, sy, tx, ty))
+        assert(costOf(path) == cheapestCost(world.terrain, MovementProfile.Land, sx, sy, tx, ty))
+      }
+    }
+  }
+
+  "Paths over grass, coast and sea" should "exist exactly if the target can be reached, and be near-optimal" in {
+    val detours = Vector.newBuilder[Double]
+    for (seed <- 1 to 5; profile <- Seq(MovementProfile.Land, MovementProfile.Coastal, MovementProfile.Unrestricted)) {
+      val world = TestWorlds.random(40, 40, seed)
+      val terrain = world.terrain
+      val pathfinder = new HierarchicalPathfinder(profile, 8)
+      val random = new Random(seed)
+
+      for (i <- 0 until 30) {
+        val (sx, sy, tx, ty) = (random.nextInt(40), random.nextInt(40), random.nextInt(40), random.nextInt(40))
+        if (sx != tx || sy != ty) {
+          val path = pathfinder.findPath(new Walker(world, sx, sy), tx, ty)
+          val expectedCost = cheapestCost(terrain, profile, sx, sy, tx, ty)
+          if (expectedCost == -1) assert(path.isEmpty)
+          else {
+            assert(isValidPath(terrain, profile, path.get, sx, sy, tx, ty))
+            val detour = costOf(path.get).toDouble / expectedCost
+            assert(detour <= MaxDetour, s"($sx|$sy) -> ($tx|$ty), seed $seed, $profile")
+            detours += detour
+          }
+        }
+      }
+    }
+    val all = detours.result()
+    assert(all.sum / all.size <= MaxMeanDetour)
+  }
+
+  they should "be found from a tile that cannot be entered" in {
+    val world = plain(16, 16)
+    val terrain = world.terrain
+    // The walker stands in the sea at the right border of its cluster; the only way leads into the next cluster.
+    for (x <- 5 to 7; y <- 2 to 6) terrain.setTileAt(x, y, new SeaTile(x, y, terrain))
+    val pathfinder = new HierarchicalPathfinder(MovementProfile.Land, 8)
+
+    val path = pathfinder.findPath(new Walker(world, 7, 4), 3, 4).get
+
+    assert(isValidPath(terrain, MovementProfile.Land, path, 7, 4, 3, 4))
+    assert(path.steps(1).x == 8)
+  }
+
+  "The pathfinder" should "route around tiles that have changed since the last search" in {
+    val world = plain(30, 30)
+    val terrain = world.terrain
+    val pathfinder = new HierarchicalPathfinder(MovementProfile.Land, 8)
+    val walker = new Walker(world, 2, 15)
+    assert(costOf(pathfinder.findPath(walker, 27, 15).get) == 25)
+
+    // A wall of sea with one gap at the top.
+    for (y <- 1 until 30) terrain.setTileAt(15, y, new SeaTile(15, y, terrain))
+    val path = pathfinder.findPath(walker, 27, 15).get
+
+    assert(isValidPath(terrain, MovementProfile.Land, path, 2, 15, 27, 15))
+    assert(path.contains(15, 0))
+    assert(costOf(path) == cheapestCost(terrain, MovementProfile.Land, 2, 15, 27, 15))
+  }
+
+  it should "find no path if a tile of the corridor is closed between the abstract search and the refinement" in {
+    val world = plain(24, 8)
+    val terrain = world.terrain
+    val pathfinder = new HierarchicalPathfinder(MovementProfile.Land, 8)
+    val graph = new ClusterGraph(terrain, MovementProfile.Land, 8)
+    val (local, abstractSpace) = (new SearchSpace(24, 8), new SearchSpace(24, 8))
+    graph.update(local)
+
+    val route = pathfinder.searchRoute(graph, local, abstractSpace, terrain.tileIndex(2, 4), terrain.tileIndex(21, 4)).get
+    abstractSpace.reset()
+    // Leaves the parents of a successful search behind in the search space.
+    assert(pathfinder.refine(graph, local, route).isDefined)
+
+    // Like another thread calling setTileAt while the pathfinder is between both steps.
+    for (y <- 0 until 8) terrain.setTileAt(12, y, new SeaTile(12, y, terrain))
+
+    assert(pathfinder.refine(graph, local, route).isEmpty)
+  }
+
+  it should "find no path to a target that cannot be reached" in {
+    val world = plain(30, 30)
+    val terrain = world.terrain
+    for (y <- 0 until 30) terrain.setTileAt(15, y, new SeaTile(15, y, terrain))
+    val pathfinder = new HierarchicalPathfinder(MovementProfile.Land, 8)
+    val walker = new Walker(world, 2, 15)
+
+    assert(pathfinder.findPath(walker, 27, 15).isEmpty)
+    assert(pathfinder.findPath(walker, 15, 15).isEmpty)
+    assert(pathfinder.findPath(walker, 2, 15).isEmpty)
+  }
+
+}
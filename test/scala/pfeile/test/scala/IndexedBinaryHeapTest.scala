@@ -0,0 +1,91 @@
+package pfeile.test.scala
+
+import newent.pathfinding.IndexedBinaryHeap
+
+import scala.util.Random
+
+/**
+  * Class being tested is [[newent.pathfinding.IndexedBinaryHeap]].
+  */
+class IndexedBinaryHeapTest extends CommonTestSuite {
+
+  private def pollAll(heap: IndexedBinaryHeap) = {
+    val polled = Vector.newBuilder[Int]
+    while (heap.nonEmpty) polled += heap.poll()
+    polled.result()
+  }
+
+  "An indexed binary heap" should "poll the ids ordered by their keys" in {
+    val random = new Random(17)
+    val heap = new IndexedBinaryHeap(500)
+    val keys = Array.fill(500)(random.nextInt(1000))
+    for (id <- random.shuffle(keys.indices.toList)) heap.insert(id, keys(id))
+
+    assert(heap.size == 500)
+    val polledKeys = pollAll(heap).map(keys)
+    assert(polledKeys == keys.toVector.sorted)
+    assert(heap.isEmpty)
+  }
+
+  it should "move an id forward when its key is decreased" in {
+    val heap = new IndexedBinaryHeap(10)
+    for (id <- 0 until 10) heap.insert(id, 100 + id)
+
+    heap.decreaseKey(7, 5)
+    heap.decreaseKey(3, 50)
+
+    assert(heap.keyOf(7) == 5)
+    assert(pollAll(heap) == Vector(7, 3, 0, 1, 2, 4, 5, 6, 8, 9))
+  }
+
+  it should "ignore keys that are not lower than the current key" in {
+    val heap = new IndexedBinaryHeap(3)
+    heap.insert(0, 10)
+    heap.insert(1, 20)
+
+    heap.decreaseKey(0, 30)
+
+    assert(heap.keyOf(0) == 10)
+    assert(heap.poll() == 0)
+  }
+
+  it should "track which ids it contains" in {
+    val heap = new IndexedBinaryHeap(5)
+    heap.insert(2, 1)
+    heap.insert(4, 0)
+    assert(heap.contains(2) && heap.contains(4))
+    assert(!heap.contains(0))
+
+    assert(heap.poll() == 4)
+    assert(!heap.contains(4))
+    assert(heap.peek == 2)
+  }
+
+  it should "be empty and reusable after being cleared" in {
+    val heap = new IndexedBinaryHeap(8)
+    for (id <- 0 until 8) heap.insert(id, 8 - id)
+    heap.clear()
+
+    assert(heap.isEmpty)
+    assert((0 until 8).forall(id => !heap.contains(id)))
+
+    heap.insert(3, 3)
+    heap.insert(5, 1)
+    assert(pollAll(heap) == Vector(5, 3))
+  }
+
+  it should "reject an id that is inserted twice" in {
+    val heap = new IndexedBinaryHeap(2)
+    heap.insert(1, 1)
+    intercept[IllegalArgumentException] {
+      heap.insert(1, 0)
+    }
+  }
+
+  it should "throw when polled while empty" in {
+    intercept[NoSuchElementException] {
+      new IndexedBinaryHeap(4).poll()
+    }
+  }
+
+}
@@ -0,0 +1,121 @@
+package general
+
+import java.util.concurrent.CountDownLatch
+
+import pfeile.test.scala.CommonTestSuite
+
+import scala.collection.mutable
+
+/**
+  * Class being tested is [[general.MpscRingBuffer]].
+  */
+class MpscRingBufferTest extends CommonTestSuite {
+
+  private def pollAll[E](buffer: MpscRingBuffer[E]) = {
+    val polled = mutable.ArrayBuffer[E]()
+    var element = buffer.poll()
+    while (element != null) {
+      polled += element
+      element = buffer.poll()
+    }
+    polled
+  }
+
+  "The capacity" should "be rounded up to the next power of two" in {
+    assert(new MpscRingBuffer[String](1).capacity == 1)
+    assert(new MpscRingBuffer[String](5).capacity == 8)
+    assert(new MpscRingBuffer[String](8).capacity == 8)
+    assert(new MpscRingBuffer[String](1000).capacity == 1024)
+  }
+
+  it should "be positive" in {
+    intercept[IllegalArgumentException] {
+      new MpscRingBuffer[String](0)
+    }
+  }
+
+  "A full buffer" should "reject further elements until one is polled" in {
+    val buffer = new MpscRingBuffer[Integer](4)
+    for (i <- 0 until 4) assert(buffer.offer(i))
+
+    assert(!buffer.offer(4))
+    assert(buffer.poll() == 0)
+    assert(buffer.offer(4))
+    assert(!buffer.offer(5))
+
+    assert(pollAll(buffer) == Seq(1, 2, 3, 4))
+  }
+
+  "An empty buffer" should "return null when polled" in {
+    val buffer = new MpscRingBuffer[String](4)
+    assert(buffer.isEmpty)
+    assert(buffer.poll() == null)
+
+    buffer.offer("a")
+    assert(!buffer.isEmpty)
+    buffer.poll()
+    assert(buffer.isEmpty)
+    assert(buffer.poll() == null)
+  }
+
+  "The elements" should "keep their order when the buffer wraps around" in {
+    val buffer = new MpscRingBuffer[Integer](8)
+    val polled = mutable.ArrayBuffer[Integer]()
+    var next = 0
+
+    // Three in, two out: the head and the tail run around the buffer many times at different positions.
+    for (round <- 0 until 100) {
+      for (i <- 0 until 3) {
+        if (buffer.offer(next)) next += 1
+      }
+      for (i <- 0 until 2) {
+        val element = buffer.poll()
+        if (element != null) polled += element
+      }
+    }
+    polled ++= pollAll(buffer)
+
+    assert(polled == (0 until next))
+    assert(next > 100)
+  }
+
+  they should "not be null" in {
+    intercept[NullPointerException] {
+      new MpscRingBuffer[String](4).offer(null)
+    }
+  }
+
+  "Elements of concurrent producers" should "all arrive, in the order of every single producer" in {
+    val producers = 4
+    val perProducer = 20000
+    val buffer = new MpscRingBuffer[(Int, Int)](64)
+    val start = new CountDownLatch(1)
+
+    val threads = for (p <- 0 until producers) yield new Thread(new Runnable {
+      override def run(): Unit = {
+        start.await()
+        for (i <- 0 until perProducer) {
+          while (!buffer.offer((p, i))) Thread.`yield`()
+        }
+      }
+    })
+    threads.foreach(_.start())
+    start.countDown()
+
+    val received = Array.fill(producers)(mutable.ArrayBuffer[Int]())
+    var count = 0
+    while (count < producers * perProducer) {
+      val element = buffer.poll()
+      if (element == null) Thread.`yield`()
+      else {
+        received(element._1) += element._2
+        count += 1
+      }
+    }
+    threads.foreach(_.join())
+
+    assert(buffer.isEmpty)
+    for (p <- 0 until producers) assert(received(p) == (0 until perProducer))
+  }
+
+}
@@ -0,0 +1,70 @@
+package pfeile.test.scala
+
+import newent.ShadowCasting
+import world.Terrain
+
+import scala.util.Random
+
+/**
+  * Class being tested is [[newent.ShadowCasting]].
+  */
+class ShadowCastingTest extends CommonTestSuite {
+
+  /** The tiles visible from (x|y), as (x, y) pairs. */
+  private def visibleFrom(terrain: Terrain, x: Int, y: Int, radius: Int): Set[(Int, Int)] = {
+    val visible = Set.newBuilder[(Int, Int)]
+    ShadowCasting.compute(terrain, x, y, radius, index => visible += ((index % terrain.width, index / terrain.width)))
+    visible.result()
+  }
+
+  private def block(terrain: Terrain, x: Int, y: Int): Unit = terrain.tileAt(x, y).tileProperties.opacity.set(1f)
+
+  "The field of view" should "contain every tile closer than the radius if nothing blocks the sight" in {
+    val terrain = TestWorlds.plain(30, 30).terrain
+
+    val expected = (for (x <- 0 until 30; y <- 0 until 30 if (x - 12) * (x - 12) + (y - 17) * (y - 17) < 49) yield (x, y)).toSet
+    assert(visibleFrom(terrain, 12, 17, 7) == expected)
+  }
+
+  it should "end at the borders of the terrain" in {
+    val terrain = TestWorlds.plain(10, 10).terrain
+
+    val expected = (for (x <- 0 until 10; y <- 0 until 10 if x * x + y * y < 25) yield (x, y)).toSet
+    assert(visibleFrom(terrain, 0, 0, 5) == expected)
+  }
+
+  "A wall" should "be visible itself and hide the tiles behind it" in {
+    val terrain = TestWorlds.plain(20, 20).terrain
+    for (y <- 5 to 15) block(terrain, 12, y)
+
+    val visible = visibleFrom(terrain, 8, 10, 8)
+
+    assert((8 to 10).forall(y => visible.contains((12, y))))
+    assert((13 to 15).forall(x => !visible.contains((x, 10))))
+    assert(visible.contains((11, 10)))
+  }
+
+  "Seeing" should "be symmetric between tiles that do not block the sight" in {
+    for (seed <- 1 to 5) {
+      val terrain = TestWorlds.plain(24, 24).terrain
+      val random = new Random(seed)
+      for (x <- 0 until 24; y <- 0 until 24 if random.nextInt(5) == 0) block(terrain, x, y)
+
+      val radius = 9
+      val open = for (x <- 0 until 24; y <- 0 until 24 if !terrain.tileAt(x, y).tileProperties.blocksSight) yield (x, y)
+      val visible = open.map(tile => tile -> visibleFrom(terrain, tile._1, tile._2, radius)).toMap
+
+      for (a <- open; b <- visible(a) if visible.contains(b)) {
+        assert(visible(b).contains(a), s"$a sees $b, but not the other way round (seed $seed)")
+      }
+    }
+  }
+
+  "Nothing" should "be visible from outside of the terrain or without a radius" in {
+    val terrain = TestWorlds.plain(10, 10).terrain
+
+    assert(visibleFrom(terrain, -1, 3, 5).isEmpty)
+    assert(visibleFrom(terrain, 3, 3, 0).isEmpty)
+  }
+
+}
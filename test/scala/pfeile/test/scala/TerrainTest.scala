@@ -0,0 +1,49 @@
+package pfeile.test.scala
+
+import world.Terrain
+import world.Tile.{TileHalfHeight, TileHalfWidth}
+
+import scala.util.Random
+
+/**
+  * Class being tested is [[world.Terrain]], the conversion between world positions and the grid used by
+  * `Terrain.Helper.findTile`. The tile components themselves need a running game screen, so the shapes of
+  * the tiles are described by their diamonds here.
+  */
+class TerrainTest extends CommonTestSuite {
+
+  /** The center of the tile (x|y), relative to the center of the tile (0|0), like `IsometricPolygonTileComponent`. */
+  private def centerOf(x: Int, y: Int) = ((x + y) * TileHalfWidth.toDouble, (x - y) * TileHalfHeight.toDouble)
+
+  "The grid position at the center of a tile" should "be the tile itself" in {
+    for (x <- -5 to 30; y <- -5 to 30) {
+      val (cx, cy) = centerOf(x, y)
+      assert(Terrain.gridPositionAt(cx, cy) == ((x, y)))
+    }
+  }
+
+  "The grid position anywhere inside of the diamond of a tile" should "be the tile itself" in {
+    val random = new Random(11)
+    for (i <- 0 until 10000) {
+      val (x, y) = (random.nextInt(40), random.nextInt(40))
+      // A point inside of the diamond: |a| + |b| < 1, in half tile sizes.
+      val a = random.nextDouble() * 2 - 1
+      val b = (random.nextDouble() * 2 - 1) * (1 - math.abs(a)) * 0.999
+      val (cx, cy) = centerOf(x, y)
+
+      assert(Terrain.gridPositionAt(cx + a * TileHalfWidth, cy + b * TileHalfHeight) == ((x, y)), s"($a|$b) in ($x|$y)")
+    }
+  }
+
+  "Positions beyond the corners of a tile" should "belong to its neighbors" in {
+    val (cx, cy) = centerOf(4, 7)
+
+    assert(Terrain.gridPositionAt(cx + TileHalfWidth * 1.1, cy) == ((5, 8)))
+    assert(Terrain.gridPositionAt(cx, cy - TileHalfHeight * 1.1) == ((3, 8)))
+    assert(Terrain.gridPositionAt(cx + TileHalfWidth * 0.5, cy + TileHalfHeight * 0.6) == ((5, 7)))
+    assert(Terrain.gridPositionAt(cx + TileHalfWidth * 0.5, cy - TileHalfHeight * 0.6) == ((4, 8)))
+    assert(Terrain.gridPositionAt(cx - TileHalfWidth * 0.5, cy + TileHalfHeight * 0.6) == ((4, 6)))
+    assert(Terrain.gridPositionAt(cx - TileHalfWidth * 0.5, cy - TileHalfHeight * 0.6) == ((3, 7)))
+  }
+
+}
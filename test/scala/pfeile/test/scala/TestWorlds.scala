@@ -0,0 +1,103 @@
+package pfeile.test.scala
+
+import newent.pathfinding.Path
+import newent.{Entity, MovableEntity}
+import world._
+
+import scala.collection.mutable
+import scala.util.Random
+
+/**
+  * Worlds with known terrains for the tests of the pathfinding and vision classes, and the expected results
+  * computed the simple way.
+  *
+  * Only the tiles are set up; nothing is drawn, so no tile component is ever created.
+  */
+object TestWorlds {
+
+  /** Creates a world whose tiles are all grass. */
+  def plain(width: Int, height: Int): World = {
+    val world = new World(width, height)
+    world.terrain.generatePlain()
+    world
+  }
+
+  /**
+    * Creates a world with randomly placed grass, coast and sea tiles; about half of them are grass.
+    *
+    * @param seed The seed of the random tile types, so that failing tests can be reproduced.
+    */
+  def random(width: Int, height: Int, seed: Long): World = {
+    val world = new World(width, height)
+    val terrain = world.terrain
+    val random = new Random(seed)
+    for (x <- 0 until width; y <- 0 until height) {
+      val tile = random.nextInt(4) match {
+        case 0 => new SeaTile(x, y, terrain)
+        case 1 => new CoastTile(x, y, terrain)
+        case _ => new GrassTile(x, y, terrain)
+      }
+      terrain.setTileAt(x, y, tile)
+    }
+    world
+  }
+
+  /** An entity that does nothing but stand on its tile, for asking the pathfinders for paths. */
+  class Walker(world: World, x: Int, y: Int) extends Entity(world, x, y) with MovableEntity {
+    override def defaultMovementPoints = Int.MaxValue
+    override protected def startComponent = throw new UnsupportedOperationException("Walkers are not drawn")
+  }
+
+  /** The movement points needed to walk along the path. */
+  def costOf(path: Path): Int = path.steps.tail.map(_.reqMovementPoints).sum
+
+  /**
+    * The movement points of the cheapest way from (sx|sy) to (tx|ty), found by a plain Dijkstra search over the
+    * eight neighbors of every tile. Every tile of the way but the start must be passable.
+    *
+    * @return The movement points, or -1 if the target cannot be reached.
+    */
+  def cheapestCost(terrain: Terrain, profile: MovementProfile, sx: Int, sy: Int, tx: Int, ty: Int): Int = {
+    val costs = Array.fill(terrain.width * terrain.height)(Int.MaxValue)
+    val open = mutable.PriorityQueue[(Int, Int)]()(Ordering.by[(Int, Int), Int](-_._1))
+    costs(terrain.tileIndex(sx, sy)) = 0
+    open += ((0, terrain.tileIndex(sx, sy)))
+
+    while (open.nonEmpty) {
+      val (cost, index) = open.dequeue()
+      if (cost == costs(index)) {
+        val x = index % terrain.width
+        val y = index / terrain.width
+        for (dx <- -1 to 1; dy <- -1 to 1 if (dx != 0 || dy != 0) && terrain.isPassable(x + dx, y + dy, profile)) {
+          val neighbor = terrain.tileIndex(x + dx, y + dy)
+          val neighborCost = cost + terrain.movementCost(neighbor)
+          if (neighborCost < costs(neighbor)) {
+            costs(neighbor) = neighborCost
+            open += ((neighborCost, neighbor))
+          }
+        }
+      }
+    }
+
+    val target = costs(terrain.tileIndex(tx, ty))
+    if (target == Int.MaxValue) -1 else target
+  }
+
+  /**
+    * Returns true if the path leads from (sx|sy) to (tx|ty) in single steps onto neighboring tiles, every step
+    * entering a passable tile and carrying the movement points of that tile.
+    */
+  def isValidPath(terrain: Terrain, profile: MovementProfile, path: Path, sx: Int, sy: Int, tx: Int, ty: Int): Boolean = {
+    val steps = path.steps
+    val first = steps.head
+    val last = steps.last
+    val connected = steps.sliding(2).forall {
+      case Seq(from, to) =>
+        math.max(math.abs(from.x - to.x), math.abs(from.y - to.y)) == 1 &&
+          terrain.isPassable(to.x, to.y, profile) && to.reqMovementPoints == terrain.movementCost(to.x, to.y)
+      case _ => true
+    }
+    first.x == sx && first.y == sy && first.reqMovementPoints == 0 && last.x == tx && last.y == ty && connected
+  }
+
+}
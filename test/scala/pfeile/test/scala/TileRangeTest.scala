@@ -0,0 +1,57 @@
+package pfeile.test.scala
+
+import world.VisualMap.TileRange
+
+import scala.collection.mutable
+
+/**
+  * Class being tested is [[world.VisualMap.TileRange]].
+  */
+class TileRangeTest extends CommonTestSuite {
+
+  private val terrain = TestWorlds.plain(20, 14).terrain
+
+  private def tilesOf(range: TileRange) = {
+    val tiles = mutable.ArrayBuffer[(Int, Int)]()
+    range.foreach((x, y) => tiles += ((x, y)))
+    tiles
+  }
+
+  /** The tiles of the range in drawing order, found by looking at every tile of the terrain. */
+  private def expectedTilesOf(range: TileRange) =
+    for (y <- terrain.height - 1 to 0 by -1; x <- 0 until terrain.width if range.contains(x, y)) yield (x, y)
+
+  "A tile range" should "pass every tile it contains once, in drawing order" in {
+    val ranges = Seq(
+      TileRange(terrain, 5, 20, -4, 9),
+      TileRange(terrain, 0, 40, -20, 20),
+      TileRange(terrain, -10, 3, -30, 30),
+      TileRange(terrain, 25, 60, 10, 40),
+      TileRange(terrain, 7, 7, 1, 1),
+      TileRange(terrain, 12, 13, -12, 18))
+
+    for (range <- ranges) {
+      assert(tilesOf(range) == expectedTilesOf(range), range)
+      assert(range.size == expectedTilesOf(range).size)
+    }
+  }
+
+  it should "contain only tiles of the terrain" in {
+    val range = TileRange(terrain, -100, 100, -100, 100)
+
+    assert(range.size == 20 * 14)
+    assert(!range.contains(-1, 0))
+    assert(!range.contains(20, 3))
+  }
+
+  it should "be empty if it lies outside of the terrain" in {
+    assert(TileRange(terrain, -20, -5, -40, 40).size == 0)
+    assert(TileRange(terrain, 40, 60, -40, 40).size == 0)
+    assert(TileRange(terrain, 0, 40, 25, 40).size == 0)
+  }
+
+  it should "be empty if its bounds are swapped" in {
+    assert(TileRange(terrain, 20, 5, -4, 9).size == 0)
+  }
+
+}
@@ -0,0 +1,116 @@
+package general
+
+import pfeile.test.scala.CommonTestSuite
+
+import scala.util.Random
+
+/**
+  * Class being tested is [[general.TimingHistogram]].
+  */
+class TimingHistogramTest extends CommonTestSuite {
+
+  private def histogramOf(values: Seq[Long]) = {
+    val histogram = new TimingHistogram
+    values.foreach(histogram.record)
+    histogram
+  }
+
+  /** The exact percentile, as defined by `getPercentileNanos`. */
+  private def percentileOf(sorted: IndexedSeq[Long], fraction: Double) =
+    sorted(math.max(1, math.ceil(fraction * sorted.size).toLong).toInt - 1)
+
+  "An empty histogram" should "report zero for everything" in {
+    val histogram = new TimingHistogram
+
+    assert(histogram.getCount == 0)
+    assert(histogram.getMeanNanos == 0)
+    assert(histogram.getMinNanos == 0)
+    assert(histogram.getMaxNanos == 0)
+    assert(histogram.getPercentileNanos(0.99) == 0)
+  }
+
+  "Count, mean, minimum and maximum" should "be exact" in {
+    val histogram = histogramOf(Seq(1000L, 3000L, 5L, 123456789L))
+
+    assert(histogram.getCount == 4)
+    assert(histogram.getMeanNanos == (1000 + 3000 + 5 + 123456789) / 4.0)
+    assert(histogram.getMinNanos == 5)
+    assert(histogram.getMaxNanos == 123456789)
+  }
+
+  "Negative durations" should "be recorded as zero" in {
+    val histogram = histogramOf(Seq(-50L))
+
+    assert(histogram.getMinNanos == 0)
+    assert(histogram.getPercentileNanos(0.5) == 0)
+  }
+
+  "Percentiles of small values" should "be exact" in {
+    // Every value below 2 * 16 has a bucket of its own.
+    val values = (0L until 32L).toIndexedSeq
+    val histogram = histogramOf(Random.shuffle(values))
+
+    for (fraction <- Seq(0.0, 0.1, 0.25, 0.5, 0.9, 0.99, 1.0)) {
+      assert(histogram.getPercentileNanos(fraction) == percentileOf(values, fraction), fraction)
+    }
+  }
+
+  "Percentiles" should "be off by at most one sixteenth of the value, whatever its magnitude" in {
+    val random = new Random(5)
+    // Spread over many powers of two, from nanoseconds to seconds.
+    val values = IndexedSeq.fill(20000)(math.pow(2, random.nextDouble() * 32).toLong).sorted
+    val histogram = histogramOf(values)
+
+    for (fraction <- Seq(0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999)) {
+      val expected = percentileOf(values, fraction)
+      val actual = histogram.getPercentileNanos(fraction)
+      assert(math.abs(actual - expected) <= expected / 16, s"$fraction: $actual instead of $expected")
+    }
+  }
+
+  they should "stay within the recorded values" in {
+    val histogram = histogramOf(Seq(1000L, 1001L, 1002L))
+
+    assert(histogram.getPercentileNanos(0) >= 1000)
+    assert(histogram.getPercentileNanos(1) <= 1002)
+  }
+
+  they should "report the maximum for durations beyond the largest bucket" in {
+    val huge = (1L << 45) + 12345
+    val histogram = histogramOf(Seq(10L, huge))
+
+    assert(histogram.getPercentileNanos(1) == huge)
+    assert(histogram.getPercentileNanos(0.5) == 10)
+  }
+
+  "Adding a histogram" should "be like recording its values" in {
+    val random = new Random(8)
+    val a = Seq.fill(500)(random.nextInt(1000000).toLong)
+    val b = Seq.fill(300)(random.nextInt(1000).toLong)
+    val added = histogramOf(a)
+    added.add(histogramOf(b))
+    val recorded = histogramOf(a ++ b)
+
+    assert(added.getCount == recorded.getCount)
+    assert(added.getMeanNanos == recorded.getMeanNanos)
+    assert(added.getMinNanos == recorded.getMinNanos)
+    assert(added.getMaxNanos == recorded.getMaxNanos)
+    for (fraction <- Seq(0.1, 0.5, 0.9, 0.99)) {
+      assert(added.getPercentileNanos(fraction) == recorded.getPercentileNanos(fraction))
+    }
+  }
+
+  "Clearing a histogram" should "forget every recorded value" in {
+    val histogram = histogramOf(Seq(5000L, 7000L))
+    histogram.clear()
+
+    assert(histogram.getCount == 0)
+    assert(histogram.getPercentileNanos(0.5) == 0)
+
+    histogram.record(20)
+    assert(histogram.getMinNanos == 20)
+    assert(histogram.getMaxNanos == 20)
+    assert(histogram.getPercentileNanos(0.5) == 20)
+  }
+
+}
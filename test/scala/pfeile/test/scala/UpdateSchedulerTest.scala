@@ -0,0 +1,162 @@
+package general
+
+import general.GameLoop.UpdateHandle
+import pfeile.test.scala.CommonTestSuite
+
+import scala.collection.mutable
+
+/**
+  * Class being tested is [[general.UpdateScheduler]].
+  *
+  * Cancelled handles report to the scheduler of the [[general.GameLoop]]; the tests report to their own scheduler
+  * the same way.
+  */
+class UpdateSchedulerTest extends CommonTestSuite {
+
+  import UpdateHandle.NO_DEADLINE
+
+  private class Fixture {
+    val scheduler = new UpdateScheduler
+    val calls = mutable.ArrayBuffer[String]()
+
+    def submit(name: String, priority: Int = 0, deadline: Long = NO_DEADLINE, recurring: Boolean = false) = {
+      val handle = new UpdateHandle(() => calls += name, priority, deadline, recurring)
+      scheduler.submit(handle)
+      handle
+    }
+
+    def cancel(handle: UpdateHandle): Unit = {
+      handle.invalidate()
+      if (handle.hasDeadline) scheduler.delayedCancelled()
+    }
+
+    /** Runs a tick and returns the callbacks called in it. */
+    def tick(now: Long = 0) = {
+      calls.clear()
+      scheduler.runTick(now)
+      calls.toList
+    }
+  }
+
+  "Recurring callbacks" should "be called every tick from the highest to the lowest priority" in {
+    val f = new Fixture
+    f.submit("low", priority = -5, recurring = true)
+    f.submit("high", priority = 10, recurring = true)
+    f.submit("default", recurring = true)
+
+    assert(f.tick() == List("high", "default", "low"))
+    assert(f.tick() == List("high", "default", "low"))
+  }
+
+  they should "keep the order of their submission within the same priority" in {
+    val f = new Fixture
+    for (name <- Seq("a", "b", "c")) f.submit(name, recurring = true)
+    f.tick()
+    f.submit("d", recurring = true)
+    f.submit("first", priority = 1, recurring = true)
+
+    assert(f.tick() == List("first", "a", "b", "c", "d"))
+  }
+
+  they should "not be called any more once cancelled" in {
+    val f = new Fixture
+    f.submit("a", recurring = true)
+    val b = f.submit("b", recurring = true)
+    f.submit("c", recurring = true)
+    f.tick()
+
+    f.cancel(b)
+
+    assert(f.tick() == List("a", "c"))
+    assert(f.tick() == List("a", "c"))
+  }
+
+  "One-time callbacks" should "be called once, after the recurring ones and ordered by priority" in {
+    val f = new Fixture
+    f.submit("recurring", priority = -100, recurring = true)
+    f.submit("once", priority = -1)
+    f.submit("urgent", priority = 3)
+
+    assert(f.tick() == List("recurring", "urgent", "once"))
+    assert(f.tick() == List("recurring"))
+  }
+
+  they should "not be called if cancelled before the tick" in {
+    val f = new Fixture
+    val handle = f.submit("once")
+    f.cancel(handle)
+
+    assert(f.tick().isEmpty)
+  }
+
+  they should "be called in the next tick if scheduled by a callback" in {
+    val f = new Fixture
+    f.scheduler.submit(new UpdateHandle(() => {
+      f.calls += "outer"
+      f.submit("inner")
+    }, 0, NO_DEADLINE, false))
+
+    assert(f.tick() == List("outer"))
+    assert(f.scheduler.hasDueWork(0))
+    assert(f.tick() == List("inner"))
+    assert(!f.scheduler.hasDueWork(0))
+  }
+
+  they should "all be called even if more are submitted than the submission buffer holds" in {
+    val f = new Fixture
+    for (i <- 0 until 5000) f.submit(i.toString)
+
+    assert(f.tick() == (0 until 5000).map(_.toString))
+    assert(!f.scheduler.hasDueWork(0))
+  }
+
+  "Callbacks with a deadline" should "wait until their deadline has passed" in {
+    val f = new Fixture
+    f.submit("later", deadline = 2000)
+    f.submit("sooner", deadline = 1000)
+
+    assert(f.tick(500).isEmpty)
+    assert(!f.scheduler.hasDueWork(500))
+    assert(f.scheduler.nanosUntilNextDeadline(500) == 500)
+
+    assert(f.scheduler.hasDueWork(1000))
+    assert(f.tick(1000) == List("sooner"))
+    assert(f.scheduler.nanosUntilNextDeadline(1000) == 1000)
+
+    assert(f.tick(2500) == List("later"))
+    assert(f.scheduler.nanosUntilNextDeadline(2500) == Long.MaxValue)
+  }
+
+  they should "be ordered by priority, not by deadline, once due" in {
+    val f = new Fixture
+    f.submit("early", priority = 0, deadline = 100)
+    f.submit("late", priority = 5, deadline = 200)
+
+    assert(f.tick(300) == List("late", "early"))
+  }
+
+  they should "handle deadlines across the overflow of the nano time" in {
+    val f = new Fixture
+    val now = Long.MaxValue - 100
+    f.submit("wrapped", deadline = now + 200)
+    f.tick(now)
+
+    assert(f.scheduler.nanosUntilNextDeadline(now) == 200)
+    assert(f.tick(now + 150).isEmpty)
+    assert(f.tick(now + 250) == List("wrapped"))
+  }
+
+  they should "no longer hold up the next deadline once cancelled" in {
+    val f = new Fixture
+    val cancelled = f.submit("cancelled", deadline = 1000)
+    f.submit("kept", deadline = 3000)
+    f.tick(0)
+
+    f.cancel(cancelled)
+    assert(f.tick(10).isEmpty)
+
+    assert(f.scheduler.nanosUntilNextDeadline(10) == 2990)
+    assert(f.tick(3000) == List("kept"))
+  }
+
+}